@@ -0,0 +1,136 @@
+package fuga.app.invaderdetector.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fuga.app.invaderdetector.components.detector.AutoDetectionEngine;
+import fuga.app.invaderdetector.components.detector.BitPackedDetectionEngine;
+import fuga.app.invaderdetector.components.detector.ExactMatchDetectionEngine;
+import fuga.app.invaderdetector.components.detector.FftDetectionEngine;
+import fuga.app.invaderdetector.components.detector.ParallelDetectionEngine;
+import fuga.app.invaderdetector.components.detector.PyramidDetectionEngine;
+import fuga.app.invaderdetector.components.detector.SpaceInvaderDetector;
+import fuga.app.invaderdetector.components.detector.StreamingDetector;
+import fuga.app.invaderdetector.components.filter.ResultFilter;
+import fuga.app.invaderdetector.components.loader.BinaryMatrixLoader;
+import fuga.app.invaderdetector.components.loader.InvaderTemplateCache;
+import fuga.app.invaderdetector.components.loader.MappedMatrixLoader;
+import fuga.app.invaderdetector.components.loader.MatrixLoaderComponent;
+import fuga.app.invaderdetector.components.metrics.DetectionMetrics;
+import fuga.app.invaderdetector.components.printer.ResultPrinter;
+import fuga.app.invaderdetector.components.sink.ResultSinkFactory;
+import fuga.app.invaderdetector.components.transformer.FileToMatrixTransformer;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.Matrix;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Class used to benchmark end-to-end detection, from image files to printed results.
+ * Printed output is discarded, so console speed does not affect results
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DetectBenchmark {
+
+	@Param({"1024"})
+	public int radarSize;
+
+	@Param({"0.3", "0.5"})
+	public double density;
+
+	@Param({"2"})
+	public int invaderCount;
+
+	@Param({"text", "mapped", "streaming"})
+	public String loading;
+
+	private final PrintStream systemOut = System.out;
+
+	private Path directory;
+	private List<String> invaderFilePaths;
+	private String radarFilePath;
+	private ParallelDetectionEngine parallelEngine;
+	private SpaceInvaderDetector spaceInvaderDetector;
+	private long windows;
+
+	@Setup
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("detect-benchmark");
+
+		final List<Matrix> invaders = SyntheticImages.invaders(invaderCount);
+		final Matrix radar = SyntheticImages.radar(radarSize, radarSize, density, invaders);
+
+		invaderFilePaths = new ArrayList<>();
+		for (int index = 0; index < invaders.size(); index++) {
+			invaderFilePaths.add(SyntheticImages.write(invaders.get(index), directory.resolve("invader" + index + ".txt")));
+		}
+		radarFilePath = SyntheticImages.write(radar, directory.resolve("radar.txt"));
+		windows = SyntheticImages.windows(invaders, radar);
+
+		final DetectorProperties detectorProperties = new DetectorProperties();
+		detectorProperties.setParallelism(0);
+		detectorProperties.setStreaming("streaming".equals(loading));
+		detectorProperties.setMappedLoaderMinimumFileSize("mapped".equals(loading) ? 0 : Long.MAX_VALUE);
+
+		final BitPackedDetectionEngine bitPackedEngine = new BitPackedDetectionEngine();
+		parallelEngine = new ParallelDetectionEngine(bitPackedEngine, detectorProperties);
+		final AutoDetectionEngine detectionEngine = new AutoDetectionEngine(parallelEngine, new FftDetectionEngine(bitPackedEngine),
+			new PyramidDetectionEngine(bitPackedEngine, detectorProperties), new ExactMatchDetectionEngine(bitPackedEngine), detectorProperties);
+		final ResultFilter resultFilter = new ResultFilter(detectorProperties);
+
+		spaceInvaderDetector = new SpaceInvaderDetector(new MatrixLoaderComponent(), new MappedMatrixLoader(), new BinaryMatrixLoader(), new FileToMatrixTransformer(),
+			new InvaderTemplateCache(detectorProperties), new ResultPrinter(detectorProperties), new ResultSinkFactory(detectorProperties), detectionEngine, bitPackedEngine,
+			new StreamingDetector(detectionEngine, resultFilter, detectorProperties), resultFilter, new DetectionMetrics(new SimpleMeterRegistry()), detectorProperties);
+
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(final int b) {
+			}
+
+			@Override
+			public void write(final byte[] b, final int off, final int len) {
+			}
+		}));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		System.setOut(systemOut);
+		parallelEngine.shutdown();
+
+		for (String invaderFilePath : invaderFilePaths) {
+			Files.deleteIfExists(directory.resolve(invaderFilePath));
+		}
+		Files.deleteIfExists(directory.resolve(radarFilePath));
+		Files.deleteIfExists(directory);
+	}
+
+	@Benchmark
+	public void detect(final WindowCounter counter) {
+		counter.windows += windows;
+		spaceInvaderDetector.detect(invaderFilePaths, radarFilePath, 80.0f);
+	}
+}
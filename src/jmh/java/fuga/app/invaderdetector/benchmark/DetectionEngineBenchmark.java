@@ -0,0 +1,104 @@
+package fuga.app.invaderdetector.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fuga.app.invaderdetector.components.detector.BitPackedDetectionEngine;
+import fuga.app.invaderdetector.components.detector.FftDetectionEngine;
+import fuga.app.invaderdetector.components.detector.ParallelDetectionEngine;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+/**
+ * Class used to benchmark detection engines on already loaded radar image.
+ * Required percentage of 0 turns every sub-matrix into a result, which measures noise and junk classification
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DetectionEngineBenchmark {
+
+	@Param({"256", "1024"})
+	public int radarSize;
+
+	@Param({"0.3", "0.5"})
+	public double density;
+
+	@Param({"1", "2"})
+	public int invaderCount;
+
+	@Param({"80", "0"})
+	public float requiredPercentage;
+
+	private final BitPackedDetectionEngine bitPackedEngine = new BitPackedDetectionEngine();
+	private final FftDetectionEngine fftEngine = new FftDetectionEngine(bitPackedEngine);
+	private ParallelDetectionEngine parallelEngine;
+
+	private List<InvaderTemplate> invaders;
+	private PackedMatrix radarMatrix;
+	private long windows;
+
+	@Setup
+	public void setUp() {
+		final List<Matrix> invaderMatrices = SyntheticImages.invaders(invaderCount);
+		final Matrix radar = SyntheticImages.radar(radarSize, radarSize, density, invaderMatrices);
+
+		invaders = invaderMatrices.stream().map(InvaderTemplate::of).collect(Collectors.toList());
+		radarMatrix = PackedMatrix.of(radar);
+		windows = SyntheticImages.windows(invaderMatrices, radar);
+
+		final DetectorProperties detectorProperties = new DetectorProperties();
+		detectorProperties.setParallelism(0);
+		parallelEngine = new ParallelDetectionEngine(bitPackedEngine, detectorProperties);
+	}
+
+	@TearDown
+	public void tearDown() {
+		parallelEngine.shutdown();
+	}
+
+	@Benchmark
+	public List<List<DetectionResult>> bitPacked(final WindowCounter counter) {
+		counter.windows += windows;
+		return bitPackedEngine.process(DetectionContext.of(invaders, radarMatrix, requiredPercentage));
+	}
+
+	@Benchmark
+	public List<List<DetectionResult>> bitPackedWithPruning(final WindowCounter counter) {
+		counter.windows += windows;
+		return bitPackedEngine.process(DetectionContext.withPruning(invaders, radarMatrix, requiredPercentage));
+	}
+
+	@Benchmark
+	public List<List<DetectionResult>> parallel(final WindowCounter counter) {
+		counter.windows += windows;
+		return parallelEngine.process(DetectionContext.withPruning(invaders, radarMatrix, requiredPercentage));
+	}
+
+	@Benchmark
+	public List<List<DetectionResult>> fft(final WindowCounter counter) {
+		counter.windows += windows;
+		return fftEngine.process(DetectionContext.of(invaders, radarMatrix, requiredPercentage));
+	}
+}
@@ -0,0 +1,117 @@
+package fuga.app.invaderdetector.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fuga.app.invaderdetector.components.loader.BinaryMatrixLoader;
+import fuga.app.invaderdetector.components.loader.BinaryMatrixWriter;
+import fuga.app.invaderdetector.components.loader.MappedMatrixLoader;
+import fuga.app.invaderdetector.components.loader.MatrixLoaderComponent;
+import fuga.app.invaderdetector.components.loader.PackedRowReader;
+import fuga.app.invaderdetector.components.transformer.FileToMatrixTransformer;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+/**
+ * Class used to benchmark loading of radar image file, from text lines to Matrix and directly to bit-packed matrix
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoaderBenchmark {
+
+	private static final int BAND_ROWS = 1024;
+
+	@Param({"1024", "4096"})
+	public int radarSize;
+
+	@Param({"0.5"})
+	public double density;
+
+	private final MatrixLoaderComponent matrixLoaderComponent = new MatrixLoaderComponent();
+	private final FileToMatrixTransformer fileToMatrixTransformer = new FileToMatrixTransformer();
+	private final MappedMatrixLoader mappedMatrixLoader = new MappedMatrixLoader();
+	private final BinaryMatrixLoader binaryMatrixLoader = new BinaryMatrixLoader();
+
+	private Path directory;
+	private String radarFilePath;
+	private String binaryFilePath;
+	private List<String> radarLines;
+	private PackedMatrix band;
+
+	@Setup
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("radar-benchmark");
+		final Matrix radar = SyntheticImages.radar(radarSize, radarSize, density, Collections.emptyList());
+
+		radarFilePath = SyntheticImages.write(radar, directory.resolve("radar.txt"));
+		radarLines = matrixLoaderComponent.loadFromFile(radarFilePath);
+		binaryFilePath = directory.resolve("radar.bin").toString();
+		new BinaryMatrixWriter().write(PackedMatrix.of(radar), binaryFilePath);
+		band = new PackedMatrix(radarSize, BAND_ROWS);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(directory.resolve("radar.txt"));
+		Files.deleteIfExists(directory.resolve("radar.bin"));
+		Files.deleteIfExists(directory);
+	}
+
+	@Benchmark
+	public List<String> loadFromFile() {
+		return matrixLoaderComponent.loadFromFile(radarFilePath);
+	}
+
+	@Benchmark
+	public Matrix transform() {
+		return fileToMatrixTransformer.transform(radarLines);
+	}
+
+	@Benchmark
+	public PackedMatrix pack() {
+		return PackedMatrix.of(fileToMatrixTransformer.transform(matrixLoaderComponent.loadFromFile(radarFilePath)));
+	}
+
+	@Benchmark
+	public PackedMatrix mappedLoad() {
+		return mappedMatrixLoader.load(radarFilePath);
+	}
+
+	@Benchmark
+	public PackedMatrix binaryLoad() {
+		return binaryMatrixLoader.load(binaryFilePath);
+	}
+
+	@Benchmark
+	public int streamingRead() throws IOException {
+		int rows = 0;
+		try (PackedRowReader reader = new PackedRowReader(radarFilePath)) {
+			int read;
+			while ((read = reader.read(band, 0)) > 0) {
+				rows += read;
+			}
+		}
+		return rows;
+	}
+}
@@ -0,0 +1,70 @@
+package fuga.app.invaderdetector.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fuga.app.invaderdetector.components.detector.CharMatrixDetectionEngine;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.Matrix;
+
+/**
+ * Class used to benchmark reference detection engine, the original character by character comparison with noise classification.
+ * It is orders of magnitude slower than other engines, so only small radar images are measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReferenceEngineBenchmark {
+
+	@Param({"128"})
+	public int radarSize;
+
+	@Param({"0.3", "0.5"})
+	public double density;
+
+	@Param({"1", "2"})
+	public int invaderCount;
+
+	@Param({"80", "0"})
+	public float requiredPercentage;
+
+	private final CharMatrixDetectionEngine detectionEngine = new CharMatrixDetectionEngine();
+
+	private List<Matrix> invaders;
+	private Matrix radarMatrix;
+	private long windows;
+
+	@Setup
+	public void setUp() {
+		invaders = SyntheticImages.invaders(invaderCount);
+		radarMatrix = SyntheticImages.radar(radarSize, radarSize, density, invaders);
+		windows = SyntheticImages.windows(invaders, radarMatrix);
+	}
+
+	@Benchmark
+	public List<List<DetectionResult>> charMatrix(final WindowCounter counter) {
+		counter.windows += windows;
+
+		final List<List<DetectionResult>> results = new ArrayList<>();
+		for (Matrix invader : invaders) {
+			results.add(detectionEngine.process(invader, radarMatrix, requiredPercentage));
+		}
+		return results;
+	}
+}
@@ -0,0 +1,122 @@
+package fuga.app.invaderdetector.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import fuga.app.invaderdetector.model.Matrix;
+
+/**
+ * Class used to generate synthetic invader and radar images for benchmarks.
+ * Images are generated from fixed seed, so every benchmark run measures the same input
+ */
+final class SyntheticImages {
+
+	private static final long SEED = 42L;
+	private static final char MATCHING_CHAR = 'o';
+	private static final char EMPTY_CHAR = '-';
+
+	//Sizes of invaders from the original assignment, used in turns when more invaders are requested
+	private static final int[][] INVADER_SIZES = {{11, 8}, {8, 8}};
+	private static final double INVADER_DENSITY = 0.5;
+
+	//One planted copy of every invader per this many radar cells
+	private static final int CELLS_PER_COPY = 4096;
+
+	private SyntheticImages() {
+	}
+
+	/**
+	 * Generates random invaders
+	 * @param count Number of invaders
+	 * @return List of invader Matrix objects
+	 */
+	static List<Matrix> invaders(final int count) {
+		final Random random = new Random(SEED);
+		final List<Matrix> invaders = new ArrayList<>();
+
+		for (int index = 0; index < count; index++) {
+			final int[] size = INVADER_SIZES[index % INVADER_SIZES.length];
+			final Matrix invader = random(random, size[0], size[1], INVADER_DENSITY);
+			//Invader with no 'o' would never be detected
+			invader.setElement(0, 0, MATCHING_CHAR);
+			invaders.add(invader);
+		}
+
+		return invaders;
+	}
+
+	/**
+	 * Generates random radar image with copies of invaders planted at random positions
+	 * @param width Radar width
+	 * @param height Radar height
+	 * @param density Probability of 'o' in radar cell outside planted invaders
+	 * @param invaders Invaders to plant
+	 * @return Radar Matrix object
+	 */
+	static Matrix radar(final int width, final int height, final double density, final List<Matrix> invaders) {
+		final Random random = new Random(SEED + 1);
+		final Matrix radar = random(random, width, height, density);
+		final int copies = Math.max(1, width * height / CELLS_PER_COPY);
+
+		for (Matrix invader : invaders) {
+			if (invader.getWidth() > width || invader.getHeight() > height) {
+				continue;
+			}
+			for (int copy = 0; copy < copies; copy++) {
+				final int row = random.nextInt(height - invader.getHeight() + 1);
+				final int column = random.nextInt(width - invader.getWidth() + 1);
+				for (int i = 0; i < invader.getHeight(); i++) {
+					System.arraycopy(invader.getElements()[i], 0, radar.getElements()[row + i], column, invader.getWidth());
+				}
+			}
+		}
+
+		return radar;
+	}
+
+	/**
+	 * Writes matrix to file in the format of image files
+	 * @param matrix Matrix object
+	 * @param file Path of file
+	 * @return String representing path to written file
+	 * @throws IOException If file can not be written
+	 */
+	static String write(final Matrix matrix, final Path file) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+			for (char[] row : matrix.getElements()) {
+				writer.write(row);
+				writer.write('\n');
+			}
+		}
+		return file.toString();
+	}
+
+	/**
+	 * @return Number of sub-matrices of radar that every detection engine scores for given invaders
+	 */
+	static long windows(final List<Matrix> invaders, final Matrix radar) {
+		long windows = 0;
+		for (Matrix invader : invaders) {
+			windows += (long) Math.max(0, radar.getWidth() - invader.getWidth() + 1) * Math.max(0, radar.getHeight() - invader.getHeight() + 1);
+		}
+		return windows;
+	}
+
+	private static Matrix random(final Random random, final int width, final int height, final double density) {
+		final char[][] elements = new char[height][width];
+
+		for (int i = 0; i < height; i++) {
+			for (int j = 0; j < width; j++) {
+				elements[i][j] = random.nextDouble() < density ? MATCHING_CHAR : EMPTY_CHAR;
+			}
+		}
+
+		return Matrix.builder().width(width).height(height).elements(elements).build();
+	}
+}
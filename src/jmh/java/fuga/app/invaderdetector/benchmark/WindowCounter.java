@@ -0,0 +1,23 @@
+package fuga.app.invaderdetector.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Class used to report number of radar sub-matrices (windows) processed by benchmark.
+ * It is reported by JMH as secondary "windows" result, in windows per second
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class WindowCounter {
+
+	public long windows;
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		windows = 0;
+	}
+}
@@ -1,5 +1,9 @@
 package fuga.app.invaderdetector;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
@@ -7,7 +11,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.env.Environment;
 
+import fuga.app.invaderdetector.components.detector.BatchDetector;
 import fuga.app.invaderdetector.components.detector.SpaceInvaderDetector;
+import fuga.app.invaderdetector.components.loader.MatrixConverter;
+import fuga.app.invaderdetector.components.server.DetectionServer;
+import fuga.app.invaderdetector.components.shard.ShardCoordinator;
+import fuga.app.invaderdetector.components.shard.ShardWorker;
+import fuga.app.invaderdetector.config.DetectorProperties;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -28,15 +38,47 @@ public class InvaderDetectorApplication implements CommandLineRunner {
 	}
 
 	@Override
-	public void run(final String... args) {
+	public void run(final String... args) throws IOException {
+
+		final DetectorProperties detectorProperties = context.getBean(DetectorProperties.class);
+
+		if (detectorProperties.getShardWorkerPort() > 0) {
+			//Worker process launched by shard coordinator
+			context.getBean(ShardWorker.class).serve(detectorProperties.getShardWorkerPort());
+			return;
+		}
+
+		if (!detectorProperties.getConvertInputPath().isEmpty()) {
+			context.getBean(MatrixConverter.class).convert(detectorProperties.getConvertInputPath(), detectorProperties.getConvertOutputPath());
+			return;
+		}
+
+		if (detectorProperties.isServer()) {
+			final List<String> invaderPaths = detectorProperties.getServerInvaderPaths().isEmpty()
+				? Arrays.asList(resourcePath("invader1ImagePath"), resourcePath("invader2ImagePath"))
+				: detectorProperties.getServerInvaderPaths();
+
+			//Service threads keep the application running until it is stopped
+			context.getBean(DetectionServer.class).start(invaderPaths);
+			return;
+		}
+
+		if (!detectorProperties.getSweepPercentages().isEmpty()) {
+			context.getBean(SpaceInvaderDetector.class).sweep(Arrays.asList(resourcePath("invader1ImagePath"), resourcePath("invader2ImagePath")),
+				resourcePath("radarImagePath"), detectorProperties.getSweepPercentages());
+			return;
+		}
 
 		float percentage;
 
-		if (args.length == 0) {
+		//Arguments starting with "--" are application properties, handled by Spring Boot
+		final String[] inputArguments = Arrays.stream(args).filter(arg -> !arg.startsWith("--")).toArray(String[]::new);
+
+		if (inputArguments.length == 0) {
 			log.info("Input arguments are empty. Using default value {}%", environment.getProperty("defaultPercentage"));
 			percentage = Float.parseFloat(environment.getProperty("defaultPercentage"));
 		} else {
-			final String requiredPercentageString = args[0];
+			final String requiredPercentageString = inputArguments[0];
 
 			try {
 				percentage = Float.parseFloat(requiredPercentageString);
@@ -49,8 +91,30 @@ public class InvaderDetectorApplication implements CommandLineRunner {
 			}
 		}
 
+		if (!detectorProperties.getBatchRadarPath().isEmpty()) {
+			final List<String> invaderPaths = detectorProperties.getBatchInvaderPaths().isEmpty()
+				? Arrays.asList(resourcePath("invader1ImagePath"), resourcePath("invader2ImagePath"))
+				: detectorProperties.getBatchInvaderPaths();
+
+			context.getBean(BatchDetector.class).detect(invaderPaths, detectorProperties.getBatchRadarPath(), percentage);
+			return;
+		}
+
+		if (detectorProperties.getShardWorkers() > 0) {
+			context.getBean(ShardCoordinator.class).detect(Arrays.asList(resourcePath("invader1ImagePath"), resourcePath("invader2ImagePath")),
+				resourcePath("radarImagePath"), percentage);
+			return;
+		}
+
 		SpaceInvaderDetector spaceInvaderDetector = context.getBean(SpaceInvaderDetector.class);
-		spaceInvaderDetector.detect(getClass().getClassLoader().getResource(environment.getProperty("invader1ImagePath")).getPath(), getClass().getClassLoader().getResource(environment.getProperty("radarImagePath")).getPath(), percentage);
-		spaceInvaderDetector.detect(getClass().getClassLoader().getResource(environment.getProperty("invader2ImagePath")).getPath(), getClass().getClassLoader().getResource(environment.getProperty("radarImagePath")).getPath(), percentage);
+		spaceInvaderDetector.detect(Arrays.asList(resourcePath("invader1ImagePath"), resourcePath("invader2ImagePath")), resourcePath("radarImagePath"), percentage);
+	}
+
+	/**
+	 * @param property Name of property holding path of image file in resources
+	 * @return String representing path to image file
+	 */
+	private String resourcePath(final String property) {
+		return getClass().getClassLoader().getResource(environment.getProperty(property)).getPath();
 	}
 }
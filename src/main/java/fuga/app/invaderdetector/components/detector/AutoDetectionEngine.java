@@ -0,0 +1,83 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class used to select detection engine for each invader, based on invader size and required percentage.
+ * Invaders which have to be matched completely are detected with exact-match filter. Otherwise small invaders are compared
+ * with radar sub-matrices directly, or with coarse-to-fine search when pyramid levels are configured,
+ * and large invaders are detected with cross-correlation
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AutoDetectionEngine implements DetectionEngine {
+
+	private final ParallelDetectionEngine directEngine;
+	private final FftDetectionEngine fftEngine;
+	private final PyramidDetectionEngine pyramidEngine;
+	private final ExactMatchDetectionEngine exactEngine;
+	private final DetectorProperties detectorProperties;
+
+	@Override
+	public List<List<DetectionResult>> process(final DetectionContext context) {
+		final List<InvaderTemplate> invaders = context.getInvaders();
+		final List<DetectionEngine> engines = new ArrayList<>(invaders.size());
+		final Map<DetectionEngine, List<InvaderTemplate>> engineInvaders = new LinkedHashMap<>();
+
+		for (int index = 0; index < invaders.size(); index++) {
+			final DetectionEngine engine = select(invaders.get(index), context.getRequiredMatches()[index]);
+			engines.add(engine);
+			engineInvaders.computeIfAbsent(engine, key -> new ArrayList<>()).add(invaders.get(index));
+		}
+
+		if (engineInvaders.containsKey(fftEngine)) {
+			log.info("Detecting {} invader(s) with cross-correlation", engineInvaders.get(fftEngine).size());
+		}
+
+		if (engineInvaders.size() <= 1) {
+			return engineInvaders.isEmpty() ? directEngine.process(context) : engineInvaders.keySet().iterator().next().process(context);
+		}
+
+		final Map<DetectionEngine, Iterator<List<DetectionResult>>> engineResults = new LinkedHashMap<>();
+		engineInvaders.forEach((engine, group) -> engineResults.put(engine, engine.process(context.withInvaders(group)).iterator()));
+
+		//Put results back in order of context invaders
+		final List<List<DetectionResult>> results = new ArrayList<>(invaders.size());
+		for (DetectionEngine engine : engines) {
+			results.add(engineResults.get(engine).next());
+		}
+
+		return results;
+	}
+
+	private DetectionEngine select(final InvaderTemplate invader, final int requiredMatches) {
+		if (ExactMatchDetectionEngine.isExact(invader, requiredMatches)) {
+			return exactEngine;
+		}
+
+		if (useFft(invader)) {
+			return fftEngine;
+		}
+
+		return detectorProperties.getPyramidLevels() > 0 ? pyramidEngine : directEngine;
+	}
+
+	private boolean useFft(final InvaderTemplate invader) {
+		final int fftMinimumInvaderArea = detectorProperties.getFftMinimumInvaderArea();
+		return fftMinimumInvaderArea > 0 && invader.getWidth() * invader.getHeight() >= fftMinimumInvaderArea;
+	}
+}
@@ -0,0 +1,308 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.components.filter.ResultFilter;
+import fuga.app.invaderdetector.components.loader.BinaryMatrixLoader;
+import fuga.app.invaderdetector.components.loader.InvaderTemplateCache;
+import fuga.app.invaderdetector.components.loader.MappedMatrixLoader;
+import fuga.app.invaderdetector.components.loader.MatrixLoaderComponent;
+import fuga.app.invaderdetector.components.metrics.DetectionMetrics;
+import fuga.app.invaderdetector.components.metrics.DetectionMetrics.Stage;
+import fuga.app.invaderdetector.components.sink.ResultSink;
+import fuga.app.invaderdetector.components.sink.ResultSinkFactory;
+import fuga.app.invaderdetector.components.transformer.FileToMatrixTransformer;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.DetectionStatistics;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class used to detect invaders in many radar images within a single application run.
+ * Radar images go through a pipeline of stages: loading (reading and parsing into bit-packed matrix), detection and writing results to result sink.
+ * Loading and detection run on configured number of threads, and stages are connected with bounded queues,
+ * so only a limited number of loaded radar images and their results is held in memory at once
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BatchDetector {
+
+	private static final Frame END_OF_FRAMES = new Frame(null, null, null);
+
+	private final MatrixLoaderComponent matrixLoaderComponent;
+	private final MappedMatrixLoader mappedMatrixLoader;
+	private final BinaryMatrixLoader binaryMatrixLoader;
+	private final FileToMatrixTransformer fileToMatrixTransformer;
+	private final InvaderTemplateCache invaderTemplateCache;
+	private final DetectionEngine detectionEngine;
+	private final IncrementalDetector incrementalDetector;
+	private final ResultSinkFactory resultSinkFactory;
+	private final ResultFilter resultFilter;
+	private final DetectionMetrics detectionMetrics;
+	private final DetectorProperties detectorProperties;
+
+	/**
+	 * Detection of invaders in all radar image files matching given path, results are written to configured result sink
+	 * @param invaderFilePaths Strings representing paths to invader image files
+	 * @param radarPath Directory of radar image files, or glob pattern of their names (for example /frames/radar-*.txt)
+	 * @param requiredPercentage Minimum required match percentage
+	 * @return Number of processed radar images
+	 * @throws IOException If radar image files can not be listed or results can not be written
+	 */
+	public int detect(final Collection<String> invaderFilePaths, final String radarPath, final float requiredPercentage) throws IOException {
+		try (ResultSink resultSink = resultSinkFactory.open()) {
+			return detect(invaderFilePaths, radarPath, requiredPercentage, resultSink);
+		}
+	}
+
+	/**
+	 * Detection of invaders in all radar image files matching given path
+	 * @param invaderFilePaths Strings representing paths to invader image files
+	 * @param radarPath Directory of radar image files, or glob pattern of their names (for example /frames/radar-*.txt)
+	 * @param requiredPercentage Minimum required match percentage
+	 * @param resultSink Result sink receiving results, ordered by row and column for each radar image and invader
+	 * @return Number of processed radar images
+	 * @throws IOException If radar image files can not be listed or results can not be written
+	 */
+	public int detect(final Collection<String> invaderFilePaths, final String radarPath, final float requiredPercentage,
+					  final ResultSink resultSink) throws IOException {
+		final List<String> invaderNames = new ArrayList<>(invaderFilePaths);
+		final List<InvaderTemplate> invaders = detectionMetrics.record(Stage.LOAD, () -> invaderNames.stream()
+			.map(invaderFilePath -> invaderTemplateCache.get(invaderFilePath, this::loadInvaderMatrix))
+			.collect(Collectors.toList()));
+		final List<String> radarFilePaths = listRadarFiles(radarPath);
+
+		//Incremental detection compares each frame with the previous one, so frames are loaded and processed one at a time, in order
+		final boolean incremental = detectorProperties.isIncrementalDetection();
+		final IncrementalDetector.Session session = incremental ? incrementalDetector.start(invaders, requiredPercentage) : null;
+		final int loaderThreads = incremental ? 1 : Math.max(1, detectorProperties.getBatchLoaderThreads());
+		final int detectorThreads = incremental ? 1 : Math.max(1, detectorProperties.getBatchDetectorThreads());
+		final int queueCapacity = Math.max(1, detectorProperties.getBatchQueueCapacity());
+
+		log.info("Start processing {} radar images, {} loader threads, {} detector threads", radarFilePaths.size(), loaderThreads, detectorThreads);
+
+		final BlockingQueue<Frame> loadedFrames = new ArrayBlockingQueue<>(queueCapacity);
+		final BlockingQueue<Frame> detectedFrames = new ArrayBlockingQueue<>(queueCapacity);
+		final AtomicInteger nextRadar = new AtomicInteger();
+		final AtomicInteger runningLoaders = new AtomicInteger(loaderThreads);
+		final AtomicInteger runningDetectors = new AtomicInteger(detectorThreads);
+		final DetectionStatistics statistics = new DetectionStatistics();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(loaderThreads + detectorThreads);
+		try {
+			for (int thread = 0; thread < loaderThreads; thread++) {
+				executor.execute(() -> runStage(() -> {
+					for (int index = nextRadar.getAndIncrement(); index < radarFilePaths.size(); index = nextRadar.getAndIncrement()) {
+						final String radarFilePath = radarFilePaths.get(index);
+						try {
+							loadedFrames.put(new Frame(radarFilePath, loadRadar(radarFilePath), null));
+						} catch (RuntimeException e) {
+							log.error("Error while loading radar image: {}", radarFilePath, e);
+						}
+					}
+				}, () -> {
+					//The last loader ends detection stage, one end marker for every detector thread
+					if (runningLoaders.decrementAndGet() == 0) {
+						for (int detector = 0; detector < detectorThreads; detector++) {
+							loadedFrames.put(END_OF_FRAMES);
+						}
+					}
+				}));
+			}
+
+			for (int thread = 0; thread < detectorThreads; thread++) {
+				executor.execute(() -> runStage(() -> {
+					for (Frame frame = loadedFrames.take(); frame != END_OF_FRAMES; frame = loadedFrames.take()) {
+						try {
+							detectedFrames.put(new Frame(frame.radarFilePath, null, process(invaders, session, frame, requiredPercentage, statistics)));
+						} catch (RuntimeException e) {
+							log.error("Error while processing radar image: {}", frame.radarFilePath, e);
+						}
+					}
+				}, () -> {
+					if (runningDetectors.decrementAndGet() == 0) {
+						detectedFrames.put(END_OF_FRAMES);
+					}
+				}));
+			}
+
+			//Results are written on calling thread, so result sink is never used concurrently
+			int processed = 0;
+			for (Frame frame = detectedFrames.take(); frame != END_OF_FRAMES; frame = detectedFrames.take()) {
+				final long startTime = System.nanoTime();
+				for (int index = 0; index < invaderNames.size(); index++) {
+					for (DetectionResult detectionResult : frame.detectionResults.get(index)) {
+						resultSink.write(frame.radarFilePath, invaderNames.get(index), detectionResult);
+					}
+				}
+				detectionMetrics.recordSince(Stage.PRINT, startTime);
+				processed++;
+			}
+
+			log.info("Finished processing {} radar images, {}", processed, statistics);
+			return processed;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Batch processing interrupted", e);
+		} finally {
+			executor.shutdownNow();
+			awaitTermination(executor);
+		}
+	}
+
+	/**
+	 * Lists radar image files in directory, or files matching glob pattern, sorted by name
+	 * @param radarPath Directory of radar image files, or glob pattern of their names
+	 * @return Paths of radar image files
+	 * @throws IOException If directory can not be listed
+	 */
+	List<String> listRadarFiles(final String radarPath) throws IOException {
+		final Path path = Paths.get(radarPath);
+		final Path directory;
+		final String glob;
+
+		if (Files.isDirectory(path)) {
+			directory = path;
+			glob = "*";
+		} else {
+			directory = path.getParent() != null ? path.getParent() : Paths.get(".");
+			glob = path.getFileName().toString();
+		}
+
+		final List<String> radarFilePaths = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+			for (Path file : files) {
+				if (Files.isRegularFile(file)) {
+					radarFilePaths.add(file.toString());
+				}
+			}
+		}
+
+		Collections.sort(radarFilePaths);
+		return radarFilePaths;
+	}
+
+	private Matrix loadInvaderMatrix(final String invaderFilePath) {
+		detectionMetrics.recordBytesRead(invaderFilePath);
+		return binaryMatrixLoader.isBinary(invaderFilePath)
+			? binaryMatrixLoader.load(invaderFilePath).toMatrix()
+			: fileToMatrixTransformer.transform(matrixLoaderComponent.loadFromFile(invaderFilePath));
+	}
+
+	private PackedMatrix loadRadar(final String radarFilePath) {
+		detectionMetrics.recordBytesRead(radarFilePath);
+
+		if (binaryMatrixLoader.isBinary(radarFilePath) || new File(radarFilePath).length() >= detectorProperties.getMappedLoaderMinimumFileSize()) {
+			return detectionMetrics.record(Stage.LOAD, () -> binaryMatrixLoader.isBinary(radarFilePath)
+				? binaryMatrixLoader.load(radarFilePath)
+				: mappedMatrixLoader.load(radarFilePath));
+		}
+
+		final List<String> radarLines = detectionMetrics.record(Stage.LOAD, () -> matrixLoaderComponent.loadFromFile(radarFilePath));
+		return detectionMetrics.record(Stage.TRANSFORM, () -> PackedMatrix.of(fileToMatrixTransformer.transform(radarLines)));
+	}
+
+	private List<List<DetectionResult>> process(final List<InvaderTemplate> invaders, final IncrementalDetector.Session session, final Frame frame,
+												final float requiredPercentage, final DetectionStatistics statistics) {
+		final DetectionStatistics frameStatistics = new DetectionStatistics();
+		final List<List<DetectionResult>> detectionResults = detectionMetrics.record(Stage.DETECT,
+			() -> resultFilter.apply(detect(invaders, session, frame.radarMatrix, requiredPercentage, frameStatistics)));
+
+		statistics.add(frameStatistics);
+		detectionMetrics.record(frameStatistics);
+		detectionMetrics.recordMatches(detectionResults);
+		return detectionResults;
+	}
+
+	private List<List<DetectionResult>> detect(final List<InvaderTemplate> invaders, final IncrementalDetector.Session session, final PackedMatrix radarMatrix,
+											   final float requiredPercentage, final DetectionStatistics statistics) {
+		if (session != null) {
+			//Session keeps all results of the previous frame, they are reduced only for output
+			return session.process(radarMatrix, statistics);
+		}
+
+		final DetectionContext context = detectorProperties.isSummedAreaPruning()
+			? DetectionContext.withPruning(invaders, radarMatrix, requiredPercentage)
+			: DetectionContext.of(invaders, radarMatrix, requiredPercentage);
+
+		final List<List<DetectionResult>> detectionResults = detectionEngine.process(context.withResultLimit(resultFilter.getDetectionLimit()));
+		statistics.add(context.getStatistics());
+		return detectionResults;
+	}
+
+	/**
+	 * Runs stage work and then ends the stage. Stage failed with an error is ended as well, so the next stage does not wait for it,
+	 * and the error is thrown afterwards. Interrupted stage, whose pipeline is being shut down, is not ended
+	 */
+	private void runStage(final StageWork work, final StageWork end) {
+		boolean interrupted = false;
+		try {
+			work.run();
+		} catch (InterruptedException e) {
+			interrupted = true;
+			Thread.currentThread().interrupt();
+		} finally {
+			if (!interrupted) {
+				endStage(end);
+			}
+		}
+	}
+
+	private void endStage(final StageWork end) {
+		try {
+			end.run();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void awaitTermination(final ExecutorService executor) {
+		try {
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Work of a pipeline stage, which can block on stage queues
+	 */
+	@FunctionalInterface
+	private interface StageWork {
+		void run() throws InterruptedException;
+	}
+
+	/**
+	 * Radar image passed between pipeline stages, loaded matrix before detection and results after it
+	 */
+	@RequiredArgsConstructor
+	private static class Frame {
+		private final String radarFilePath;
+		private final PackedMatrix radarMatrix;
+		private final List<List<DetectionResult>> detectionResults;
+	}
+}
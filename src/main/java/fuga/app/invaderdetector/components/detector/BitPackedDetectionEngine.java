@@ -0,0 +1,318 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import fuga.app.invaderdetector.model.ResultCollector;
+import fuga.app.invaderdetector.model.ScoreMap;
+import fuga.app.invaderdetector.model.SummedAreaTable;
+
+/**
+ * Class used to detect invader in radar image using bit-packed matrices.
+ * Each row of radar sub-matrix is compared with invader row 64 cells at a time, using bitwise operations
+ */
+@Component
+public class BitPackedDetectionEngine implements DetectionEngine {
+
+	/**
+	 * Detection of invader inside radar matrix with given required match percentage
+	 * @param invader Compiled invader template
+	 * @param radarMatrix Bit-packed radar matrix
+	 * @param requiredPercentage Minimum required match percentage
+	 * @return List of DetectionResult objects, ordered by row and column
+	 */
+	public List<DetectionResult> process(final InvaderTemplate invader, final PackedMatrix radarMatrix, final float requiredPercentage) {
+		return process(DetectionContext.of(Collections.singletonList(invader), radarMatrix, requiredPercentage)).get(0);
+	}
+
+	/**
+	 * Detection of multiple invaders inside radar matrix, in a single pass over radar rows
+	 * @param context Detection context with invaders, radar matrix and required match percentage
+	 * @return Lists of DetectionResult objects, ordered by row and column, one list per invader in order of context invaders
+	 */
+	@Override
+	public List<List<DetectionResult>> process(final DetectionContext context) {
+		return processRows(context, 0, context.getLastRow() + 1);
+	}
+
+	/**
+	 * Detection of multiple invaders inside radar matrix, limited to radar sub-matrices starting in given rows.
+	 * For each radar row all invaders are compared before moving to the next row, so rows are shared while they are still in cache.
+	 * If context contains summed-area table, sub-matrices with less 'o' characters than invader requires are skipped without comparison
+	 * @param context Detection context with invaders, radar matrix and required match percentage
+	 * @param fromRow First row of radar sub-matrices (inclusive)
+	 * @param toRow Last row of radar sub-matrices (exclusive)
+	 * @return Lists of DetectionResult objects, ordered by row and column, one list per invader in order of context invaders
+	 */
+	List<List<DetectionResult>> processRows(final DetectionContext context, final int fromRow, final int toRow) {
+		final List<InvaderTemplate> invaders = context.getInvaders();
+		final PackedMatrix radarMatrix = context.getRadarMatrix();
+		final SummedAreaTable summedAreaTable = context.getSummedAreaTable();
+
+		final List<ResultCollector> collectors = new ArrayList<>(invaders.size());
+		invaders.forEach(invader -> collectors.add(context.newResultCollector()));
+
+		long windowsScored = 0;
+		long windowsPruned = 0;
+
+		for (int row = fromRow; row < toRow; row++) {
+			for (int index = 0; index < invaders.size(); index++) {
+				final InvaderTemplate invader = invaders.get(index);
+
+				if (row > context.getLastRow(invader)) {
+					continue;
+				}
+
+				final ResultCollector invaderResults = collectors.get(index);
+				final int requiredMatches = context.getRequiredMatches()[index];
+				final int lastColumn = radarMatrix.getWidth() - invader.getWidth();
+
+				for (int column = 0; column <= lastColumn; column++) {
+					if (summedAreaTable != null && summedAreaTable.sum(row, column, invader.getHeight(), invader.getWidth()) < requiredMatches) {
+						windowsPruned++;
+						continue;
+					}
+
+					windowsScored++;
+					final DetectionResult result = scoreWindow(invader, radarMatrix, row, column, context.getRequiredPercentage(), requiredMatches);
+					if (result != null) {
+						invaderResults.add(result);
+					}
+				}
+			}
+		}
+
+		context.getStatistics().addWindowsScored(windowsScored);
+		context.getStatistics().addWindowsPruned(windowsPruned);
+		return collectors.stream().map(ResultCollector::toList).collect(Collectors.toList());
+	}
+
+	/**
+	 * Scores every radar sub-matrix of invader size, without required percentage, so scores can be filtered by any number of percentages later.
+	 * Only exact matches are counted and kept, noise and junk are scored when score map selects results.
+	 * Sub-matrices are compared completely, comparison can not be abandoned early
+	 * @param invader Compiled invader template
+	 * @param radarMatrix Bit-packed radar matrix
+	 * @return ScoreMap object
+	 * @throws IllegalArgumentException If number of radar sub-matrices does not fit into score map
+	 */
+	public ScoreMap scoreMap(final InvaderTemplate invader, final PackedMatrix radarMatrix) {
+		final PackedMatrix pattern = invader.getPattern();
+		final int words = pattern.getWordsPerRow();
+		final ScoreMap scoreMap = new ScoreMap(invader, radarMatrix.getHeight() - invader.getHeight() + 1, radarMatrix.getWidth() - invader.getWidth() + 1,
+			(row, column, requiredPercentage, requiredMatches) -> scoreWindow(invader, radarMatrix, row, column, requiredPercentage, requiredMatches));
+
+		for (int row = 0; row < scoreMap.getRows(); row++) {
+			for (int column = 0; column < scoreMap.getColumns(); column++) {
+				int exactMatches = 0;
+
+				for (int i = 0; i < pattern.getHeight(); i++) {
+					for (int k = 0; k < words; k++) {
+						exactMatches += Long.bitCount(radarMatrix.bits(row + i, column + (k << 6)) & pattern.word(i, k));
+					}
+				}
+
+				scoreMap.set(row, column, exactMatches);
+			}
+		}
+
+		return scoreMap;
+	}
+
+	/**
+	 * Detection of invaders partly outside radar matrix, in sub-matrices overhanging its edges.
+	 * Only border strips are visited, sub-matrices lying entirely inside radar matrix are left to {@link #processRows(DetectionContext, int, int)}.
+	 * Rows are extended above radar matrix only if context includes its top edge, and below it only if context includes its bottom edge
+	 * @param context Detection context with invaders, radar matrix and required match percentage
+	 * @param minimumVisibleFraction Minimum fraction of invader 'o' characters that has to be inside radar matrix
+	 * @return Lists of DetectionResult objects, ordered by row and column, one list per invader in order of context invaders
+	 */
+	List<List<DetectionResult>> processEdges(final DetectionContext context, final float minimumVisibleFraction) {
+		final List<InvaderTemplate> invaders = context.getInvaders();
+		final PackedMatrix radarMatrix = context.getRadarMatrix();
+		final List<List<DetectionResult>> results = new ArrayList<>(invaders.size());
+		long windowsScored = 0;
+
+		for (InvaderTemplate invader : invaders) {
+			final ResultCollector invaderResults = context.newResultCollector();
+			final int lastRow = context.getLastRow(invader);
+			final int lastColumn = radarMatrix.getWidth() - invader.getWidth();
+			final int fromRow = context.isTopEdge() ? 1 - invader.getHeight() : 0;
+			final int toRow = context.isBottomEdge() ? radarMatrix.getHeight() - 1 : lastRow;
+
+			for (int row = fromRow; row <= toRow; row++) {
+				final boolean insideRow = row >= 0 && row <= lastRow;
+
+				for (int column = 1 - invader.getWidth(); column < radarMatrix.getWidth(); column++) {
+					if (insideRow && column == 0 && lastColumn >= 0) {
+						//Skip sub-matrices lying entirely inside radar matrix
+						column = lastColumn;
+						continue;
+					}
+
+					windowsScored++;
+					final DetectionResult result = scoreClippedWindow(invader, radarMatrix, row, column, context.getRequiredPercentage(), minimumVisibleFraction);
+					if (result != null) {
+						invaderResults.add(result);
+					}
+				}
+			}
+
+			results.add(invaderResults.toList());
+		}
+
+		context.getStatistics().addWindowsScored(windowsScored);
+		return results;
+	}
+
+	/**
+	 * Compares visible part of invader with radar sub-matrix overhanging radar edges. Invader cells outside radar matrix are not compared,
+	 * and matching percentage is calculated from invader 'o' characters inside radar matrix only
+	 * @param invader Compiled invader template
+	 * @param radarMatrix Bit-packed radar matrix
+	 * @param row First row of radar sub-matrix, can be negative
+	 * @param column First column of radar sub-matrix, can be negative
+	 * @param requiredPercentage Minimum required match percentage
+	 * @param minimumVisibleFraction Minimum fraction of invader 'o' characters that has to be inside radar matrix
+	 * @return DetectionResult object if sub-matrix fulfills matching condition, null otherwise
+	 */
+	DetectionResult scoreClippedWindow(final InvaderTemplate invader, final PackedMatrix radarMatrix, final int row, final int column,
+									   final float requiredPercentage, final float minimumVisibleFraction) {
+		final PackedMatrix pattern = invader.getPattern();
+		final PackedMatrix noiseMask = invader.getNoiseMask();
+		final int firstRow = Math.max(0, -row);
+		final int endRow = Math.min(pattern.getHeight(), radarMatrix.getHeight() - row);
+		final int firstColumn = Math.max(0, -column);
+		final int endColumn = Math.min(pattern.getWidth(), radarMatrix.getWidth() - column);
+
+		int visible = 0;
+		int exactMatches = 0;
+		int noise = 0;
+		int junk = 0;
+
+		for (int i = firstRow; i < endRow; i++) {
+			for (int k = 0; k < pattern.getWordsPerRow(); k++) {
+				final long visibleMask = rangeMask(firstColumn - (k << 6), endColumn - (k << 6));
+				if (visibleMask == 0) {
+					continue;
+				}
+
+				final long invaderBits = pattern.word(i, k) & visibleMask;
+				final long radarBits = clippedBits(radarMatrix, row + i, column + (k << 6)) & visibleMask;
+				final long radarOnly = radarBits & ~invaderBits;
+				final int radarOnlyNoise = Long.bitCount(radarOnly & noiseMask.word(i, k));
+
+				visible += Long.bitCount(invaderBits);
+				exactMatches += Long.bitCount(invaderBits & radarBits);
+				noise += radarOnlyNoise;
+				junk += Long.bitCount(radarOnly) - radarOnlyNoise;
+			}
+		}
+
+		if (visible == 0 || visible < minimumVisibleFraction * invader.getMatchingCount()) {
+			return null;
+		}
+
+		final float percentage = (exactMatches * 100.0f) / visible;
+		if (percentage < requiredPercentage) {
+			return null;
+		}
+
+		return DetectionResult.of(row, column, pattern.getHeight(), pattern.getWidth(), percentage, noise, junk, invader.getVariant());
+	}
+
+	/**
+	 * @return Mask of bits [from, to) of a word, limited to [0, 64)
+	 */
+	private static long rangeMask(final int from, final int to) {
+		final int start = Math.max(0, from);
+		final int end = Math.min(64, to);
+		if (start >= end) {
+			return 0;
+		}
+		return (end == 64 ? -1L : (1L << end) - 1) & (-1L << start);
+	}
+
+	/**
+	 * Extracts 64 cells of radar row starting at given column, which can be negative. Cells outside radar matrix are returned as 0
+	 */
+	private static long clippedBits(final PackedMatrix radarMatrix, final int row, final int column) {
+		if (column >= 0) {
+			return column < radarMatrix.getWidth() ? radarMatrix.bits(row, column) : 0;
+		}
+		return column > -64 ? radarMatrix.bits(row, 0) << -column : 0;
+	}
+
+	/**
+	 * Compares invader with radar sub-matrix starting at given row and column.
+	 * Invader rows are visited from the one with most 'o' characters, and comparison is abandoned as soon as
+	 * number of invader 'o' characters missing in radar sub-matrix exceeds what required percentage allows
+	 * @param invader Compiled invader template
+	 * @param radarMatrix Bit-packed radar matrix
+	 * @param row First row of radar sub-matrix
+	 * @param column First column of radar sub-matrix
+	 * @param requiredPercentage Minimum required match percentage
+	 * @param requiredMatches Minimum number of exact matches for required percentage, see {@link InvaderTemplate#requiredMatches(float)}
+	 * @return DetectionResult object if sub-matrix fulfills matching condition, null otherwise
+	 */
+	DetectionResult scoreWindow(final InvaderTemplate invader, final PackedMatrix radarMatrix, final int row, final int column,
+								final float requiredPercentage, final int requiredMatches) {
+		if (requiredMatches == Integer.MAX_VALUE) {
+			return null;
+		}
+
+		final PackedMatrix pattern = invader.getPattern();
+		final int words = pattern.getWordsPerRow();
+		final int missBudget = invader.getMatchingCount() - requiredMatches;
+
+		int invaderOnly = 0;
+
+		for (int i : invader.getRowOrder()) {
+			for (int k = 0; k < words; k++) {
+				invaderOnly += Long.bitCount(pattern.word(i, k) & ~radarMatrix.bits(row + i, column + (k << 6)));
+			}
+
+			if (invaderOnly > missBudget) {
+				return null;
+			}
+		}
+
+		final int exactMatches = invader.getMatchingCount() - invaderOnly;
+		final int totalInvaders = invader.getMatchingCount();
+		float percentage = 0;
+
+		if (totalInvaders > 0) {
+			percentage = (exactMatches * 100.0f) / totalInvaders;
+		}
+
+		if (percentage < requiredPercentage) {
+			return null;
+		}
+
+		//Found matching invader
+		//'o' characters on radar image sub-matrix which are not part of invader are noise when they are inside invader noise mask, junk otherwise
+		final PackedMatrix noiseMask = invader.getNoiseMask();
+		int noise = 0;
+		int junk = 0;
+
+		for (int i = 0; i < pattern.getHeight(); i++) {
+			for (int k = 0; k < words; k++) {
+				final long radarOnly = radarMatrix.bits(row + i, column + (k << 6)) & ~pattern.word(i, k) & invader.columnMask(k);
+				final int radarOnlyNoise = Long.bitCount(radarOnly & noiseMask.word(i, k));
+
+				noise += radarOnlyNoise;
+				junk += Long.bitCount(radarOnly) - radarOnlyNoise;
+			}
+		}
+
+		return DetectionResult.of(row, column, pattern.getHeight(), pattern.getWidth(), percentage, noise, junk, invader.getVariant());
+	}
+}
@@ -0,0 +1,19 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.List;
+
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+
+/**
+ * Strategy of detecting invaders in radar image
+ */
+public interface DetectionEngine {
+
+	/**
+	 * Detection of invaders inside radar matrix with required match percentage
+	 * @param context Detection context with invaders, radar matrix and required match percentage
+	 * @return Lists of DetectionResult objects, ordered by row and column, one list per invader in order of context invaders
+	 */
+	List<List<DetectionResult>> process(DetectionContext context);
+}
@@ -0,0 +1,19 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.io.IOException;
+
+import fuga.app.invaderdetector.model.DetectionResult;
+
+/**
+ * Receives detection results as soon as they are found
+ */
+@FunctionalInterface
+public interface DetectionListener {
+
+	/**
+	 * @param invaderIndex Index of detected invader, in order of invaders given to detection process
+	 * @param detectionResult Result of detection process
+	 * @throws IOException If result can not be written
+	 */
+	void onDetection(int invaderIndex, DetectionResult detectionResult) throws IOException;
+}
@@ -0,0 +1,58 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.ResultCollector;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class used to detect invaders partly outside radar image, when enabled in settings.
+ * Sub-matrices lying entirely inside radar image are detected by the selected detection engine as usual,
+ * and only border strips of sub-matrices overhanging radar edges are compared with visible part of invaders
+ */
+@Component
+@RequiredArgsConstructor
+public class EdgeDetectionEngine implements DetectionEngine {
+
+	private final AutoDetectionEngine detectionEngine;
+	private final BitPackedDetectionEngine bitPackedEngine;
+	private final DetectorProperties detectorProperties;
+
+	@Override
+	public List<List<DetectionResult>> process(final DetectionContext context) {
+		final List<List<DetectionResult>> results = detectionEngine.process(context);
+		if (!detectorProperties.isEdgeDetection()) {
+			return results;
+		}
+
+		return merge(results, bitPackedEngine.processEdges(context, detectorProperties.getEdgeMinimumVisibleFraction()));
+	}
+
+	/**
+	 * Merges results of sub-matrices inside radar image with results of sub-matrices overhanging its edges
+	 * @return Lists of DetectionResult objects, ordered by row and column, one list per invader
+	 */
+	static List<List<DetectionResult>> merge(final List<List<DetectionResult>> insideResults, final List<List<DetectionResult>> edgeResults) {
+		final List<List<DetectionResult>> results = new ArrayList<>(insideResults.size());
+
+		for (int index = 0; index < insideResults.size(); index++) {
+			if (edgeResults.get(index).isEmpty()) {
+				results.add(insideResults.get(index));
+				continue;
+			}
+
+			final List<DetectionResult> merged = new ArrayList<>(insideResults.get(index));
+			merged.addAll(edgeResults.get(index));
+			merged.sort(ResultCollector.RESULT_ORDER);
+			results.add(merged);
+		}
+
+		return results;
+	}
+}
@@ -0,0 +1,153 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import fuga.app.invaderdetector.model.ResultCollector;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class used to detect invaders which have to be matched completely, when required percentage leaves no invader 'o' character unmatched.
+ * Instead of comparing every radar sub-matrix with invader, all sub-matrices starting in a radar row are filtered at once:
+ * for each invader 'o' character, radar row shifted by its column is AND-ed into a bit set of candidate columns (shift-and),
+ * so only columns whose sub-matrix covers every invader 'o' character remain. Remaining sub-matrices are then scored as usual,
+ * which also calculates their noise and junk
+ */
+@Component
+@RequiredArgsConstructor
+public class ExactMatchDetectionEngine implements DetectionEngine {
+
+	private final BitPackedDetectionEngine detectionEngine;
+
+	/**
+	 * @param invader Compiled invader template
+	 * @param requiredMatches Minimum number of exact matches for required percentage, see {@link InvaderTemplate#requiredMatches(float)}
+	 * @return True if every invader 'o' character has to be matched, so invader can be detected by this engine
+	 */
+	public static boolean isExact(final InvaderTemplate invader, final int requiredMatches) {
+		return invader.getMatchingCount() > 0 && requiredMatches == invader.getMatchingCount();
+	}
+
+	/**
+	 * Detection of invaders which have to be matched completely, see {@link #isExact(InvaderTemplate, int)}
+	 * @param context Detection context with invaders, radar matrix and required match percentage
+	 * @return Lists of DetectionResult objects, ordered by row and column, one list per invader in order of context invaders
+	 */
+	@Override
+	public List<List<DetectionResult>> process(final DetectionContext context) {
+		final List<List<DetectionResult>> results = new ArrayList<>(context.getInvaders().size());
+
+		for (int index = 0; index < context.getInvaders().size(); index++) {
+			final InvaderTemplate invader = context.getInvaders().get(index);
+			final int requiredMatches = context.getRequiredMatches()[index];
+
+			if (!isExact(invader, requiredMatches)) {
+				throw new IllegalArgumentException("Invader has to be matched completely, required matches: " + requiredMatches);
+			}
+			results.add(process(context, invader, requiredMatches));
+		}
+
+		return results;
+	}
+
+	private List<DetectionResult> process(final DetectionContext context, final InvaderTemplate invader, final int requiredMatches) {
+		final PackedMatrix radarMatrix = context.getRadarMatrix();
+		final ResultCollector invaderResults = context.newResultCollector();
+		final int lastRow = context.getLastRow(invader);
+		final int lastColumn = radarMatrix.getWidth() - invader.getWidth();
+
+		if (lastRow < 0 || lastColumn < 0) {
+			return invaderResults.toList();
+		}
+
+		final int[][] rowColumns = matchingColumns(invader.getPattern());
+		final int words = (lastColumn >>> 6) + 1;
+		final long lastWordMask = (lastColumn & 63) == 63 ? -1L : (1L << ((lastColumn & 63) + 1)) - 1;
+		final long[] candidates = new long[words];
+		long windowsScored = 0;
+
+		for (int row = 0; row <= lastRow; row++) {
+			Arrays.fill(candidates, -1L);
+			candidates[words - 1] = lastWordMask;
+
+			if (!filter(radarMatrix, row, invader.getRowOrder(), rowColumns, candidates)) {
+				continue;
+			}
+
+			for (int k = 0; k < words; k++) {
+				for (long word = candidates[k]; word != 0; word &= word - 1) {
+					final int column = (k << 6) + Long.numberOfTrailingZeros(word);
+					windowsScored++;
+
+					//Candidate covers every invader 'o' character, scoring adds noise and junk
+					final DetectionResult result = detectionEngine.scoreWindow(invader, radarMatrix, row, column, context.getRequiredPercentage(), requiredMatches);
+					if (result != null) {
+						invaderResults.add(result);
+					}
+				}
+			}
+		}
+
+		context.getStatistics().addWindowsScored(windowsScored);
+		context.getStatistics().addWindowsPruned((long) (lastRow + 1) * (lastColumn + 1) - windowsScored);
+		return invaderResults.toList();
+	}
+
+	/**
+	 * Removes candidate columns whose sub-matrix starting in given row does not cover an invader 'o' character.
+	 * Invader rows are visited in given order, and filtering stops as soon as no candidate is left
+	 * @return True if any candidate column is left
+	 */
+	private boolean filter(final PackedMatrix radarMatrix, final int row, final int[] rowOrder, final int[][] rowColumns, final long[] candidates) {
+		final int width = radarMatrix.getWidth();
+
+		for (int i : rowOrder) {
+			long remaining = 0;
+
+			for (int k = 0; k < candidates.length; k++) {
+				long word = candidates[k];
+
+				for (int j = 0; j < rowColumns[i].length && word != 0; j++) {
+					//Bit c of shifted radar row is cell (row + i, c + j), candidate columns never reach past the last radar column
+					final int column = (k << 6) + rowColumns[i][j];
+					word &= column < width ? radarMatrix.bits(row + i, column) : 0;
+				}
+
+				candidates[k] = word;
+				remaining |= word;
+			}
+
+			if (remaining == 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return Columns of 'o' characters of each invader row
+	 */
+	private static int[][] matchingColumns(final PackedMatrix pattern) {
+		final int[][] rowColumns = new int[pattern.getHeight()][];
+
+		for (int i = 0; i < pattern.getHeight(); i++) {
+			final List<Integer> columns = new ArrayList<>();
+			for (int j = 0; j < pattern.getWidth(); j++) {
+				if (pattern.get(i, j)) {
+					columns.add(j);
+				}
+			}
+			rowColumns[i] = columns.stream().mapToInt(Integer::intValue).toArray();
+		}
+
+		return rowColumns;
+	}
+}
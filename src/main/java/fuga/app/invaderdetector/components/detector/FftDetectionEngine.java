@@ -0,0 +1,119 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import fuga.app.invaderdetector.model.ResultCollector;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class used to detect invaders in radar image using 2D cross-correlation, calculated with fast Fourier transform.
+ * Number of exact matches is calculated for all radar sub-matrices at once, in time which does not depend on invader size.
+ * Only sub-matrices with enough exact matches are compared cell by cell, to calculate noise and junk
+ */
+@Component
+@RequiredArgsConstructor
+public class FftDetectionEngine implements DetectionEngine {
+
+	private final BitPackedDetectionEngine detectionEngine;
+
+	@Override
+	public List<List<DetectionResult>> process(final DetectionContext context) {
+		final PackedMatrix radarMatrix = context.getRadarMatrix();
+		final List<ResultCollector> collectors = new ArrayList<>(context.getInvaders().size());
+
+		//Padding to at least radar size is enough: sub-matrices fully inside radar never wrap around
+		final int width = FourierTransform.sizeFor(radarMatrix.getWidth());
+		final int height = FourierTransform.sizeFor(radarMatrix.getHeight());
+		final FourierTransform rowTransform = new FourierTransform(width);
+		final FourierTransform columnTransform = new FourierTransform(height);
+
+		double[] radarReal = null;
+		double[] radarImaginary = null;
+		double[] real = null;
+		double[] imaginary = null;
+
+		for (int index = 0; index < context.getInvaders().size(); index++) {
+			final InvaderTemplate invader = context.getInvaders().get(index);
+			final ResultCollector invaderResults = context.newResultCollector();
+			collectors.add(invaderResults);
+
+			if (invader.getHeight() > radarMatrix.getHeight() || invader.getWidth() > radarMatrix.getWidth()) {
+				continue;
+			}
+
+			if (radarReal == null) {
+				radarReal = new double[width * height];
+				radarImaginary = new double[width * height];
+				fill(radarMatrix, radarReal, width);
+				FourierTransform.transform2D(rowTransform, columnTransform, radarReal, radarImaginary, false);
+
+				real = new double[width * height];
+				imaginary = new double[width * height];
+			}
+
+			Arrays.fill(real, 0);
+			Arrays.fill(imaginary, 0);
+			fill(invader.getPattern(), real, width);
+			FourierTransform.transform2D(rowTransform, columnTransform, real, imaginary, false);
+
+			//Cross-correlation: radar spectrum multiplied by complex conjugate of invader spectrum
+			for (int i = 0; i < real.length; i++) {
+				final double productReal = radarReal[i] * real[i] + radarImaginary[i] * imaginary[i];
+				final double productImaginary = radarImaginary[i] * real[i] - radarReal[i] * imaginary[i];
+				real[i] = productReal;
+				imaginary[i] = productImaginary;
+			}
+			FourierTransform.transform2D(rowTransform, columnTransform, real, imaginary, true);
+
+			final double scale = (double) width * height;
+			final int requiredMatches = context.getRequiredMatches()[index];
+			final int lastRow = context.getLastRow(invader);
+			final int lastColumn = radarMatrix.getWidth() - invader.getWidth();
+
+			for (int row = 0; row <= lastRow; row++) {
+				for (int column = 0; column <= lastColumn; column++) {
+					final long exactMatches = Math.round(real[row * width + column] / scale);
+
+					if (exactMatches >= requiredMatches) {
+						final DetectionResult result = detectionEngine.scoreWindow(invader, radarMatrix, row, column,
+							context.getRequiredPercentage(), requiredMatches);
+						if (result != null) {
+							invaderResults.add(result);
+						}
+					}
+				}
+			}
+
+			context.getStatistics().addWindowsScored((long) (lastRow + 1) * (lastColumn + 1));
+		}
+
+		return collectors.stream().map(ResultCollector::toList).collect(Collectors.toList());
+	}
+
+	/**
+	 * Copies 'o' characters of bit-packed matrix into top left corner of 2D array
+	 * @param matrix Bit-packed matrix
+	 * @param values 2D array stored row by row
+	 * @param width Row length of 2D array
+	 */
+	private static void fill(final PackedMatrix matrix, final double[] values, final int width) {
+		for (int i = 0; i < matrix.getHeight(); i++) {
+			for (int k = 0; k < matrix.getWordsPerRow(); k++) {
+				long word = matrix.word(i, k);
+				while (word != 0) {
+					values[i * width + (k << 6) + Long.numberOfTrailingZeros(word)] = 1;
+					word &= word - 1;
+				}
+			}
+		}
+	}
+}
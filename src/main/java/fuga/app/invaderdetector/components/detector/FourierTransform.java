@@ -0,0 +1,122 @@
+package fuga.app.invaderdetector.components.detector;
+
+/**
+ * Class used to calculate in-place radix-2 fast Fourier transform of complex sequences of fixed, power of two, length
+ */
+class FourierTransform {
+
+	private final int size;
+	private final int[] reversed;
+	private final double[] cosines;
+	private final double[] sines;
+
+	FourierTransform(final int size) {
+		this.size = size;
+		this.reversed = new int[size];
+		this.cosines = new double[size / 2];
+		this.sines = new double[size / 2];
+
+		final int bits = Integer.numberOfTrailingZeros(size);
+		for (int i = 0; i < size; i++) {
+			reversed[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+		}
+
+		for (int i = 0; i < size / 2; i++) {
+			cosines[i] = Math.cos(2 * Math.PI * i / size);
+			sines[i] = Math.sin(2 * Math.PI * i / size);
+		}
+	}
+
+	/**
+	 * @param length Minimal length of sequence
+	 * @return Smallest power of two not smaller than given length
+	 */
+	static int sizeFor(final int length) {
+		int size = 1;
+		while (size < length) {
+			size <<= 1;
+		}
+		return size;
+	}
+
+	/**
+	 * Transforms sequence in place. Inverse transform is not scaled by sequence length
+	 * @param real Real parts of sequence
+	 * @param imaginary Imaginary parts of sequence
+	 * @param inverse True for inverse transform
+	 */
+	void transform(final double[] real, final double[] imaginary, final boolean inverse) {
+		for (int i = 0; i < size; i++) {
+			final int j = reversed[i];
+			if (i < j) {
+				double temp = real[i];
+				real[i] = real[j];
+				real[j] = temp;
+				temp = imaginary[i];
+				imaginary[i] = imaginary[j];
+				imaginary[j] = temp;
+			}
+		}
+
+		final double sign = inverse ? 1 : -1;
+
+		for (int length = 2; length <= size; length <<= 1) {
+			final int half = length >>> 1;
+			final int step = size / length;
+
+			for (int start = 0; start < size; start += length) {
+				for (int k = 0; k < half; k++) {
+					final double cos = cosines[k * step];
+					final double sin = sign * sines[k * step];
+					final int even = start + k;
+					final int odd = even + half;
+
+					final double oddReal = real[odd] * cos - imaginary[odd] * sin;
+					final double oddImaginary = real[odd] * sin + imaginary[odd] * cos;
+
+					real[odd] = real[even] - oddReal;
+					imaginary[odd] = imaginary[even] - oddImaginary;
+					real[even] += oddReal;
+					imaginary[even] += oddImaginary;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Transforms 2D array, stored row by row, in place: every row with row transform, then every column with column transform
+	 * @param rowTransform Transform of row length
+	 * @param columnTransform Transform of column length
+	 * @param real Real parts of 2D array
+	 * @param imaginary Imaginary parts of 2D array
+	 * @param inverse True for inverse transform
+	 */
+	static void transform2D(final FourierTransform rowTransform, final FourierTransform columnTransform,
+							final double[] real, final double[] imaginary, final boolean inverse) {
+		final int width = rowTransform.size;
+		final int height = columnTransform.size;
+
+		final double[] lineReal = new double[Math.max(width, height)];
+		final double[] lineImaginary = new double[Math.max(width, height)];
+
+		for (int i = 0; i < height; i++) {
+			System.arraycopy(real, i * width, lineReal, 0, width);
+			System.arraycopy(imaginary, i * width, lineImaginary, 0, width);
+			rowTransform.transform(lineReal, lineImaginary, inverse);
+			System.arraycopy(lineReal, 0, real, i * width, width);
+			System.arraycopy(lineImaginary, 0, imaginary, i * width, width);
+		}
+
+		for (int j = 0; j < width; j++) {
+			for (int i = 0; i < height; i++) {
+				lineReal[i] = real[i * width + j];
+				lineImaginary[i] = imaginary[i * width + j];
+			}
+			columnTransform.transform(lineReal, lineImaginary, inverse);
+			for (int i = 0; i < height; i++) {
+				real[i * width + j] = lineReal[i];
+				imaginary[i * width + j] = lineImaginary[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,284 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.DetectionStatistics;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.InvaderVariants;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class used to detect invaders in consecutive frames of the same radar, which differ only in a few cells.
+ * Each frame is compared with the previous one, and only sub-matrices containing changed cells are compared with invaders.
+ * Results of other sub-matrices are taken from the previous frame. Configured invader orientations are rescored the same way as original invaders
+ */
+@Component
+@RequiredArgsConstructor
+public class IncrementalDetector {
+
+	private final DetectionEngine detectionEngine;
+	private final BitPackedDetectionEngine bitPackedEngine;
+	private final DetectorProperties detectorProperties;
+
+	/**
+	 * Starts detection of invaders in a sequence of radar frames
+	 * @param invaders Compiled invader templates
+	 * @param requiredPercentage Minimum required match percentage
+	 * @return Session object, which remembers the last processed frame and its results
+	 */
+	public Session start(final List<InvaderTemplate> invaders, final float requiredPercentage) {
+		return new Session(invaders, requiredPercentage);
+	}
+
+	/**
+	 * Detection of invaders in a sequence of radar frames. Frames have to be processed one at a time, in order
+	 */
+	public class Session {
+
+		private final List<InvaderTemplate> invaders;
+		private final InvaderVariants variants;
+		private final float requiredPercentage;
+		private final int[] requiredMatches;
+
+		private PackedMatrix previousFrame;
+		private List<List<DetectionResult>> previousResults;
+
+		private Session(final List<InvaderTemplate> invaders, final float requiredPercentage) {
+			this.invaders = invaders;
+			this.variants = InvaderVariants.of(invaders, detectorProperties.getInvaderVariants());
+			this.requiredPercentage = requiredPercentage;
+			this.requiredMatches = variants.getTemplates().stream().mapToInt(invader -> invader.requiredMatches(requiredPercentage)).toArray();
+		}
+
+		/**
+		 * Detection of invaders in the next radar frame
+		 * @param radarMatrix Radar frame Matrix object
+		 * @return Lists of DetectionResult objects, ordered by row and column, one list per invader in order of session invaders
+		 */
+		public List<List<DetectionResult>> process(final Matrix radarMatrix) {
+			return process(PackedMatrix.of(radarMatrix), new DetectionStatistics());
+		}
+
+		/**
+		 * Detection of invaders in the next radar frame. Frame of different size than the previous one is scanned from scratch
+		 * @param radarMatrix Bit-packed radar frame, which must not be changed afterwards, because it is kept for comparison with the next frame
+		 * @param statistics Statistics, updated with sub-matrices scored and reused
+		 * @return Lists of DetectionResult objects, ordered by row and column, one list per invader in order of session invaders
+		 */
+		public List<List<DetectionResult>> process(final PackedMatrix radarMatrix, final DetectionStatistics statistics) {
+			final PackedMatrix changes = previousFrame == null ? null : changes(previousFrame, radarMatrix);
+			final List<List<DetectionResult>> results = changes == null ? scan(radarMatrix, statistics) : rescan(radarMatrix, changes, statistics);
+
+			previousFrame = radarMatrix;
+			previousResults = results;
+			return results;
+		}
+
+		private List<List<DetectionResult>> scan(final PackedMatrix radarMatrix, final DetectionStatistics statistics) {
+			final DetectionContext context = detectorProperties.isSummedAreaPruning()
+				? DetectionContext.withPruning(invaders, radarMatrix, requiredPercentage)
+				: DetectionContext.of(invaders, radarMatrix, requiredPercentage);
+
+			final List<List<DetectionResult>> results = detectionEngine.process(context);
+			statistics.add(context.getStatistics());
+			return results;
+		}
+
+		private List<List<DetectionResult>> rescan(final PackedMatrix radarMatrix, final PackedMatrix changes, final DetectionStatistics statistics) {
+			final List<InvaderTemplate> templates = variants.getTemplates();
+			final List<PackedMatrix> dirtyOrigins = new ArrayList<>(templates.size());
+			long dirtyWindows = 0;
+			long allWindows = 0;
+
+			for (InvaderTemplate template : templates) {
+				final PackedMatrix origins = dirtyOrigins(changes, template);
+				dirtyOrigins.add(origins);
+				dirtyWindows += origins.count();
+				allWindows += (long) Math.max(0, radarMatrix.getWidth() - template.getWidth() + 1) * Math.max(0, radarMatrix.getHeight() - template.getHeight() + 1);
+			}
+
+			//With too many changes a full scan, which can be pruned and split between threads, is faster
+			if (dirtyWindows > allWindows * detectorProperties.getIncrementalMaximumDirtyFraction()) {
+				return scan(radarMatrix, statistics);
+			}
+
+			final List<List<DetectionResult>> results = new ArrayList<>(templates.size());
+			for (int index = 0; index < templates.size(); index++) {
+				final InvaderTemplate template = templates.get(index);
+				final PackedMatrix origins = dirtyOrigins.get(index);
+				final List<DetectionResult> rescored = new ArrayList<>();
+
+				for (int row = 0; row < origins.getHeight(); row++) {
+					for (int k = 0; k < origins.getWordsPerRow(); k++) {
+						for (long word = origins.word(row, k); word != 0; word &= word - 1) {
+							final int column = (k << 6) + Long.numberOfTrailingZeros(word);
+							final DetectionResult result = bitPackedEngine.scoreWindow(template, radarMatrix, row, column, requiredPercentage, requiredMatches[index]);
+							if (result != null) {
+								rescored.add(result);
+							}
+						}
+					}
+				}
+
+				results.add(merge(previousResults(index, radarMatrix), rescored, origins));
+			}
+
+			statistics.addWindowsScored(dirtyWindows);
+			statistics.addWindowsReused(allWindows - dirtyWindows);
+
+			if (!detectorProperties.isEdgeDetection()) {
+				return variants.regroup(results);
+			}
+
+			//Border strips are small, so sub-matrices overhanging radar edges are always scored again
+			final DetectionContext edgeContext = DetectionContext.of(templates, radarMatrix, requiredPercentage);
+			final List<List<DetectionResult>> edgeResults = bitPackedEngine.processEdges(edgeContext, detectorProperties.getEdgeMinimumVisibleFraction());
+			statistics.add(edgeContext.getStatistics());
+			return variants.regroup(EdgeDetectionEngine.merge(results, edgeResults));
+		}
+
+		/**
+		 * @param templateIndex Index of invader template
+		 * @param radarMatrix Bit-packed radar frame
+		 * @return Results of template orientation in the previous frame, in sub-matrices lying entirely inside radar frame
+		 */
+		private List<DetectionResult> previousResults(final int templateIndex, final PackedMatrix radarMatrix) {
+			final List<DetectionResult> ownerResults = previousResults.get(variants.getOwner(templateIndex));
+			final boolean edgeDetection = detectorProperties.isEdgeDetection();
+			if (variants.getTemplates().size() == invaders.size() && !edgeDetection) {
+				return ownerResults;
+			}
+
+			final InvaderTemplate template = variants.getTemplates().get(templateIndex);
+			return ownerResults.stream()
+				.filter(result -> result.getVariant() == template.getVariant())
+				.filter(result -> !edgeDetection || result.getRowStart() >= 0 && result.getColumnStart() >= 0
+					&& result.getRowEnd() < radarMatrix.getHeight() && result.getColumnEnd() < radarMatrix.getWidth())
+				.collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Marks cells which differ between two frames
+	 * @return Bit-packed matrix of changed cells, null if frames are of different size
+	 */
+	static PackedMatrix changes(final PackedMatrix previousFrame, final PackedMatrix radarMatrix) {
+		if (previousFrame.getWidth() != radarMatrix.getWidth() || previousFrame.getHeight() != radarMatrix.getHeight()) {
+			return null;
+		}
+
+		final PackedMatrix changes = new PackedMatrix(radarMatrix.getWidth(), radarMatrix.getHeight());
+		final long[] words = changes.getWords();
+		for (int i = 0; i < radarMatrix.getWordsPerRow() * radarMatrix.getHeight(); i++) {
+			words[i] = previousFrame.getWords()[i] ^ radarMatrix.getWords()[i];
+		}
+		return changes;
+	}
+
+	/**
+	 * Marks top-left corners of radar sub-matrices of invader size which contain at least one changed cell.
+	 * Sub-matrix at (row, column) contains changed cell (r, c) if row is in [r - height + 1, r] and column in [c - width + 1, c],
+	 * so every changed row is spread over width columns to the left and height rows above
+	 * @param changes Bit-packed matrix of changed cells
+	 * @param invader Compiled invader template
+	 * @return Bit-packed matrix of radar size, with marked sub-matrix corners
+	 */
+	static PackedMatrix dirtyOrigins(final PackedMatrix changes, final InvaderTemplate invader) {
+		final PackedMatrix origins = new PackedMatrix(changes.getWidth(), changes.getHeight());
+		final int wordsPerRow = changes.getWordsPerRow();
+		final int lastRow = changes.getHeight() - invader.getHeight();
+		final int lastColumn = changes.getWidth() - invader.getWidth();
+
+		if (lastRow < 0 || lastColumn < 0) {
+			return origins;
+		}
+
+		final long[] spread = new long[wordsPerRow];
+		final long[] shifted = new long[wordsPerRow];
+		final long lastWordMask = ((lastColumn + 1) & 63) == 0 ? -1L : (1L << (lastColumn + 1)) - 1;
+		final int lastWord = lastColumn >>> 6;
+
+		for (int row = 0; row < changes.getHeight(); row++) {
+			boolean changed = false;
+			for (int k = 0; k < wordsPerRow; k++) {
+				spread[k] = changes.word(row, k);
+				changed |= spread[k] != 0;
+			}
+			if (!changed) {
+				continue;
+			}
+
+			//Spread changed cells over (width - 1) columns to the left, doubling the spread distance in each step
+			for (int covered = 1; covered < invader.getWidth(); ) {
+				final int distance = Math.min(covered, invader.getWidth() - covered);
+				shiftDown(spread, distance, shifted);
+				for (int k = 0; k < wordsPerRow; k++) {
+					spread[k] |= shifted[k];
+				}
+				covered += distance;
+			}
+
+			for (int origin = Math.max(0, row - invader.getHeight() + 1); origin <= Math.min(row, lastRow); origin++) {
+				for (int k = 0; k <= lastWord; k++) {
+					origins.getWords()[origin * wordsPerRow + k] |= k == lastWord ? spread[k] & lastWordMask : spread[k];
+				}
+			}
+		}
+
+		return origins;
+	}
+
+	/**
+	 * Moves every cell of row given distance of columns to the left, towards column 0
+	 */
+	private static void shiftDown(final long[] words, final int distance, final long[] result) {
+		final int wordShift = distance >>> 6;
+		final int bitShift = distance & 63;
+
+		for (int k = 0; k < words.length; k++) {
+			final int source = k + wordShift;
+			long word = source < words.length ? words[source] >>> bitShift : 0;
+			if (bitShift != 0 && source + 1 < words.length) {
+				word |= words[source + 1] << (64 - bitShift);
+			}
+			result[k] = word;
+		}
+	}
+
+	/**
+	 * Merges results of previous frame, which are kept in sub-matrices without changes, with rescored results, ordered by row and column
+	 */
+	private static List<DetectionResult> merge(final List<DetectionResult> previous, final List<DetectionResult> rescored, final PackedMatrix dirtyOrigins) {
+		final List<DetectionResult> merged = new ArrayList<>(previous.size() + rescored.size());
+		int next = 0;
+
+		for (DetectionResult result : previous) {
+			if (dirtyOrigins.get(result.getRowStart(), result.getColumnStart())) {
+				continue;
+			}
+			while (next < rescored.size() && before(rescored.get(next), result)) {
+				merged.add(rescored.get(next++));
+			}
+			merged.add(result);
+		}
+		while (next < rescored.size()) {
+			merged.add(rescored.get(next++));
+		}
+
+		return merged;
+	}
+
+	private static boolean before(final DetectionResult first, final DetectionResult second) {
+		return first.getRowStart() < second.getRowStart()
+			|| first.getRowStart() == second.getRowStart() && first.getColumnStart() < second.getColumnStart();
+	}
+}
@@ -0,0 +1,120 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import fuga.app.invaderdetector.model.ResultCollector;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class used to detect invader in radar image on multiple threads.
+ * Radar matrix is split into row bands, which are scanned independently on ForkJoinPool.
+ * Band of sub-matrices starting in rows [from, to) reads radar rows [from, to + invaderHeight - 1),
+ * so consecutive bands overlap by invader height
+ */
+@Component
+@Slf4j
+public class ParallelDetectionEngine implements DetectionEngine {
+
+	private static final int MIN_BAND_ROWS = 8;
+	private static final int BANDS_PER_THREAD = 4;
+
+	private final BitPackedDetectionEngine detectionEngine;
+	private final int parallelism;
+	private final ForkJoinPool pool;
+
+	public ParallelDetectionEngine(final BitPackedDetectionEngine detectionEngine, final DetectorProperties detectorProperties) {
+		this.detectionEngine = detectionEngine;
+		this.parallelism = detectorProperties.resolveParallelism();
+		this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+
+		log.info("Detection parallelism: {}", parallelism);
+	}
+
+	/**
+	 * Detection of invader inside radar matrix with given required match percentage
+	 * @param invader Compiled invader template
+	 * @param radarMatrix Bit-packed radar matrix
+	 * @param requiredPercentage Minimum required match percentage
+	 * @return List of DetectionResult objects, ordered by row and column
+	 */
+	public List<DetectionResult> process(final InvaderTemplate invader, final PackedMatrix radarMatrix, final float requiredPercentage) {
+		return process(DetectionContext.of(Collections.singletonList(invader), radarMatrix, requiredPercentage)).get(0);
+	}
+
+	/**
+	 * Detection of multiple invaders inside radar matrix, all invaders are compared in the same band
+	 * @param context Detection context with invaders, radar matrix and required match percentage
+	 * @return Lists of DetectionResult objects, ordered by row and column, one list per invader in order of context invaders
+	 */
+	@Override
+	public List<List<DetectionResult>> process(final DetectionContext context) {
+		final int rows = context.getLastRow() + 1;
+
+		if (pool == null || rows <= MIN_BAND_ROWS) {
+			return detectionEngine.process(context);
+		}
+
+		final int bandRows = Math.max(MIN_BAND_ROWS, rows / (parallelism * BANDS_PER_THREAD));
+		return pool.invoke(new BandTask(context, 0, rows, bandRows));
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Task scanning band of radar rows, splitting it in halves until it is small enough.
+	 * Results of the upper half always precede results of the lower half, which keeps row and column order
+	 */
+	private class BandTask extends RecursiveTask<List<List<DetectionResult>>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final DetectionContext context;
+		private final int fromRow;
+		private final int toRow;
+		private final int bandRows;
+
+		BandTask(final DetectionContext context, final int fromRow, final int toRow, final int bandRows) {
+			this.context = context;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+			this.bandRows = bandRows;
+		}
+
+		@Override
+		protected List<List<DetectionResult>> compute() {
+			if (toRow - fromRow <= bandRows) {
+				return detectionEngine.processRows(context, fromRow, toRow);
+			}
+
+			final int middleRow = (fromRow + toRow) >>> 1;
+			final BandTask upper = new BandTask(context, fromRow, middleRow, bandRows);
+			final BandTask lower = new BandTask(context, middleRow, toRow, bandRows);
+
+			upper.fork();
+			final List<List<DetectionResult>> lowerResults = lower.compute();
+			final List<List<DetectionResult>> results = upper.join();
+			for (int index = 0; index < results.size(); index++) {
+				results.get(index).addAll(lowerResults.get(index));
+				results.set(index, ResultCollector.limit(results.get(index), context.getResultLimit()));
+			}
+			return results;
+		}
+	}
+}
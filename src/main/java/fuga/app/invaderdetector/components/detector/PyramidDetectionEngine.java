@@ -0,0 +1,171 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import fuga.app.invaderdetector.model.RadarPyramid;
+import fuga.app.invaderdetector.model.ResultCollector;
+import fuga.app.invaderdetector.model.SummedAreaTable;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class used to detect invader in radar image with coarse-to-fine search over radar pyramid, see {@link RadarPyramid}.
+ * Radar sub-matrices are visited in square blocks of starting positions. Block is compared with invader at a coarse level first,
+ * which gives upper bound of exact matches of all its sub-matrices, and only blocks whose bound reaches required matches
+ * are split into quarters and compared at a finer level, down to single sub-matrices compared with radar matrix itself.
+ * Because the bound is never lower than exact matches, results are the same as of exhaustive scan,
+ * while scan time depends on number of radar regions which can contain invader rather than on radar size
+ */
+@Component
+@RequiredArgsConstructor
+public class PyramidDetectionEngine implements DetectionEngine {
+
+	private final BitPackedDetectionEngine detectionEngine;
+	private final DetectorProperties detectorProperties;
+
+	@Override
+	public List<List<DetectionResult>> process(final DetectionContext context) {
+		final List<InvaderTemplate> invaders = context.getInvaders();
+		final RadarPyramid pyramid = RadarPyramid.of(context.getRadarMatrix(),
+			invaders.stream().mapToInt(this::topLevel).max().orElse(0));
+
+		final List<List<DetectionResult>> results = new ArrayList<>(invaders.size());
+		for (int index = 0; index < invaders.size(); index++) {
+			final Search search = new Search(context, pyramid, index);
+			search.run();
+			results.add(search.results());
+		}
+
+		return results;
+	}
+
+	/**
+	 * Blocks are not larger than invader, so coarse level still tells apart radar regions of invader size
+	 * @return Highest pyramid level at which invader is compared
+	 */
+	int topLevel(final InvaderTemplate invader) {
+		final int size = Math.min(invader.getWidth(), invader.getHeight());
+		return size > 0 ? Math.min(Math.max(0, detectorProperties.getPyramidLevels()), 31 - Integer.numberOfLeadingZeros(size)) : 0;
+	}
+
+	/**
+	 * Coarse-to-fine search of one invader
+	 */
+	private class Search {
+
+		private final DetectionContext context;
+		private final RadarPyramid pyramid;
+		private final InvaderTemplate invader;
+		private final PackedMatrix pattern;
+		private final SummedAreaTable summedAreaTable;
+		private final int requiredMatches;
+		private final int missBudget;
+		private final int lastRow;
+		private final int lastColumn;
+		private final ResultCollector results;
+
+		private long windowsScored;
+		private long windowsPruned;
+
+		Search(final DetectionContext context, final RadarPyramid pyramid, final int index) {
+			this.context = context;
+			this.pyramid = pyramid;
+			this.invader = context.getInvaders().get(index);
+			this.pattern = invader.getPattern();
+			this.summedAreaTable = context.getSummedAreaTable();
+			this.requiredMatches = context.getRequiredMatches()[index];
+			this.missBudget = requiredMatches == Integer.MAX_VALUE ? -1 : invader.getMatchingCount() - requiredMatches;
+			this.lastRow = context.getLastRow(invader);
+			this.lastColumn = context.getRadarMatrix().getWidth() - invader.getWidth();
+			this.results = context.newResultCollector();
+		}
+
+		void run() {
+			final int topLevel = topLevel(invader);
+			final int blockSize = 1 << topLevel;
+
+			for (int row = 0; row <= lastRow; row += blockSize) {
+				for (int column = 0; column <= lastColumn; column += blockSize) {
+					refine(topLevel, row, column);
+				}
+			}
+
+			context.getStatistics().addWindowsScored(windowsScored);
+			context.getStatistics().addWindowsPruned(windowsPruned);
+		}
+
+		/**
+		 * @return List of DetectionResult objects, ordered by row and column
+		 */
+		List<DetectionResult> results() {
+			//Blocks are visited depth first, so results of a block row are not in row order
+			final List<DetectionResult> collected = results.toList();
+			collected.sort(ResultCollector.RESULT_ORDER);
+			return collected;
+		}
+
+		/**
+		 * Compares block of sub-matrices starting at (row, column), of size 2^level, with invader
+		 */
+		private void refine(final int level, final int row, final int column) {
+			if (level == 0) {
+				if (summedAreaTable != null && summedAreaTable.sum(row, column, invader.getHeight(), invader.getWidth()) < requiredMatches) {
+					windowsPruned++;
+					return;
+				}
+
+				windowsScored++;
+				final DetectionResult result = detectionEngine.scoreWindow(invader, context.getRadarMatrix(), row, column,
+					context.getRequiredPercentage(), requiredMatches);
+				if (result != null) {
+					results.add(result);
+				}
+				return;
+			}
+
+			final int blockSize = 1 << level;
+			if (!withinMissBudget(pyramid.getLevel(level), row, column)) {
+				windowsPruned += (long) (Math.min(lastRow, row + blockSize - 1) - row + 1) * (Math.min(lastColumn, column + blockSize - 1) - column + 1);
+				return;
+			}
+
+			final int half = blockSize >> 1;
+			for (int rowOffset = 0; rowOffset < blockSize && row + rowOffset <= lastRow; rowOffset += half) {
+				for (int columnOffset = 0; columnOffset < blockSize && column + columnOffset <= lastColumn; columnOffset += half) {
+					refine(level - 1, row + rowOffset, column + columnOffset);
+				}
+			}
+		}
+
+		/**
+		 * @return True if invader 'o' characters not covered by coarse level at (row, column) do not exceed miss budget
+		 */
+		private boolean withinMissBudget(final PackedMatrix level, final int row, final int column) {
+			if (missBudget < 0) {
+				return false;
+			}
+
+			final int words = pattern.getWordsPerRow();
+			int invaderOnly = 0;
+
+			for (int i : invader.getRowOrder()) {
+				for (int k = 0; k < words; k++) {
+					invaderOnly += Long.bitCount(pattern.word(i, k) & ~level.bits(row + i, column + (k << 6)));
+				}
+
+				if (invaderOnly > missBudget) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+}
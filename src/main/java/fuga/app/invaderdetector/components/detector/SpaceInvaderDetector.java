@@ -1,19 +1,39 @@
 package fuga.app.invaderdetector.components.detector;
 
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.IntStream;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Component;
 
+import fuga.app.invaderdetector.components.filter.ResultFilter;
+import fuga.app.invaderdetector.components.loader.BinaryMatrixLoader;
+import fuga.app.invaderdetector.components.loader.InvaderTemplateCache;
+import fuga.app.invaderdetector.components.loader.MappedMatrixLoader;
 import fuga.app.invaderdetector.components.loader.MatrixLoaderComponent;
+import fuga.app.invaderdetector.components.metrics.DetectionMetrics;
+import fuga.app.invaderdetector.components.metrics.DetectionMetrics.Stage;
 import fuga.app.invaderdetector.components.printer.ResultPrinter;
+import fuga.app.invaderdetector.components.sink.ResultSink;
+import fuga.app.invaderdetector.components.sink.ResultSinkFactory;
 import fuga.app.invaderdetector.components.transformer.FileToMatrixTransformer;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
 import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.DetectionStatistics;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.InvaderVariants;
 import fuga.app.invaderdetector.model.Matrix;
-import fuga.app.invaderdetector.model.Point;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import fuga.app.invaderdetector.model.ScoreMap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -26,10 +46,18 @@ import lombok.extern.slf4j.Slf4j;
 public class SpaceInvaderDetector {
 
 	private final MatrixLoaderComponent matrixLoaderComponent;
+	private final MappedMatrixLoader mappedMatrixLoader;
+	private final BinaryMatrixLoader binaryMatrixLoader;
 	private final FileToMatrixTransformer fileToMatrixTransformer;
+	private final InvaderTemplateCache invaderTemplateCache;
 	private final ResultPrinter resultPrinter;
-
-	private static final char MATCHING_CHAR = 'o';
+	private final ResultSinkFactory resultSinkFactory;
+	private final DetectionEngine detectionEngine;
+	private final BitPackedDetectionEngine bitPackedDetectionEngine;
+	private final StreamingDetector streamingDetector;
+	private final ResultFilter resultFilter;
+	private final DetectionMetrics detectionMetrics;
+	private final DetectorProperties detectorProperties;
 
 	/**
 	 * Initialization of invader and radar matrices
@@ -38,155 +66,246 @@ public class SpaceInvaderDetector {
 	 * @param requiredPercentage Minimum required match percentage
 	 */
 	public void detect(final String invaderFilePath, final String radarFilePath, final float requiredPercentage) {
-		final Matrix radarMatrix = fileToMatrixTransformer.transform(matrixLoaderComponent.loadFromFile(radarFilePath));
-		final Matrix invaderMatrix = fileToMatrixTransformer.transform(matrixLoaderComponent.loadFromFile(invaderFilePath));
-
-		log.info("Start processing Matrices");
-		final List<DetectionResult> detectionResults = processImages(invaderMatrix, radarMatrix, requiredPercentage);
-		resultPrinter.print(detectionResults, radarMatrix, invaderMatrix);
+		detect(Collections.singletonList(invaderFilePath), radarFilePath, requiredPercentage);
 	}
 
 	/**
-	 * Comparing two matrix objects. Detection of invader matrix inside radar matrix with given required match percentage
-	 * @param invaderMatrix Invader matrix object
-	 * @param radarMatrix Radar matrix object
+	 * Initialization of invader and radar matrices. Radar image is loaded once and all invaders are detected in a single pass over radar image.
+	 * Large radar image files are memory-mapped and loaded directly into bit-packed matrix, as well as image files in binary format
+	 * @param invaderFilePaths Strings representing paths to invader image files
+	 * @param radarFilePath String representing path to radar image file
 	 * @param requiredPercentage Minimum required match percentage
-	 * @return List of DetectionResult objects
 	 */
-	private List<DetectionResult> processImages(final Matrix invaderMatrix, final Matrix radarMatrix, final float requiredPercentage) {
-		final List<DetectionResult> results = new ArrayList<>();
-
-		IntStream.range(0, radarMatrix.getHeight() - invaderMatrix.getHeight() + 1).forEach(radarHeight -> {
-			IntStream.range(0, radarMatrix.getWidth() - invaderMatrix.getWidth() + 1).forEach(radarWidth -> {
-
-				final AtomicInteger exactMatches = new AtomicInteger(0);
-				final AtomicInteger invaderOnly = new AtomicInteger(0);
-
-				final AtomicInteger noise = new AtomicInteger(0);
-				final AtomicInteger junk = new AtomicInteger(0);
-
-				final List<Point> radarOnlyPoints = new ArrayList<>();
-
-				IntStream.range(0, invaderMatrix.getHeight()).forEach(invaderHeight -> {
-					IntStream.range(0, invaderMatrix.getWidth()).forEach(invaderWidth -> {
-						final Character radarMatrixElement = radarMatrix.getElements()[radarHeight + invaderHeight][radarWidth + invaderWidth];
-						final Character invaderMatrixElement = invaderMatrix.getElements()[invaderHeight][invaderWidth];
-
-						if (radarMatrixElement.equals(MATCHING_CHAR) && invaderMatrixElement.equals(MATCHING_CHAR)) {
-							exactMatches.getAndIncrement();
-						} else if (radarMatrixElement.equals(MATCHING_CHAR)) {
-							radarOnlyPoints.add(Point.builder().x(invaderHeight).y(invaderWidth).build());
-						} else if (invaderMatrixElement.equals(MATCHING_CHAR)) {
-							invaderOnly.getAndIncrement();
-						}
-					});
-				});
-
-				final int totalInvaders = invaderOnly.addAndGet(exactMatches.get());
-				float percentage = 0;
-
-				if (totalInvaders > 0) {
-					percentage = (exactMatches.get() * 100.0f) / totalInvaders;
+	public void detect(final Collection<String> invaderFilePaths, final String radarFilePath, final float requiredPercentage) {
+		if (!resultSinkFactory.isTextFormat()) {
+			try (ResultSink resultSink = resultSinkFactory.open()) {
+				detect(invaderFilePaths, radarFilePath, requiredPercentage, resultSink);
+			} catch (IOException e) {
+				log.error("Error while writing results of radar image: {}", radarFilePath);
+			}
+		} else if (detectorProperties.isStreaming()) {
+			detectStreaming(new ArrayList<>(invaderFilePaths), radarFilePath, requiredPercentage);
+		} else if (binaryMatrixLoader.isBinary(radarFilePath) || new File(radarFilePath).length() >= detectorProperties.getMappedLoaderMinimumFileSize()) {
+			final PackedMatrix radarMatrix = loadRadar(radarFilePath);
+			final List<InvaderTemplate> invaders = loadInvaders(invaderFilePaths);
+			final List<List<DetectionResult>> detectionResults = process(invaders, radarMatrix, requiredPercentage);
+
+			detectionMetrics.record(Stage.PRINT, () -> {
+				for (int index = 0; index < invaders.size(); index++) {
+					resultPrinter.print(detectionResults.get(index), radarMatrix, invaders.get(index).getMatrix());
 				}
-
-				if (percentage >= requiredPercentage) {
-					//Found matching invader
-					//Check if 'o' characters on radar image sub-matrix represent noise or junk
-					radarOnlyPoints.forEach(point -> {
-						if (isNoise(invaderMatrix, point.getX(), point.getY())) {
-							noise.getAndIncrement();
-						} else {
-							junk.getAndIncrement();
-						}
-					});
-
-					results.add(DetectionResult.builder()
-						.segment(String.format("row: [%2d, %2d], column: [%2d, %2d]", radarHeight, radarHeight + invaderMatrix.getHeight() - 1, radarWidth, radarWidth + invaderMatrix.getWidth() - 1))
-						.matchingPercentage(percentage)
-						.rowStart(radarHeight)
-						.rowEnd(radarHeight + invaderMatrix.getHeight() - 1)
-						.columnStart(radarWidth).columnEnd(radarWidth + invaderMatrix.getWidth() - 1)
-						.description(String.format("Found matching invader in radar sub-matrix with matching accuracy of %.2f%%", percentage))
-						.noise(noise.get())
-						.junk(junk.get())
-						.build());
+			});
+		} else {
+			final List<String> radarLines = loadLines(radarFilePath);
+			final Matrix radarMatrix = detectionMetrics.record(Stage.TRANSFORM, () -> fileToMatrixTransformer.transform(radarLines));
+			final List<InvaderTemplate> invaders = loadInvaders(invaderFilePaths);
+			final List<List<DetectionResult>> detectionResults = process(invaders, PackedMatrix.of(radarMatrix), requiredPercentage);
+
+			detectionMetrics.record(Stage.PRINT, () -> {
+				for (int index = 0; index < invaders.size(); index++) {
+					resultPrinter.print(detectionResults.get(index), radarMatrix, invaders.get(index).getMatrix());
 				}
+			});
+		}
+	}
 
+	/**
+	 * Detection of invaders in radar image, results are written to result sink instead of being printed.
+	 * In streaming mode results are written as soon as each band of radar image is processed
+	 * @param invaderFilePaths Strings representing paths to invader image files
+	 * @param radarFilePath String representing path to radar image file
+	 * @param requiredPercentage Minimum required match percentage
+	 * @param resultSink Result sink receiving results, ordered by row and column for each invader
+	 * @throws IOException If results can not be written
+	 */
+	public void detect(final Collection<String> invaderFilePaths, final String radarFilePath, final float requiredPercentage,
+					   final ResultSink resultSink) throws IOException {
+		final List<String> invaderNames = new ArrayList<>(invaderFilePaths);
+		final List<InvaderTemplate> invaders = loadInvaders(invaderNames);
+
+		if (detectorProperties.isStreaming()) {
+			log.info("Start processing radar image {}", radarFilePath);
+			final long startTime = System.nanoTime();
+			final DetectionStatistics statistics = streamingDetector.detect(invaders, radarFilePath, requiredPercentage, (invaderIndex, detectionResult) -> {
+				detectionMetrics.recordMatch();
+				resultSink.write(radarFilePath, invaderNames.get(invaderIndex), detectionResult);
 			});
-		});
+			recordStreaming(radarFilePath, startTime, statistics);
+			log.info("Finished processing radar image, {}", statistics);
+			return;
+		}
 
-		return results;
+		final PackedMatrix radarMatrix = loadRadar(radarFilePath);
+		final List<List<DetectionResult>> detectionResults = process(invaders, radarMatrix, requiredPercentage);
+
+		final long startTime = System.nanoTime();
+		for (int index = 0; index < invaderNames.size(); index++) {
+			for (DetectionResult detectionResult : detectionResults.get(index)) {
+				resultSink.write(radarFilePath, invaderNames.get(index), detectionResult);
+			}
+		}
+		detectionMetrics.recordSince(Stage.PRINT, startTime);
 	}
 
 	/**
-	 * Checks if 'o' found in sub-matrix of radar image is noise
-	 * @param invaderMatrix Matrix object representing space invader matrix
-	 * @param x X coordinate of 'o' character found on radar image rescaled to invader matrix coordinate
-	 * @param y Y coordinate of 'o' character found on radar image rescaled to invader matrix coordinate
-	 * @return True if 'o' is noise, False if 'o' is junk
+	 * Detection of invaders in radar matrix already in memory, results are returned instead of being printed
+	 * @param invaderFilePaths Strings representing paths to invader image files
+	 * @param radarMatrix Bit-packed radar matrix
+	 * @param requiredPercentage Minimum required match percentage
+	 * @return Lists of DetectionResult objects, ordered by row and column, one list per invader
 	 */
-	private boolean isNoise(final Matrix invaderMatrix, final int x, final int y) {
-
-		//Check if point is not located in last row of matrix
-		if (x + 1 < invaderMatrix.getHeight()) {
-			//Check element below
-			if (invaderMatrix.getElements()[x + 1][y] == MATCHING_CHAR)
-				return true;
+	public List<List<DetectionResult>> detect(final Collection<String> invaderFilePaths, final PackedMatrix radarMatrix, final float requiredPercentage) {
+		return process(loadInvaders(invaderFilePaths), radarMatrix, requiredPercentage);
+	}
 
-			//Check element below right
-			if (y + 1 < invaderMatrix.getWidth() && invaderMatrix.getElements()[x + 1][y + 1] == MATCHING_CHAR)
-				return true;
+	/**
+	 * Detection of invaders in radar image with multiple required percentages. Every radar sub-matrix is scored once,
+	 * and results of each percentage are selected from the scores, instead of scanning radar image once per percentage.
+	 * Invaders are compared in configured orientations, sub-matrices overhanging radar edges are scored for each percentage when edge detection is enabled,
+	 * and results are reduced by result filter, so results are the same as of detection process with each percentage
+	 * @param invaderFilePaths Strings representing paths to invader image files
+	 * @param radarFilePath String representing path to radar image file
+	 * @param requiredPercentages Minimum required match percentages
+	 * @return Lists of DetectionResult objects, ordered by row and column, one list per invader, for each required percentage
+	 */
+	public Map<Float, List<List<DetectionResult>>> sweep(final Collection<String> invaderFilePaths, final String radarFilePath,
+														 final Collection<Float> requiredPercentages) {
+		final List<String> invaderNames = new ArrayList<>(invaderFilePaths);
+		final PackedMatrix radarMatrix = loadRadar(radarFilePath);
+		final InvaderVariants variants = InvaderVariants.of(loadInvaders(invaderNames), detectorProperties.getInvaderVariants());
+		final List<ScoreMap> scoreMaps = scoreMaps(variants.getTemplates(), radarMatrix);
+		final Map<Float, List<List<DetectionResult>>> sweepResults = new LinkedHashMap<>();
+
+		for (int index = 0; index < scoreMaps.size(); index++) {
+			log.info("Score histogram of invader {} ({}), by number of exact matches: {}", invaderNames.get(variants.getOwner(index)),
+				scoreMaps.get(index).getInvader().getVariant(), Arrays.toString(scoreMaps.get(index).histogram()));
+		}
 
-			//Check element below left
-			if (y - 1 >= 0 && invaderMatrix.getElements()[x + 1][y - 1] == MATCHING_CHAR)
-				return true;
+		for (float requiredPercentage : requiredPercentages) {
+			final List<List<DetectionResult>> templateResults = scoreMaps.stream()
+				.map(scoreMap -> scoreMap.results(requiredPercentage))
+				.collect(Collectors.toList());
+			final List<List<DetectionResult>> insideAndEdgeResults = detectorProperties.isEdgeDetection()
+				? EdgeDetectionEngine.merge(templateResults, bitPackedDetectionEngine.processEdges(
+					DetectionContext.of(variants.getTemplates(), radarMatrix, requiredPercentage), detectorProperties.getEdgeMinimumVisibleFraction()))
+				: templateResults;
+
+			//Suppression sees all results of the percentage, result limit is applied by the filter after it
+			final List<List<DetectionResult>> detectionResults = resultFilter.apply(variants.regroup(insideAndEdgeResults));
+
+			for (int index = 0; index < invaderNames.size(); index++) {
+				log.info("Invader {}: {} results with matching percentage of at least {}%", invaderNames.get(index), detectionResults.get(index).size(), requiredPercentage);
+			}
+			sweepResults.put(requiredPercentage, detectionResults);
 		}
 
-		//Check if point is not located in first row of matrix
-		if (x - 1 >= 0) {
-			//Check element above
-			if (invaderMatrix.getElements()[x - 1][y] == MATCHING_CHAR)
-				return true;
+		return sweepResults;
+	}
 
-			//Check element above right
-			if (y + 1 < invaderMatrix.getWidth() && invaderMatrix.getElements()[x - 1][y + 1] == MATCHING_CHAR)
-				return true;
+	/**
+	 * Scoring of every radar sub-matrix of invader size, independent of required percentage, see {@link ScoreMap}
+	 * @param invaders Compiled invader templates
+	 * @param radarMatrix Bit-packed radar matrix
+	 * @return ScoreMap objects, one per invader template
+	 */
+	public List<ScoreMap> scoreMaps(final List<InvaderTemplate> invaders, final PackedMatrix radarMatrix) {
+		log.info("Start scoring Matrices");
+		final List<ScoreMap> scoreMaps = detectionMetrics.record(Stage.DETECT, () -> invaders.stream()
+			.map(invader -> bitPackedDetectionEngine.scoreMap(invader, radarMatrix))
+			.collect(Collectors.toList()));
+
+		final DetectionStatistics statistics = new DetectionStatistics();
+		scoreMaps.forEach(scoreMap -> statistics.addWindowsScored((long) scoreMap.getRows() * scoreMap.getColumns()));
+		log.info("Finished scoring Matrices, {}", statistics);
+		detectionMetrics.record(statistics);
+		return scoreMaps;
+	}
 
-			//Check element above left
-			if (y - 1 >= 0 && invaderMatrix.getElements()[x - 1][y - 1] == MATCHING_CHAR)
-				return true;
+	/**
+	 * Loads radar image file into bit-packed matrix, large files and files in binary format without parsing into characters
+	 * @param radarFilePath String representing path to radar image file
+	 * @return PackedMatrix object
+	 */
+	public PackedMatrix loadRadar(final String radarFilePath) {
+		if (binaryMatrixLoader.isBinary(radarFilePath) || new File(radarFilePath).length() >= detectorProperties.getMappedLoaderMinimumFileSize()) {
+			detectionMetrics.recordBytesRead(radarFilePath);
+			return detectionMetrics.record(Stage.LOAD, () -> binaryMatrixLoader.isBinary(radarFilePath)
+				? binaryMatrixLoader.load(radarFilePath)
+				: mappedMatrixLoader.load(radarFilePath));
 		}
 
-		//Check if point is not located in first column of matrix
-		if (y - 1 >= 0) {
-			//Check element left
-			if (invaderMatrix.getElements()[x][y - 1] == MATCHING_CHAR)
-				return true;
-
-			//Check element left bottom
-			if (x + 1 < invaderMatrix.getHeight() && invaderMatrix.getElements()[x + 1][y - 1] == MATCHING_CHAR)
-				return true;
+		final List<String> radarLines = loadLines(radarFilePath);
+		return detectionMetrics.record(Stage.TRANSFORM, () -> PackedMatrix.of(fileToMatrixTransformer.transform(radarLines)));
+	}
 
-			//Check element left top
-			if (x - 1 >= 0 && invaderMatrix.getElements()[x - 1][y - 1] == MATCHING_CHAR)
-				return true;
+	/**
+	 * Detection of invaders in radar image read band by band, results are printed as soon as they are found
+	 * @param invaderFilePaths Strings representing paths to invader image files
+	 * @param radarFilePath String representing path to radar image file
+	 * @param requiredPercentage Minimum required match percentage
+	 */
+	private void detectStreaming(final List<String> invaderFilePaths, final String radarFilePath, final float requiredPercentage) {
+		final List<InvaderTemplate> invaders = loadInvaders(invaderFilePaths);
+
+		try {
+			log.info("Start processing radar image {}", radarFilePath);
+			final long startTime = System.nanoTime();
+			final DetectionStatistics statistics = streamingDetector.detect(invaders, radarFilePath, requiredPercentage, (invaderIndex, detectionResult) -> {
+				detectionMetrics.recordMatch();
+				resultPrinter.print(invaderFilePaths.get(invaderIndex), detectionResult);
+			});
+			recordStreaming(radarFilePath, startTime, statistics);
+			log.info("Finished processing radar image, {}", statistics);
+		} catch (IOException e) {
+			log.error("Error while reading file: {}", radarFilePath);
 		}
+	}
+
+	/**
+	 * Streaming detection reads radar image while detecting, so reading is recorded as part of detection stage
+	 */
+	private void recordStreaming(final String radarFilePath, final long startTime, final DetectionStatistics statistics) {
+		detectionMetrics.recordSince(Stage.DETECT, startTime);
+		detectionMetrics.recordBytesRead(radarFilePath);
+		detectionMetrics.record(statistics);
+	}
 
-		//Check if point is not located in last column of matrix
-		if (y + 1 < invaderMatrix.getWidth()) {
-			//Check element right
-			if (invaderMatrix.getElements()[x][y + 1] == MATCHING_CHAR)
-				return true;
+	/**
+	 * Loads invader image files into compiled invader templates, invaders already in template cache are not loaded again
+	 * @param invaderFilePaths Strings representing paths to invader image files
+	 * @return InvaderTemplate objects, in order of paths
+	 */
+	public List<InvaderTemplate> loadInvaders(final Collection<String> invaderFilePaths) {
+		final List<InvaderTemplate> invaders = detectionMetrics.record(Stage.LOAD, () -> invaderFilePaths.stream()
+			.map(invaderFilePath -> invaderTemplateCache.get(invaderFilePath, this::loadInvaderMatrix))
+			.collect(Collectors.toList()));
+		log.info("Loaded invaders, {}", invaderTemplateCache);
+		return invaders;
+	}
 
-			//Check element right bottom
-			if (x + 1 < invaderMatrix.getHeight() && invaderMatrix.getElements()[x + 1][y + 1] == MATCHING_CHAR)
-				return true;
+	private Matrix loadInvaderMatrix(final String invaderFilePath) {
+		detectionMetrics.recordBytesRead(invaderFilePath);
+		return binaryMatrixLoader.isBinary(invaderFilePath)
+			? binaryMatrixLoader.load(invaderFilePath).toMatrix()
+			: fileToMatrixTransformer.transform(matrixLoaderComponent.loadFromFile(invaderFilePath));
+	}
 
-			//Check element right top
-			if (x - 1 >= 0 && invaderMatrix.getElements()[x - 1][y + 1] == MATCHING_CHAR)
-				return true;
-		}
+	private List<String> loadLines(final String radarFilePath) {
+		detectionMetrics.recordBytesRead(radarFilePath);
+		return detectionMetrics.record(Stage.LOAD, () -> matrixLoaderComponent.loadFromFile(radarFilePath));
+	}
 
-		return false;
+	private List<List<DetectionResult>> process(final List<InvaderTemplate> invaders, final PackedMatrix radarMatrix, final float requiredPercentage) {
+		log.info("Start processing Matrices");
+		final DetectionContext context = detectorProperties.isSummedAreaPruning()
+			? DetectionContext.withPruning(invaders, radarMatrix, requiredPercentage)
+			: DetectionContext.of(invaders, radarMatrix, requiredPercentage);
+
+		final List<List<DetectionResult>> detectionResults = detectionMetrics.record(Stage.DETECT,
+			() -> resultFilter.apply(detectionEngine.process(context.withResultLimit(resultFilter.getDetectionLimit()))));
+		log.info("Finished processing Matrices, {}", context.getStatistics());
+		detectionMetrics.record(context.getStatistics());
+		detectionMetrics.recordMatches(detectionResults);
+		return detectionResults;
 	}
 }
@@ -0,0 +1,113 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.components.filter.ResultFilter;
+import fuga.app.invaderdetector.components.loader.PackedRowReader;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.DetectionStatistics;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.InvaderVariants;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import fuga.app.invaderdetector.model.ResultCollector;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class used to detect invaders in radar image which does not have to fit in memory.
+ * Radar image is read in bands of rows. Only the current band and the last (invader height - 1) rows of the previous band are held in memory,
+ * and results are passed to listener as soon as the band is processed.
+ * If results are reduced (limited or suppressed), they are collected from all bands and passed to listener at the end
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StreamingDetector {
+
+	private final DetectionEngine detectionEngine;
+	private final ResultFilter resultFilter;
+	private final DetectorProperties detectorProperties;
+
+	/**
+	 * Detection of invaders inside radar image file, band by band
+	 * @param invaders Compiled invader templates
+	 * @param radarFilePath String representing path to radar image file
+	 * @param requiredPercentage Minimum required match percentage
+	 * @param listener Listener receiving results, ordered by row and column for each invader
+	 * @return Statistics of detection process
+	 * @throws IOException If radar image file can not be read
+	 */
+	public DetectionStatistics detect(final List<InvaderTemplate> invaders, final String radarFilePath, final float requiredPercentage,
+									  final DetectionListener listener) throws IOException {
+		final DetectionStatistics statistics = new DetectionStatistics();
+		final List<ResultCollector> collectors = resultFilter.isEnabled() ? new ArrayList<>(invaders.size()) : null;
+		if (collectors != null) {
+			invaders.forEach(invader -> collectors.add(ResultCollector.of(resultFilter.getDetectionLimit())));
+		}
+
+		try (PackedRowReader reader = new PackedRowReader(radarFilePath)) {
+			//Detection engine can compare invaders in other orientations, band has to hold the tallest of them
+			final int overlap = Math.max(0, InvaderVariants.of(invaders, detectorProperties.getInvaderVariants()).getMaximumHeight() - 1);
+			final int bandRows = Math.max(1, detectorProperties.getStreamingBandRows());
+			final PackedMatrix buffer = new PackedMatrix(reader.getWidth(), bandRows + overlap);
+
+			log.info("Streaming radar image in bands of {} rows, {} rows overlap", bandRows, overlap);
+
+			int baseRow = 0;
+			int filled = reader.read(buffer, 0);
+
+			while (true) {
+				final boolean lastBand = filled < buffer.getHeight();
+				//Sub-matrices starting in overlapping rows are processed with the next band, which has all their rows
+				final int startRows = lastBand ? filled : filled - overlap;
+
+				final PackedMatrix band = buffer.topRows(filled);
+				final DetectionContext bandContext = (detectorProperties.isSummedAreaPruning()
+					? DetectionContext.withPruning(invaders, band, requiredPercentage)
+					: DetectionContext.of(invaders, band, requiredPercentage)).withRowLimit(startRows);
+				final DetectionContext context = (baseRow == 0 ? bandContext : bandContext.withoutTopEdge())
+					.withResultLimit(resultFilter.getDetectionLimit());
+
+				final List<List<DetectionResult>> results = detectionEngine.process(context);
+				for (int index = 0; index < results.size(); index++) {
+					for (DetectionResult result : results.get(index)) {
+						if (collectors != null) {
+							collectors.get(index).add(result.shift(baseRow, 0));
+						} else {
+							listener.onDetection(index, result.shift(baseRow, 0));
+						}
+					}
+				}
+				statistics.add(context.getStatistics());
+
+				if (lastBand) {
+					break;
+				}
+
+				//Move overlapping rows to the top of buffer and read next band below them
+				final long[] words = buffer.getWords();
+				System.arraycopy(words, startRows * buffer.getWordsPerRow(), words, 0, overlap * buffer.getWordsPerRow());
+				baseRow += startRows;
+				filled = overlap + reader.read(buffer, overlap);
+			}
+		}
+
+		if (collectors != null) {
+			final List<List<DetectionResult>> results = resultFilter.apply(collectors.stream().map(ResultCollector::toList).collect(Collectors.toList()));
+			for (int index = 0; index < results.size(); index++) {
+				for (DetectionResult result : results.get(index)) {
+					listener.onDetection(index, result);
+				}
+			}
+		}
+
+		return statistics;
+	}
+}
@@ -0,0 +1,36 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderVariants;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class used to detect invaders in configured orientations (rotated and mirrored) as well as in their original orientation.
+ * Templates of all orientations are passed to detection engine in a single context, so they are compared with radar during one traversal
+ * and share summed-area table and statistics. Results of each invader are reported together, with orientation in which it is found
+ */
+@Component
+@Primary
+@RequiredArgsConstructor
+public class VariantDetectionEngine implements DetectionEngine {
+
+	private final EdgeDetectionEngine detectionEngine;
+	private final DetectorProperties detectorProperties;
+
+	@Override
+	public List<List<DetectionResult>> process(final DetectionContext context) {
+		if (detectorProperties.getInvaderVariants().isEmpty()) {
+			return detectionEngine.process(context);
+		}
+
+		final InvaderVariants variants = InvaderVariants.of(context.getInvaders(), detectorProperties.getInvaderVariants());
+		return variants.regroup(detectionEngine.process(context.withInvaders(variants.getTemplates())));
+	}
+}
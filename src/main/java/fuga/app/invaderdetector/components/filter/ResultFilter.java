@@ -0,0 +1,140 @@
+package fuga.app.invaderdetector.components.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.ResultCollector;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class used to reduce detection results before they are printed or written: overlapping results of an invader are suppressed
+ * in favour of the one with the highest matching percentage (non-maximum suppression), and only configured number of best results is kept
+ */
+@Component
+@RequiredArgsConstructor
+public class ResultFilter {
+
+	private final DetectorProperties detectorProperties;
+
+	/**
+	 * @return True if results are reduced in any way
+	 */
+	public boolean isEnabled() {
+		return detectorProperties.isNonMaximumSuppression() || detectorProperties.getResultLimit() > 0;
+	}
+
+	/**
+	 * Limit of results which can be applied while radar image is scanned, before results are reduced by this filter.
+	 * Suppression has to see all results, otherwise neighbours of the best result fill the limit and other invaders are lost
+	 * @return Maximum number of results kept for each invader during detection, value 0 keeps all results
+	 */
+	public int getDetectionLimit() {
+		return detectorProperties.isNonMaximumSuppression() ? 0 : detectorProperties.getResultLimit();
+	}
+
+	/**
+	 * Reduces results of each invader
+	 * @param detectionResults Lists of DetectionResult objects, one list per invader
+	 * @return Lists of DetectionResult objects, ordered by row and column, one list per invader
+	 */
+	public List<List<DetectionResult>> apply(final List<List<DetectionResult>> detectionResults) {
+		if (!isEnabled()) {
+			return detectionResults;
+		}
+
+		final List<List<DetectionResult>> results = new ArrayList<>(detectionResults.size());
+		for (List<DetectionResult> invaderResults : detectionResults) {
+			final List<DetectionResult> kept = detectorProperties.isNonMaximumSuppression()
+				? suppress(invaderResults, detectorProperties.getSuppressionMaximumOverlap())
+				: invaderResults;
+			results.add(ResultCollector.limit(kept, detectorProperties.getResultLimit()));
+		}
+		return results;
+	}
+
+	/**
+	 * Non-maximum suppression: results are visited from the highest matching percentage, and result is kept
+	 * only if it does not overlap with any kept result by more than maximum overlap (intersection over union of sub-matrices).
+	 * Kept results are indexed in a grid of cells of sub-matrix size, so each result is compared only with kept results in neighbouring cells
+	 * @param detectionResults List of DetectionResult objects of an invader
+	 * @param maximumOverlap Maximum intersection over union of kept results
+	 * @return List of kept DetectionResult objects, ordered by row and column
+	 */
+	static List<DetectionResult> suppress(final List<DetectionResult> detectionResults, final double maximumOverlap) {
+		if (detectionResults.size() < 2) {
+			return detectionResults;
+		}
+
+		final int cellHeight = detectionResults.stream().mapToInt(ResultFilter::height).max().orElse(1);
+		final int cellWidth = detectionResults.stream().mapToInt(ResultFilter::width).max().orElse(1);
+		final List<DetectionResult> ordered = new ArrayList<>(detectionResults);
+		ordered.sort(ResultCollector.BEST_FIRST);
+
+		final List<DetectionResult> kept = new ArrayList<>();
+		final Map<Long, List<DetectionResult>> grid = new HashMap<>();
+
+		for (DetectionResult result : ordered) {
+			final int cellRow = Math.floorDiv(result.getRowStart(), cellHeight);
+			final int cellColumn = Math.floorDiv(result.getColumnStart(), cellWidth);
+
+			if (!overlapsKept(result, grid, cellRow, cellColumn, maximumOverlap)) {
+				kept.add(result);
+				grid.computeIfAbsent(cell(cellRow, cellColumn), key -> new ArrayList<>()).add(result);
+			}
+		}
+
+		kept.sort(ResultCollector.RESULT_ORDER);
+		return kept;
+	}
+
+	/**
+	 * Sub-matrices not larger than grid cell can overlap only if their corners are in the same or neighbouring cells
+	 */
+	private static boolean overlapsKept(final DetectionResult result, final Map<Long, List<DetectionResult>> grid, final int cellRow, final int cellColumn,
+										final double maximumOverlap) {
+		for (int row = cellRow - 1; row <= cellRow + 1; row++) {
+			for (int column = cellColumn - 1; column <= cellColumn + 1; column++) {
+				for (DetectionResult other : grid.getOrDefault(cell(row, column), Collections.emptyList())) {
+					if (overlap(result, other) > maximumOverlap) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return Intersection over union of sub-matrices of two results
+	 */
+	static double overlap(final DetectionResult first, final DetectionResult second) {
+		final int rows = Math.min(first.getRowEnd(), second.getRowEnd()) - Math.max(first.getRowStart(), second.getRowStart()) + 1;
+		final int columns = Math.min(first.getColumnEnd(), second.getColumnEnd()) - Math.max(first.getColumnStart(), second.getColumnStart()) + 1;
+		if (rows <= 0 || columns <= 0) {
+			return 0;
+		}
+
+		final long intersection = (long) rows * columns;
+		final long union = (long) height(first) * width(first) + (long) height(second) * width(second) - intersection;
+		return (double) intersection / union;
+	}
+
+	private static long cell(final int row, final int column) {
+		return ((long) row << 32) | (column & 0xffffffffL);
+	}
+
+	private static int height(final DetectionResult result) {
+		return result.getRowEnd() - result.getRowStart() + 1;
+	}
+
+	private static int width(final DetectionResult result) {
+		return result.getColumnEnd() - result.getColumnStart() + 1;
+	}
+}
@@ -0,0 +1,114 @@
+package fuga.app.invaderdetector.components.loader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+/**
+ * Class describes binary image format. File starts with 16 bytes header: magic bytes "SIBM", format version, image width and height,
+ * followed by image rows in bit-packed form of {@link fuga.app.invaderdetector.model.PackedMatrix}, every row as (width + 63) / 64 words.
+ * All numbers are little-endian, and words are aligned to 8 bytes, so the file can be mapped and copied into matrix words directly
+ */
+public final class BinaryMatrixFormat {
+
+	static final int HEADER_SIZE = 16;
+	static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+	private static final int MAGIC = 'S' | 'I' << 8 | 'B' << 16 | 'M' << 24;
+	private static final int VERSION = 1;
+
+	//Largest number of words a bit-packed matrix can hold in a single array
+	private static final long MAX_WORDS = Integer.MAX_VALUE - 8;
+
+	private BinaryMatrixFormat() {
+	}
+
+	/**
+	 * Checks whether file starts with magic bytes of binary image format
+	 * @param filePath String representing base location of image
+	 * @return True if file is binary image, false if it is text image or can not be read
+	 */
+	public static boolean isBinary(final String filePath) {
+		final File file = new File(filePath);
+		if (!file.isFile() || file.length() < HEADER_SIZE) {
+			return false;
+		}
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			final ByteBuffer magic = ByteBuffer.allocate(4).order(BYTE_ORDER);
+			return channel.read(magic) == 4 && magic.getInt(0) == MAGIC;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @param width Image width
+	 * @param height Image height
+	 * @return Buffer with header bytes, ready to be written
+	 */
+	static ByteBuffer header(final int width, final int height) {
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+		header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height);
+		header.flip();
+		return header;
+	}
+
+	/**
+	 * Reads and validates header
+	 * @param channel File channel positioned at the start of file, positioned after header when method returns
+	 * @return Image width and height
+	 * @throws IOException If file is not binary image of supported version
+	 */
+	static int[] readHeader(final FileChannel channel) throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+		while (header.hasRemaining()) {
+			if (channel.read(header) < 0) {
+				throw new IOException("Binary image header is incomplete");
+			}
+		}
+
+		if (header.getInt(0) != MAGIC) {
+			throw new IOException("File is not a binary image");
+		}
+		if (header.getInt(4) != VERSION) {
+			throw new IOException("Unsupported binary image version: " + header.getInt(4));
+		}
+
+		final int width = header.getInt(8);
+		final int height = header.getInt(12);
+		if (width < 0 || height < 0) {
+			throw new IOException("Invalid binary image size: " + width + "x" + height);
+		}
+
+		//Size is checked against file length before any matrix is allocated, so a corrupt header can not request a huge or overflowing matrix
+		final long words = ((width + 63L) >>> 6) * height;
+		if (words > MAX_WORDS || channel.size() != HEADER_SIZE + 8 * words) {
+			throw new IOException("Binary image size " + width + "x" + height + " does not match file length of " + channel.size() + " bytes");
+		}
+		return new int[] {width, height};
+	}
+
+	/**
+	 * Clears bits past image width in the last word of given rows, which a corrupt file could set
+	 * @param matrix Bit-packed matrix read from binary image
+	 * @param fromRow First row (inclusive)
+	 * @param toRow Last row (exclusive)
+	 */
+	static void clearPadding(final PackedMatrix matrix, final int fromRow, final int toRow) {
+		if ((matrix.getWidth() & 63) == 0) {
+			return;
+		}
+
+		final long mask = (1L << matrix.getWidth()) - 1;
+		final long[] words = matrix.getWords();
+		for (int i = fromRow; i < toRow; i++) {
+			words[(i + 1) * matrix.getWordsPerRow() - 1] &= mask;
+		}
+	}
+}
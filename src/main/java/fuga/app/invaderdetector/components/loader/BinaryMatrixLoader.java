@@ -0,0 +1,77 @@
+package fuga.app.invaderdetector.components.loader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.model.PackedMatrix;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class used to load image files in binary format, see {@link BinaryMatrixFormat}.
+ * File is memory-mapped and its words are copied into bit-packed matrix in bulk, without parsing
+ */
+@Component
+@Slf4j
+public class BinaryMatrixLoader {
+
+	private static final long MAX_REGION_SIZE = 1L << 30;
+
+	/**
+	 * @param filePath String representing base location of image
+	 * @return True if file is in binary format
+	 */
+	public boolean isBinary(final String filePath) {
+		return BinaryMatrixFormat.isBinary(filePath);
+	}
+
+	/**
+	 * Load binary file by given file path into bit-packed matrix
+	 * @param filePath String representing base location of image
+	 * @return PackedMatrix object, empty matrix if file can not be read
+	 */
+	public PackedMatrix load(final String filePath) {
+
+		try {
+			return read(filePath);
+		} catch (IOException e) {
+			log.error("Error while reading file: {}", filePath, e);
+		}
+
+		return new PackedMatrix(0, 0);
+	}
+
+	/**
+	 * Load binary file by given file path into bit-packed matrix
+	 * @param filePath String representing base location of image
+	 * @return PackedMatrix object
+	 * @throws IOException If file can not be read or is not a valid binary image
+	 */
+	public PackedMatrix read(final String filePath) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(new File(filePath).toPath(), StandardOpenOption.READ)) {
+			log.info("Loading binary file: {} ({} bytes)", filePath, channel.size());
+
+			final int[] size = BinaryMatrixFormat.readHeader(channel);
+			final PackedMatrix matrix = new PackedMatrix(size[0], size[1]);
+			final long[] words = matrix.getWords();
+
+			//Regions are multiples of 8 bytes, so words never cross region boundary
+			int copied = 0;
+			while (copied < words.length) {
+				final long position = BinaryMatrixFormat.HEADER_SIZE + 8L * copied;
+				final int count = (int) Math.min(words.length - copied, MAX_REGION_SIZE / 8);
+				final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, 8L * count);
+				buffer.order(BinaryMatrixFormat.BYTE_ORDER).asLongBuffer().get(words, copied, count);
+				copied += count;
+			}
+
+			BinaryMatrixFormat.clearPadding(matrix, 0, matrix.getHeight());
+			return matrix;
+		}
+	}
+}
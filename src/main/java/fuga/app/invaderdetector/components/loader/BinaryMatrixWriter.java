@@ -0,0 +1,52 @@
+package fuga.app.invaderdetector.components.loader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+/**
+ * Class used to write bit-packed matrix into image file in binary format, see {@link BinaryMatrixFormat}
+ */
+@Component
+public class BinaryMatrixWriter {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Writes matrix into file, replacing existing file
+	 * @param matrix Bit-packed matrix
+	 * @param filePath String representing base location of image
+	 * @throws IOException If file can not be written
+	 */
+	public void write(final PackedMatrix matrix, final String filePath) throws IOException {
+		try (FileChannel channel = FileChannel.open(new File(filePath).toPath(),
+			StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeFully(channel, BinaryMatrixFormat.header(matrix.getWidth(), matrix.getHeight()));
+
+			final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(BinaryMatrixFormat.BYTE_ORDER);
+			final long[] words = matrix.getWords();
+			final int length = matrix.getWordsPerRow() * matrix.getHeight();
+
+			for (int written = 0; written < length; ) {
+				final int count = Math.min(length - written, BUFFER_SIZE / 8);
+				buffer.clear();
+				buffer.asLongBuffer().put(words, written, count);
+				buffer.limit(8 * count);
+				writeFully(channel, buffer);
+				written += count;
+			}
+		}
+	}
+
+	private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package fuga.app.invaderdetector.components.loader;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.Matrix;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class used to keep compiled invader templates between detection runs, so invader files are loaded and compiled only once.
+ * Templates are keyed by file path and modification time, so a changed file is loaded again.
+ * Total estimated size of templates is bounded, least recently used templates are evicted first
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvaderTemplateCache {
+
+	private final DetectorProperties detectorProperties;
+
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long size;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Returns compiled template of invader file, loading and compiling it on cache miss
+	 * @param filePath String representing path to invader image file
+	 * @param loader Function loading invader matrix from file path
+	 * @return InvaderTemplate object
+	 */
+	public synchronized InvaderTemplate get(final String filePath, final Function<String, Matrix> loader) {
+		final long lastModified = new File(filePath).lastModified();
+		final Entry entry = entries.get(filePath);
+
+		if (entry != null && entry.lastModified == lastModified) {
+			hits++;
+			return entry.template;
+		}
+
+		misses++;
+		if (entry != null) {
+			remove(filePath);
+		}
+
+		final InvaderTemplate template = InvaderTemplate.of(loader.apply(filePath));
+		final long templateSize = template.estimateSize();
+
+		//Missing files (modification time 0) and templates larger than the whole cache are not kept
+		if (lastModified != 0 && templateSize <= detectorProperties.getInvaderCacheMaximumSize()) {
+			entries.put(filePath, new Entry(template, lastModified, templateSize));
+			size += templateSize;
+			evict();
+		}
+
+		return template;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return Estimated number of bytes taken by cached templates
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "invader cache hits: " + hits + ", misses: " + misses + ", evictions: " + evictions + ", templates: " + entries.size();
+	}
+
+	private void evict() {
+		final Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+
+		while (size > detectorProperties.getInvaderCacheMaximumSize() && iterator.hasNext()) {
+			final Map.Entry<String, Entry> eldest = iterator.next();
+			log.debug("Evicting invader template: {}", eldest.getKey());
+			size -= eldest.getValue().size;
+			iterator.remove();
+			evictions++;
+		}
+	}
+
+	private void remove(final String filePath) {
+		size -= entries.remove(filePath).size;
+	}
+
+	/**
+	 * Cached template with modification time of the file it is loaded from
+	 */
+	@RequiredArgsConstructor
+	private static class Entry {
+		private final InvaderTemplate template;
+		private final long lastModified;
+		private final long size;
+	}
+}
@@ -0,0 +1,80 @@
+package fuga.app.invaderdetector.components.loader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.model.PackedMatrix;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class used to load large image files (radar) directly into bit-packed matrix.
+ * File is memory-mapped and parsed byte by byte, without building intermediate Strings or char arrays
+ */
+@Component
+@Slf4j
+public class MappedMatrixLoader {
+
+	private static final long MAX_REGION_SIZE = 1L << 30;
+
+	/**
+	 * Load file by given file path into bit-packed matrix
+	 * @param filePath String representing base location of image
+	 * @return PackedMatrix object, empty matrix if file can not be read
+	 */
+	public PackedMatrix load(final String filePath) {
+
+		try {
+			return read(filePath);
+		} catch (IOException e) {
+			log.error("Error while reading file: {}", filePath);
+		}
+
+		return new PackedMatrix(0, 0);
+	}
+
+	/**
+	 * Load file by given file path into bit-packed matrix
+	 * @param filePath String representing base location of image
+	 * @return PackedMatrix object
+	 * @throws IOException If file can not be read
+	 */
+	public PackedMatrix read(final String filePath) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(new File(filePath).toPath(), StandardOpenOption.READ)) {
+			log.info("Loading file: {} ({} bytes)", filePath, channel.size());
+
+			final PackedLineParser dimensions = new PackedLineParser();
+			scan(channel, dimensions);
+
+			final PackedMatrix matrix = new PackedMatrix(dimensions.getWidth(), dimensions.getRow());
+			final PackedLineParser parser = new PackedLineParser();
+			parser.setTarget(matrix, 0);
+			scan(channel, parser);
+			return matrix;
+		}
+	}
+
+	/**
+	 * Passes all bytes of the file to the parser, mapping file region by region
+	 * @param channel File channel
+	 * @param parser Line parser
+	 * @throws IOException If file can not be mapped
+	 */
+	private static void scan(final FileChannel channel, final PackedLineParser parser) throws IOException {
+		final long size = channel.size();
+
+		for (long position = 0; position < size; position += MAX_REGION_SIZE) {
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_REGION_SIZE, size - position));
+			while (buffer.hasRemaining()) {
+				parser.accept(buffer.get());
+			}
+		}
+
+		parser.finish();
+	}
+}
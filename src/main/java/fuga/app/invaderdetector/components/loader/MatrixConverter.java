@@ -0,0 +1,65 @@
+package fuga.app.invaderdetector.components.loader;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.model.PackedMatrix;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class used to convert image files between text and binary format. Text image is converted to binary and binary image to text
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MatrixConverter {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final byte MATCHING_CHAR = 'o';
+	private static final byte EMPTY_CHAR = '-';
+	private static final byte LINE_FEED = '\n';
+
+	private final MappedMatrixLoader mappedMatrixLoader;
+	private final BinaryMatrixLoader binaryMatrixLoader;
+	private final BinaryMatrixWriter binaryMatrixWriter;
+
+	/**
+	 * Converts image file into the other format
+	 * @param inputFilePath String representing location of image in text or binary format
+	 * @param outputFilePath String representing location of converted image, existing file is replaced
+	 * @throws IOException If input image can not be read or converted image can not be written
+	 */
+	public void convert(final String inputFilePath, final String outputFilePath) throws IOException {
+		if (binaryMatrixLoader.isBinary(inputFilePath)) {
+			final PackedMatrix matrix = binaryMatrixLoader.read(inputFilePath);
+			writeText(matrix, outputFilePath);
+			log.info("Converted binary image {} to text image {}, {}x{}", inputFilePath, outputFilePath, matrix.getWidth(), matrix.getHeight());
+		} else {
+			final PackedMatrix matrix = mappedMatrixLoader.read(inputFilePath);
+			binaryMatrixWriter.write(matrix, outputFilePath);
+			log.info("Converted text image {} to binary image {}, {}x{}", inputFilePath, outputFilePath, matrix.getWidth(), matrix.getHeight());
+		}
+	}
+
+	/**
+	 * Writes matrix as text image, one line per row, 'o' for set cells and '-' for the others
+	 */
+	private void writeText(final PackedMatrix matrix, final String outputFilePath) throws IOException {
+		final byte[] line = new byte[matrix.getWidth() + 1];
+		line[matrix.getWidth()] = LINE_FEED;
+
+		try (OutputStream output = new BufferedOutputStream(new FileOutputStream(outputFilePath), BUFFER_SIZE)) {
+			for (int i = 0; i < matrix.getHeight(); i++) {
+				for (int j = 0; j < matrix.getWidth(); j++) {
+					line[j] = matrix.get(i, j) ? MATCHING_CHAR : EMPTY_CHAR;
+				}
+				output.write(line);
+			}
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package fuga.app.invaderdetector.components.loader;
+
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+/**
+ * Class used to split image file bytes into lines and set 'o' characters of each line in bit-packed matrix.
+ * Lines are split the same way as by Files.readAllLines. Without target matrix it only measures width of the first line and counts lines.
+ * Characters beyond width of the first line are ignored
+ */
+class PackedLineParser {
+
+	private static final byte MATCHING_CHAR = 'o';
+	private static final byte LINE_FEED = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+
+	private PackedMatrix target;
+
+	private int width = -1;
+	private int row;
+	private int column;
+	private long word;
+	private boolean lineStarted;
+	private boolean carriageReturn;
+
+	/**
+	 * Sets matrix into which following lines are parsed
+	 * @param target Bit-packed matrix of image width
+	 * @param row Row of matrix into which the next line is parsed
+	 */
+	void setTarget(final PackedMatrix target, final int row) {
+		this.target = target;
+		this.width = target.getWidth();
+		this.row = row;
+	}
+
+	/**
+	 * @param value Next byte of image file
+	 * @return True if the byte ended a line
+	 */
+	boolean accept(final byte value) {
+		if (value == LINE_FEED && carriageReturn) {
+			//Second byte of "\r\n" line terminator
+			carriageReturn = false;
+			return false;
+		}
+
+		carriageReturn = value == CARRIAGE_RETURN;
+
+		if (value == LINE_FEED || value == CARRIAGE_RETURN) {
+			endLine();
+			return true;
+		}
+
+		lineStarted = true;
+
+		if (width < 0 || column < width) {
+			if (value == MATCHING_CHAR) {
+				word |= 1L << column;
+			}
+			column++;
+
+			if ((column & 63) == 0) {
+				flushWord();
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Ends the last line of image file, if it is not terminated
+	 * @return True if there was such line
+	 */
+	boolean finish() {
+		if (lineStarted) {
+			endLine();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return Width of the first line, 0 if there are no lines
+	 */
+	int getWidth() {
+		return Math.max(width, 0);
+	}
+
+	/**
+	 * @return Row into which the next line is parsed, i.e. number of lines parsed since target was set
+	 */
+	int getRow() {
+		return row;
+	}
+
+	private void endLine() {
+		if (width < 0) {
+			width = column;
+		}
+		if ((column & 63) != 0) {
+			flushWord();
+		}
+
+		row++;
+		column = 0;
+		lineStarted = false;
+	}
+
+	private void flushWord() {
+		if (target != null && word != 0) {
+			target.getWords()[row * target.getWordsPerRow() + ((column - 1) >>> 6)] = word;
+		}
+		word = 0;
+	}
+}
@@ -0,0 +1,144 @@
+package fuga.app.invaderdetector.components.loader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+/**
+ * Class used to read image file (radar) row by row into bit-packed matrix.
+ * Only a small read buffer is held in memory, so files larger than heap can be read in bands of rows.
+ * Files in binary format (see {@link BinaryMatrixFormat}) are read word by word, text files are parsed line by line
+ */
+public class PackedRowReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final PackedLineParser parser = new PackedLineParser();
+	private final int width;
+	private final boolean binary;
+
+	private boolean finished;
+	private int remainingRows;
+
+	/**
+	 * Opens file and measures width of image, the length of its first line
+	 * @param filePath String representing base location of image
+	 * @throws IOException If file can not be read
+	 */
+	public PackedRowReader(final String filePath) throws IOException {
+		this.channel = FileChannel.open(new File(filePath).toPath(), StandardOpenOption.READ);
+		this.binary = BinaryMatrixFormat.isBinary(filePath);
+
+		if (binary) {
+			final int[] size = BinaryMatrixFormat.readHeader(channel);
+			this.width = size[0];
+			this.remainingRows = size[1];
+			buffer.order(BinaryMatrixFormat.BYTE_ORDER).clear().limit(0);
+			return;
+		}
+
+		final PackedLineParser dimensions = new PackedLineParser();
+		boolean lineEnded = false;
+
+		while (!lineEnded && fill()) {
+			while (!lineEnded && buffer.hasRemaining()) {
+				lineEnded = dimensions.accept(buffer.get());
+			}
+		}
+		dimensions.finish();
+
+		this.width = dimensions.getWidth();
+		this.finished = false;
+		channel.position(0);
+		buffer.clear().limit(0);
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Reads next rows of image into matrix, until the matrix is full or the file ends. Previous content of filled rows is cleared
+	 * @param target Bit-packed matrix of image width
+	 * @param fromRow First row of matrix to fill
+	 * @return Number of rows read, 0 if the file has ended
+	 * @throws IOException If file can not be read
+	 */
+	public int read(final PackedMatrix target, final int fromRow) throws IOException {
+		Arrays.fill(target.getWords(), fromRow * target.getWordsPerRow(), target.getHeight() * target.getWordsPerRow(), 0L);
+		if (binary) {
+			return readBinary(target, fromRow);
+		}
+
+		parser.setTarget(target, fromRow);
+
+		while (parser.getRow() < target.getHeight()) {
+			if (!buffer.hasRemaining() && !fill()) {
+				parser.finish();
+				break;
+			}
+			parser.accept(buffer.get());
+		}
+
+		return parser.getRow() - fromRow;
+	}
+
+	private int readBinary(final PackedMatrix target, final int fromRow) throws IOException {
+		final int rows = Math.min(target.getHeight() - fromRow, remainingRows);
+		final long[] words = target.getWords();
+		final int end = (fromRow + rows) * target.getWordsPerRow();
+
+		int index = fromRow * target.getWordsPerRow();
+		while (index < end) {
+			if (buffer.remaining() >= 8) {
+				words[index++] = buffer.getLong();
+				continue;
+			}
+
+			buffer.compact();
+			final int read = channel.read(buffer);
+			buffer.flip();
+			if (read < 0 && buffer.remaining() < 8) {
+				throw new IOException("Binary image is incomplete");
+			}
+		}
+
+		BinaryMatrixFormat.clearPadding(target, fromRow, fromRow + rows);
+		remainingRows -= rows;
+		return rows;
+	}
+
+	/**
+	 * Reads next chunk of the file into buffer
+	 * @return False if the file has ended
+	 * @throws IOException If file can not be read
+	 */
+	private boolean fill() throws IOException {
+		while (!finished) {
+			buffer.clear();
+			if (channel.read(buffer) < 0) {
+				finished = true;
+			}
+			buffer.flip();
+
+			if (buffer.hasRemaining()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
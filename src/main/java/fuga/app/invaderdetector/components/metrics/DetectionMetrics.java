@@ -0,0 +1,131 @@
+package fuga.app.invaderdetector.components.metrics;
+
+import java.io.File;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.DetectionStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Class used to record metrics of detection process: latency of each stage and counts of scored sub-matrices, matches and bytes read.
+ * Metrics are registered in application meter registry, which is exposed through JMX by the metrics endpoint
+ */
+@Component
+public class DetectionMetrics {
+
+	public static final String STAGE_DURATION = "invaderdetector.stage.duration";
+	public static final String WINDOWS_SCORED = "invaderdetector.windows.scored";
+	public static final String WINDOWS_PRUNED = "invaderdetector.windows.pruned";
+	public static final String WINDOWS_REUSED = "invaderdetector.windows.reused";
+	public static final String MATCHES = "invaderdetector.matches";
+	public static final String BYTES_READ = "invaderdetector.bytes.read";
+
+	/**
+	 * Stage of detection process
+	 */
+	public enum Stage {
+		/**
+		 * Reading image files, including parsing when files are loaded directly into bit-packed matrix
+		 */
+		LOAD,
+		/**
+		 * Transforming lines of image file into matrix
+		 */
+		TRANSFORM,
+		/**
+		 * Comparing invaders with radar image, in streaming mode including reading of radar image
+		 */
+		DETECT,
+		/**
+		 * Printing results or writing them to result sink
+		 */
+		PRINT
+	}
+
+	private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+	private final Counter windowsScored;
+	private final Counter windowsPruned;
+	private final Counter windowsReused;
+	private final Counter matches;
+	private final Counter bytesRead;
+
+	public DetectionMetrics(final MeterRegistry meterRegistry) {
+		for (Stage stage : Stage.values()) {
+			stageTimers.put(stage, Timer.builder(STAGE_DURATION)
+				.description("Duration of detection stage")
+				.tag("stage", stage.name().toLowerCase())
+				.publishPercentileHistogram()
+				.register(meterRegistry));
+		}
+
+		windowsScored = Counter.builder(WINDOWS_SCORED).description("Radar sub-matrices compared with invader").register(meterRegistry);
+		windowsPruned = Counter.builder(WINDOWS_PRUNED).description("Radar sub-matrices rejected without comparison").register(meterRegistry);
+		windowsReused = Counter.builder(WINDOWS_REUSED).description("Radar sub-matrices whose result is taken from previous frame").register(meterRegistry);
+		matches = Counter.builder(MATCHES).description("Detection results reported").register(meterRegistry);
+		bytesRead = Counter.builder(BYTES_READ).baseUnit("bytes").description("Bytes of image files read").register(meterRegistry);
+	}
+
+	/**
+	 * Runs stage work and records its duration
+	 * @param stage Stage of detection process
+	 * @param work Work of the stage
+	 * @return Result of the work
+	 */
+	public <T> T record(final Stage stage, final Supplier<T> work) {
+		return stageTimers.get(stage).record(work);
+	}
+
+	/**
+	 * Runs stage work and records its duration
+	 * @param stage Stage of detection process
+	 * @param work Work of the stage
+	 */
+	public void record(final Stage stage, final Runnable work) {
+		stageTimers.get(stage).record(work);
+	}
+
+	/**
+	 * Records duration of stage work which can not be passed as a function, for example because it throws checked exception
+	 * @param stage Stage of detection process
+	 * @param startTime Value of {@link System#nanoTime()} when the work started
+	 */
+	public void recordSince(final Stage stage, final long startTime) {
+		stageTimers.get(stage).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @param statistics Statistics of finished detection process
+	 */
+	public void record(final DetectionStatistics statistics) {
+		windowsScored.increment(statistics.getWindowsScored());
+		windowsPruned.increment(statistics.getWindowsPruned());
+		windowsReused.increment(statistics.getWindowsReused());
+	}
+
+	/**
+	 * @param detectionResults Lists of reported DetectionResult objects
+	 */
+	public void recordMatches(final List<List<DetectionResult>> detectionResults) {
+		matches.increment(detectionResults.stream().mapToInt(List::size).sum());
+	}
+
+	public void recordMatch() {
+		matches.increment();
+	}
+
+	/**
+	 * @param filePath String representing location of image file read as a whole
+	 */
+	public void recordBytesRead(final String filePath) {
+		bytesRead.increment(new File(filePath).length());
+	}
+}
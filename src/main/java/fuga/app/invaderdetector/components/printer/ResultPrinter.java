@@ -1,16 +1,27 @@
 package fuga.app.invaderdetector.components.printer;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.List;
 
 import org.springframework.stereotype.Component;
 
+import fuga.app.invaderdetector.config.DetectorProperties;
 import fuga.app.invaderdetector.model.DetectionResult;
 import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 /**
- * Class used to print detection process results
+ * Class used to print detection process results.
+ * Output is rendered into a buffered writer, and colour codes are written only where colour of printed characters changes
  */
 @Component
+@RequiredArgsConstructor
+@Slf4j
 public class ResultPrinter {
 
 	private static final String ANSI_YELLOW = "\u001B[33m";
@@ -18,6 +29,11 @@ public class ResultPrinter {
 	private static final String ANSI_RESET = "\u001B[0m";
 	private static final String ANSI_CYAN = "\u001B[36m";
 
+	private static final String SEPARATOR = "~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~";
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final DetectorProperties detectorProperties;
+
 	/**
 	 * Printing results to console output
 	 * @param detectionResults List of results of detection process
@@ -25,37 +41,150 @@ public class ResultPrinter {
 	 * @param invaderMatrix, Space Invader Matrix, loaded from invader image file
 	 */
 	public void print(final List<DetectionResult> detectionResults, final Matrix radarMatrix, final Matrix invaderMatrix) {
+		print(detectionResults, radarMatrix.getHeight(), radarMatrix.getWidth(), (i, j) -> radarMatrix.getElements()[i][j], invaderMatrix);
+	}
+
+	/**
+	 * Printing results to console output
+	 * @param detectionResults List of results of detection process
+	 * @param radarMatrix Bit-packed radar Matrix, loaded from radar image file
+	 * @param invaderMatrix, Space Invader Matrix, loaded from invader image file
+	 */
+	public void print(final List<DetectionResult> detectionResults, final PackedMatrix radarMatrix, final Matrix invaderMatrix) {
+		print(detectionResults, radarMatrix.getHeight(), radarMatrix.getWidth(), (i, j) -> radarMatrix.get(i, j) ? 'o' : '-', invaderMatrix);
+	}
+
+	/**
+	 * Printing single result to console output, without radar image
+	 * @param invaderName Name of detected invader
+	 * @param detectionResult Result of detection process
+	 */
+	public void print(final String invaderName, final DetectionResult detectionResult) {
+		System.out.println(ANSI_CYAN + "Invader: " + invaderName + ANSI_RESET + detectionResult);
+	}
 
-		System.out.println();
-		System.out.println(ANSI_CYAN + "Space invader image:");
-		for (int i = 0; i < invaderMatrix.getHeight(); i++) {
-			System.out.println();
-			for (int j = 0; j < invaderMatrix.getWidth(); j++) {
-				System.out.print(ANSI_RESET + invaderMatrix.getElements()[i][j]);
+	private void print(final List<DetectionResult> detectionResults, final int radarHeight, final int radarWidth, final RadarCells radarCells,
+					   final Matrix invaderMatrix) {
+
+		final ColourWriter writer = new ColourWriter(new BufferedWriter(new OutputStreamWriter(System.out), BUFFER_SIZE));
+
+		try {
+			writer.newLine();
+			writer.colour(ANSI_CYAN).write("Space invader image:").newLine();
+			writer.colour(ANSI_RESET);
+			for (int i = 0; i < invaderMatrix.getHeight(); i++) {
+				writer.newLine().write(invaderMatrix.getElements()[i], 0, invaderMatrix.getWidth());
 			}
-		}
-		System.out.println();
-		System.out.println();
-		System.out.println(ANSI_CYAN + "Matching results highlighted on radar image:");
-
-		detectionResults.forEach(detectionResult -> {
-			System.out.println(ANSI_RESET + detectionResult);
-			for (int i = 0; i < radarMatrix.getHeight(); i++) {
-				System.out.println();
-				for (int j = 0; j < radarMatrix.getWidth(); j++) {
-
-					if (i >= detectionResult.getRowStart() && i <= detectionResult.getRowEnd()
-						&& j >= detectionResult.getColumnStart() && j <= detectionResult.getColumnEnd()) {
-						System.out.print(ANSI_YELLOW + radarMatrix.getElements()[i][j]);
-					} else {
-						System.out.print(ANSI_WHITE + radarMatrix.getElements()[i][j]);
+			writer.newLine().newLine();
+			writer.colour(ANSI_CYAN).write("Matching results highlighted on radar image:").newLine();
+
+			if (detectorProperties.isOverlayResults()) {
+				//All results are highlighted on a single rendering of radar image
+				final PackedMatrix highlighted = new PackedMatrix(radarWidth, radarHeight);
+				for (DetectionResult detectionResult : detectionResults) {
+					writer.colour(ANSI_RESET).write(detectionResult.toString()).newLine();
+					//Sub-matrices of invaders partly outside radar image are highlighted only inside it
+					for (int i = Math.max(0, detectionResult.getRowStart()); i <= Math.min(radarHeight - 1, detectionResult.getRowEnd()); i++) {
+						for (int j = Math.max(0, detectionResult.getColumnStart()); j <= Math.min(radarWidth - 1, detectionResult.getColumnEnd()); j++) {
+							highlighted.set(i, j);
+						}
 					}
 				}
+				writeRadar(writer, radarHeight, radarWidth, radarCells, highlighted::get);
+				writer.newLine().newLine();
+				writer.colour(ANSI_RESET).write(SEPARATOR).newLine();
+			} else {
+				for (DetectionResult detectionResult : detectionResults) {
+					writer.colour(ANSI_RESET).write(detectionResult.toString()).newLine();
+					writeRadar(writer, radarHeight, radarWidth, radarCells, (i, j) ->
+						i >= detectionResult.getRowStart() && i <= detectionResult.getRowEnd()
+							&& j >= detectionResult.getColumnStart() && j <= detectionResult.getColumnEnd());
+					writer.newLine().newLine();
+					writer.colour(ANSI_RESET).write(SEPARATOR).newLine();
+				}
+			}
+
+			writer.flush();
+		} catch (IOException e) {
+			log.error("Error while printing results");
+		}
+	}
+
+	private void writeRadar(final ColourWriter writer, final int radarHeight, final int radarWidth, final RadarCells radarCells,
+							final Highlight highlight) throws IOException {
+		final char[] row = new char[radarWidth];
+
+		for (int i = 0; i < radarHeight; i++) {
+			writer.newLine();
+			for (int j = 0; j < radarWidth; j++) {
+				row[j] = radarCells.get(i, j);
+			}
+
+			//Characters of the same colour are written at once
+			int runStart = 0;
+			boolean runHighlighted = radarWidth > 0 && highlight.test(i, 0);
+			for (int j = 1; j <= radarWidth; j++) {
+				final boolean cellHighlighted = j < radarWidth && highlight.test(i, j);
+				if (j == radarWidth || cellHighlighted != runHighlighted) {
+					writer.colour(runHighlighted ? ANSI_YELLOW : ANSI_WHITE).write(row, runStart, j - runStart);
+					runStart = j;
+					runHighlighted = cellHighlighted;
+				}
 			}
+		}
+	}
+
+	/**
+	 * Access to characters of radar image, regardless of how the radar matrix is stored
+	 */
+	private interface RadarCells {
+		char get(int row, int column);
+	}
+
+	/**
+	 * Decides whether radar cell belongs to a highlighted result
+	 */
+	private interface Highlight {
+		boolean test(int row, int column);
+	}
+
+	/**
+	 * Writer which remembers the last written colour code and skips codes that would not change colour
+	 */
+	private static class ColourWriter {
 
-			System.out.println();
-			System.out.println();
-			System.out.println(ANSI_RESET + "~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
-		});
+		private final Writer writer;
+		private String colour;
+
+		ColourWriter(final Writer writer) {
+			this.writer = writer;
+		}
+
+		ColourWriter colour(final String code) throws IOException {
+			if (!code.equals(colour)) {
+				writer.write(code);
+				colour = code;
+			}
+			return this;
+		}
+
+		ColourWriter write(final String text) throws IOException {
+			writer.write(text);
+			return this;
+		}
+
+		ColourWriter write(final char[] characters, final int offset, final int length) throws IOException {
+			writer.write(characters, offset, length);
+			return this;
+		}
+
+		ColourWriter newLine() throws IOException {
+			writer.write(System.lineSeparator());
+			return this;
+		}
+
+		void flush() throws IOException {
+			writer.flush();
+		}
 	}
 }
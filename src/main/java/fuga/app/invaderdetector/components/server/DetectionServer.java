@@ -0,0 +1,437 @@
+package fuga.app.invaderdetector.components.server;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.stereotype.Component;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import fuga.app.invaderdetector.components.detector.SpaceInvaderDetector;
+import fuga.app.invaderdetector.components.sink.JsonLinesResultSink;
+import fuga.app.invaderdetector.components.sink.ResultSink;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class used to serve detection of invaders on local HTTP endpoint, so detector stays loaded and warm between many small scans.
+ * <p>
+ * {@code POST /detect?percentage=80&invader=invader1&invader=invader2} detects invaders in radar image sent as request body,
+ * or in radar image file given by {@code radarPath} parameter instead of body. Without {@code invader} parameter all invaders are detected,
+ * optional {@code timeout} parameter overrides request timeout in milliseconds. Results are answered as JSON lines, one result per line.
+ * <p>
+ * Requests are detected by a fixed number of threads. Requests arriving when all threads are busy wait in a bounded queue,
+ * and are rejected with status 503 when the queue is full, so load above capacity is pushed back to clients instead of piling up.
+ * Capacity is checked before uploaded radar image is read, which is then packed row by row, so rejected requests cost no memory.
+ * <p>
+ * Detection does not check for interruption, so a request answered with status 504 keeps its thread and its place in capacity
+ * until detection finishes. Timeout bounds how long clients wait, not the load of the service
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DetectionServer {
+
+	static final String DETECT_PATH = "/detect";
+
+	private static final String UPLOAD_NAME = "upload";
+	private static final String JSON_LINES_TYPE = "application/x-ndjson";
+	private static final String JSON_TYPE = "application/json";
+
+	private static final byte MATCHING_CHAR = 'o';
+
+	//Set while rejected request is answered on dispatcher thread of HTTP server
+	private static final ThreadLocal<Boolean> REJECTING = new ThreadLocal<>();
+
+	private final SpaceInvaderDetector spaceInvaderDetector;
+	private final DetectorProperties detectorProperties;
+
+	private final Map<String, String> invaderPaths = new LinkedHashMap<>();
+	private HttpServer httpServer;
+	private ThreadPoolExecutor handlers;
+	private ThreadPoolExecutor workers;
+	private Semaphore admission;
+
+	/**
+	 * Starts detection service on loopback address and configured port
+	 * @param invaderFilePaths Strings representing paths to invader image files, invader ID is file name without extension
+	 * @return Address the service is bound to
+	 * @throws IOException If port can not be bound
+	 */
+	public synchronized InetSocketAddress start(final List<String> invaderFilePaths) throws IOException {
+		if (httpServer != null) {
+			throw new IllegalStateException("Detection service is already running");
+		}
+
+		invaderPaths.clear();
+		for (String invaderFilePath : invaderFilePaths) {
+			invaderPaths.put(invaderId(invaderFilePath), invaderFilePath);
+		}
+
+		final int threads = Math.max(1, detectorProperties.getServerThreads());
+		final int queueCapacity = Math.max(0, detectorProperties.getServerQueueCapacity());
+		final BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+		workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue);
+
+		//Permit is held by accepted request until its detection finishes, even if the request timed out
+		admission = new Semaphore(threads + queueCapacity);
+
+		//Every accepted request holds a handler thread while it waits for its result, one more thread is left to reject requests.
+		//Exchanges which do not fit into handler queue are answered with status 503 on dispatcher thread
+		final int handlerThreads = threads + queueCapacity + 1;
+		handlers = new ThreadPoolExecutor(handlerThreads, handlerThreads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(handlerThreads),
+			(exchange, executor) -> {
+				if (!executor.isShutdown()) {
+					REJECTING.set(Boolean.TRUE);
+					try {
+						exchange.run();
+					} finally {
+						REJECTING.remove();
+					}
+				}
+			});
+
+		httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), detectorProperties.getServerPort()), 0);
+		httpServer.createContext(DETECT_PATH, this::handle);
+		httpServer.setExecutor(handlers);
+		httpServer.start();
+
+		log.info("Detection service listening on {}, invaders {}, {} threads, queue capacity {}",
+			httpServer.getAddress(), invaderPaths.keySet(), threads, queueCapacity);
+		return httpServer.getAddress();
+	}
+
+	/**
+	 * Stops detection service, requests being processed are interrupted
+	 */
+	@PreDestroy
+	public synchronized void stop() {
+		if (httpServer == null) {
+			return;
+		}
+
+		httpServer.stop(0);
+		workers.shutdownNow();
+		handlers.shutdownNow();
+		httpServer = null;
+		log.info("Detection service stopped");
+	}
+
+	private void handle(final HttpExchange exchange) throws IOException {
+		try {
+			if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+				exchange.getResponseHeaders().set("Allow", "POST");
+				respondError(exchange, 405, "Method not allowed");
+				return;
+			}
+
+			final Map<String, List<String>> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+			final float requiredPercentage = parsePercentage(parameter(parameters, "percentage"));
+			final long timeout = parameter(parameters, "timeout") != null
+				? parseLong(parameter(parameters, "timeout"), "timeout")
+				: detectorProperties.getServerRequestTimeout();
+			final List<String> invaderIds = parameters.getOrDefault("invader", new ArrayList<>(invaderPaths.keySet()));
+			final List<String> invaderFilePaths = new ArrayList<>(invaderIds.size());
+			for (String invaderId : invaderIds) {
+				if (!invaderPaths.containsKey(invaderId)) {
+					throw new BadRequestException(404, "Unknown invader: " + invaderId);
+				}
+				invaderFilePaths.add(invaderPaths.get(invaderId));
+			}
+
+			final String radarPath = parameter(parameters, "radarPath");
+			if (radarPath != null && !new File(radarPath).isFile()) {
+				throw new BadRequestException(404, "Radar image not found: " + radarPath);
+			}
+			final String radarName = radarPath != null ? radarPath : UPLOAD_NAME;
+
+			//Capacity is checked before request body is read
+			if (REJECTING.get() != null || !admission.tryAcquire()) {
+				respondBusy(exchange);
+				return;
+			}
+
+			//From now on the permit is released by detection task, or here if the task is not submitted
+			final FutureTask<List<List<DetectionResult>>> task;
+			try {
+				final Callable<PackedMatrix> radar;
+				if (radarPath != null) {
+					radar = () -> spaceInvaderDetector.loadRadar(radarPath);
+				} else {
+					final PackedMatrix radarMatrix = readRadar(exchange);
+					radar = () -> radarMatrix;
+				}
+
+				task = new FutureTask<>(() -> {
+					try {
+						return spaceInvaderDetector.detect(invaderFilePaths, radar.call(), requiredPercentage);
+					} finally {
+						admission.release();
+					}
+				});
+				workers.execute(task);
+			} catch (RejectedExecutionException e) {
+				admission.release();
+				respondBusy(exchange);
+				return;
+			} catch (IOException | RuntimeException e) {
+				admission.release();
+				throw e;
+			}
+
+			final List<List<DetectionResult>> detectionResults;
+			try {
+				detectionResults = task.get(timeout, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				withdraw(task);
+				respondError(exchange, 504, "Detection did not finish in " + timeout + " ms");
+				return;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				withdraw(task);
+				respondError(exchange, 503, "Detection service is stopping");
+				return;
+			} catch (ExecutionException e) {
+				log.error("Error while detecting invaders in radar image: {}", radarName, e.getCause());
+				respondError(exchange, 500, "Detection failed");
+				return;
+			}
+
+			respond(exchange, 200, JSON_LINES_TYPE, results(radarName, invaderIds, detectionResults));
+		} catch (BadRequestException e) {
+			respondError(exchange, e.status, e.getMessage());
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Removes task from queue if it has not started yet. Running task is left to finish, as detection does not check for interruption
+	 */
+	private void withdraw(final FutureTask<?> task) {
+		if (workers.remove(task)) {
+			admission.release();
+		}
+	}
+
+	/**
+	 * Parses uploaded radar image in text format, lines of 'o' and '-' characters of equal length.
+	 * Lines are packed one by one as they are read, so only bit-packed rows are kept in memory
+	 */
+	private PackedMatrix readRadar(final HttpExchange exchange) throws IOException {
+		final long maximumSize = detectorProperties.getServerMaximumUploadSize();
+		long[] words = new long[0];
+		int width = -1;
+		int height = 0;
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new LimitedInputStream(exchange.getRequestBody(), maximumSize),
+			StandardCharsets.US_ASCII))) {
+			for (String row = reader.readLine(); row != null; row = reader.readLine()) {
+				if (row.isEmpty()) {
+					continue;
+				}
+				if (width < 0) {
+					width = row.length();
+				} else if (row.length() != width) {
+					throw new BadRequestException(400, "Radar image rows are not of equal length");
+				}
+
+				final int wordsPerRow = (width + 63) >>> 6;
+				if ((height + 1) * wordsPerRow > words.length) {
+					words = Arrays.copyOf(words, Math.max(wordsPerRow, 2 * words.length));
+				}
+				for (int j = 0; j < width; j++) {
+					if (row.charAt(j) == MATCHING_CHAR) {
+						words[height * wordsPerRow + (j >>> 6)] |= 1L << j;
+					}
+				}
+				height++;
+			}
+		}
+
+		if (height == 0) {
+			throw new BadRequestException(400, "Radar image is empty");
+		}
+
+		final PackedMatrix radarMatrix = new PackedMatrix(width, height);
+		System.arraycopy(words, 0, radarMatrix.getWords(), 0, radarMatrix.getWords().length);
+		return radarMatrix;
+	}
+
+	private String results(final String radarName, final List<String> invaderIds, final List<List<DetectionResult>> detectionResults) throws IOException {
+		final StringWriter writer = new StringWriter();
+		final ResultSink resultSink = new JsonLinesResultSink(writer);
+
+		for (int index = 0; index < invaderIds.size(); index++) {
+			for (DetectionResult detectionResult : detectionResults.get(index)) {
+				resultSink.write(radarName, invaderIds.get(index), detectionResult);
+			}
+		}
+
+		return writer.toString();
+	}
+
+	private void respondBusy(final HttpExchange exchange) throws IOException {
+		exchange.getResponseHeaders().set("Retry-After", "1");
+		respondError(exchange, 503, "Detection service is busy");
+	}
+
+	private void respondError(final HttpExchange exchange, final int status, final String message) throws IOException {
+		respond(exchange, status, JSON_TYPE, "{\"error\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}\n");
+	}
+
+	private void respond(final HttpExchange exchange, final int status, final String contentType, final String body) throws IOException {
+		final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, bytes.length > 0 ? bytes.length : -1);
+
+		if (bytes.length > 0) {
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(bytes);
+			}
+		}
+	}
+
+	private float parsePercentage(final String value) {
+		if (value == null) {
+			throw new BadRequestException(400, "Missing parameter: percentage");
+		}
+
+		final float percentage;
+		try {
+			percentage = Float.parseFloat(value);
+		} catch (NumberFormatException e) {
+			throw new BadRequestException(400, "Invalid parameter: percentage");
+		}
+
+		if (percentage > 100.0f || percentage < 0.0f) {
+			throw new BadRequestException(400, "Invalid matching percentage");
+		}
+		return percentage;
+	}
+
+	private long parseLong(final String value, final String name) {
+		try {
+			final long number = Long.parseLong(value);
+			if (number > 0) {
+				return number;
+			}
+		} catch (NumberFormatException e) {
+			//Reported below
+		}
+		throw new BadRequestException(400, "Invalid parameter: " + name);
+	}
+
+	private String parameter(final Map<String, List<String>> parameters, final String name) {
+		final List<String> values = parameters.get(name);
+		return values == null ? null : values.get(0);
+	}
+
+	private Map<String, List<String>> parseQuery(final String query) throws UnsupportedEncodingException {
+		final Map<String, List<String>> parameters = new LinkedHashMap<>();
+		if (query == null || query.isEmpty()) {
+			return parameters;
+		}
+
+		for (String pair : query.split("&")) {
+			final int separator = pair.indexOf('=');
+			final String name = URLDecoder.decode(separator < 0 ? pair : pair.substring(0, separator), "UTF-8");
+			final String value = separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), "UTF-8");
+			parameters.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+		}
+		return parameters;
+	}
+
+	private static String invaderId(final String invaderFilePath) {
+		final String fileName = new File(invaderFilePath).getName();
+		final int extension = fileName.lastIndexOf('.');
+		return extension > 0 ? fileName.substring(0, extension) : fileName;
+	}
+
+	/**
+	 * Request body which is rejected with status 413 as soon as more than given number of bytes is read
+	 */
+	private static class LimitedInputStream extends FilterInputStream {
+
+		private final long maximumSize;
+		private long size;
+
+		LimitedInputStream(final InputStream input, final long maximumSize) {
+			super(input);
+			this.maximumSize = maximumSize;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final int value = super.read();
+			if (value >= 0) {
+				count(1);
+			}
+			return value;
+		}
+
+		@Override
+		public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+			final int read = super.read(buffer, offset, length);
+			if (read > 0) {
+				count(read);
+			}
+			return read;
+		}
+
+		private void count(final int read) {
+			size += read;
+			if (size > maximumSize) {
+				throw new BadRequestException(413, "Radar image is larger than " + maximumSize + " bytes");
+			}
+		}
+	}
+
+	/**
+	 * Request which can not be processed, answered with given status
+	 */
+	private static class BadRequestException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int status;
+
+		BadRequestException(final int status, final String message) {
+			super(message);
+			this.status = status;
+		}
+	}
+}
@@ -0,0 +1,481 @@
+package fuga.app.invaderdetector.components.shard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.system.ApplicationHome;
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.InvaderDetectorApplication;
+import fuga.app.invaderdetector.components.detector.SpaceInvaderDetector;
+import fuga.app.invaderdetector.components.filter.ResultFilter;
+import fuga.app.invaderdetector.components.metrics.DetectionMetrics;
+import fuga.app.invaderdetector.components.metrics.DetectionMetrics.Stage;
+import fuga.app.invaderdetector.components.printer.ResultPrinter;
+import fuga.app.invaderdetector.components.sink.ResultSink;
+import fuga.app.invaderdetector.components.sink.ResultSinkFactory;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.DetectionStatistics;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.InvaderVariants;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import fuga.app.invaderdetector.model.ResultCollector;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class used to detect invaders in radar image on multiple local worker processes, see {@link ShardWorker}.
+ * Radar matrix is split into shards of rows. Shard of sub-matrices starting in rows [from, to) holds radar rows [from, to + invaderHeight - 1),
+ * where invader height is the height of the tallest invader variant, so consecutive shards overlap by invader height - 1
+ * and every sub-matrix is detected in exactly one shard. The first shard reaching the last radar row takes all remaining rows,
+ * so sub-matrices overhanging bottom edge of radar matrix are detected in a single shard.
+ * Workers connect to coordinator on loopback address and take shards one by one. If a worker fails or does not answer in time,
+ * its process is stopped and replaced by a new one, and its shard is reassigned, until the shard has failed more than configured number of times.
+ * Results of all shards are moved to radar coordinates, merged and deduplicated
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ShardCoordinator {
+
+	private static final int SHARDS_PER_WORKER = 4;
+	private static final String WORKER_PORT_ARGUMENT = "--shardWorkerPort=";
+
+	private final SpaceInvaderDetector spaceInvaderDetector;
+	private final ResultPrinter resultPrinter;
+	private final ResultSinkFactory resultSinkFactory;
+	private final ResultFilter resultFilter;
+	private final DetectionMetrics detectionMetrics;
+	private final DetectorProperties detectorProperties;
+	private final ApplicationArguments applicationArguments;
+
+	/**
+	 * Detection of invaders in radar image on worker processes, results are printed or written to configured result sink
+	 * @param invaderFilePaths Strings representing paths to invader image files
+	 * @param radarFilePath String representing path to radar image file
+	 * @param requiredPercentage Minimum required match percentage
+	 * @throws IOException If worker processes can not be launched or results can not be written
+	 */
+	public void detect(final List<String> invaderFilePaths, final String radarFilePath, final float requiredPercentage) throws IOException {
+		if (!resultSinkFactory.isTextFormat()) {
+			try (ResultSink resultSink = resultSinkFactory.open()) {
+				final List<List<DetectionResult>> detectionResults = detect(invaderFilePaths, spaceInvaderDetector.loadRadar(radarFilePath), requiredPercentage);
+
+				final long startTime = System.nanoTime();
+				for (int index = 0; index < invaderFilePaths.size(); index++) {
+					for (DetectionResult detectionResult : detectionResults.get(index)) {
+						resultSink.write(radarFilePath, invaderFilePaths.get(index), detectionResult);
+					}
+				}
+				detectionMetrics.recordSince(Stage.PRINT, startTime);
+			}
+			return;
+		}
+
+		final PackedMatrix radarMatrix = spaceInvaderDetector.loadRadar(radarFilePath);
+		final List<InvaderTemplate> invaders = spaceInvaderDetector.loadInvaders(invaderFilePaths);
+		final List<List<DetectionResult>> detectionResults = detect(invaderFilePaths, radarMatrix, requiredPercentage);
+
+		detectionMetrics.record(Stage.PRINT, () -> {
+			for (int index = 0; index < invaders.size(); index++) {
+				resultPrinter.print(detectionResults.get(index), radarMatrix, invaders.get(index).getMatrix());
+			}
+		});
+	}
+
+	/**
+	 * Detection of invaders in radar matrix on worker processes, launched with the same class path and application arguments as this process
+	 * @param invaderFilePaths Strings representing paths to invader image files, readable by worker processes
+	 * @param radarMatrix Bit-packed radar matrix
+	 * @param requiredPercentage Minimum required match percentage
+	 * @return Lists of DetectionResult objects, ordered by row and column, one list per invader
+	 * @throws IOException If worker processes can not be launched
+	 */
+	public List<List<DetectionResult>> detect(final List<String> invaderFilePaths, final PackedMatrix radarMatrix, final float requiredPercentage) throws IOException {
+		final List<List<String>> workerCommands = new ArrayList<>();
+		for (int worker = 0; worker < Math.max(1, detectorProperties.getShardWorkers()); worker++) {
+			workerCommands.add(workerCommand());
+		}
+
+		return detect(invaderFilePaths, radarMatrix, requiredPercentage, workerCommands);
+	}
+
+	/**
+	 * Detection of invaders in radar matrix on worker processes launched with given commands. Coordinator port is appended to each command
+	 * @throws IOException If worker processes can not be launched
+	 * @throws IllegalStateException If a shard fails more than configured number of times, or all workers fail to start before all shards are detected
+	 */
+	List<List<DetectionResult>> detect(final List<String> invaderFilePaths, final PackedMatrix radarMatrix, final float requiredPercentage,
+									   final List<List<String>> workerCommands) throws IOException {
+		final List<InvaderTemplate> invaders = spaceInvaderDetector.loadInvaders(invaderFilePaths);
+		final List<Shard> shards = split(invaderFilePaths, invaders, radarMatrix, requiredPercentage, workerCommands.size());
+		final Dispatch dispatch = new Dispatch(shards, workerCommands.size(), detectorProperties.getShardRetries());
+		final ExecutorService executor = Executors.newFixedThreadPool(workerCommands.size());
+		final long startTime = System.nanoTime();
+
+		log.info("Start processing radar image in {} shards on {} workers", shards.size(), workerCommands.size());
+
+		try {
+			for (List<String> workerCommand : workerCommands) {
+				final Worker worker = dispatch.launch(workerCommand, timeout(detectorProperties.getShardWorkerStartTimeout()));
+				executor.execute(() -> runWorkers(worker, dispatch));
+			}
+
+			dispatch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+			dispatch.close();
+		}
+
+		if (dispatch.getFailedShard() != null) {
+			throw new IllegalStateException("Shard " + dispatch.getFailedShard().shardId + " failed on "
+				+ dispatch.getFailedShard().failures + " workers");
+		}
+		if (dispatch.getRemaining() > 0) {
+			throw new IllegalStateException("All shard workers failed, shards left: " + dispatch.getRemaining());
+		}
+
+		detectionMetrics.recordSince(Stage.DETECT, startTime);
+		detectionMetrics.record(dispatch.getStatistics());
+		log.info("Finished processing radar image, {}", dispatch.getStatistics());
+
+		final List<List<DetectionResult>> detectionResults = resultFilter.apply(merge(shards, invaders.size()));
+		detectionMetrics.recordMatches(detectionResults);
+		return detectionResults;
+	}
+
+	/**
+	 * @return Command launching worker process, configured one or the one of this application, with application arguments of this process
+	 */
+	List<String> workerCommand() {
+		final List<String> command = new ArrayList<>(detectorProperties.getShardWorkerCommand().isEmpty()
+			? applicationCommand(System.getProperty("java.class.path"), new ApplicationHome(InvaderDetectorApplication.class).getSource())
+			: detectorProperties.getShardWorkerCommand());
+		command.add("--spring.main.banner-mode=off");
+		command.add("--logging.level.root=WARN");
+
+		Arrays.stream(applicationArguments.getSourceArgs())
+			.filter(arg -> arg.startsWith("--") && !arg.startsWith("--shardWorkers=") && !arg.startsWith("--shardWorkerCommand=")
+				&& !arg.startsWith(WORKER_PORT_ARGUMENT))
+			.forEach(command::add);
+		return command;
+	}
+
+	/**
+	 * Application started with java -jar has only its jar on class path, and its classes can be loaded only by the launcher of the jar
+	 * @param classPath Class path of this process
+	 * @param applicationSource Jar file or directory application classes are loaded from
+	 * @return Command launching this application with Java runtime of this process
+	 */
+	static List<String> applicationCommand(final String classPath, final File applicationSource) {
+		final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		if (applicationSource != null && applicationSource.isFile() && new File(classPath).getAbsoluteFile().equals(applicationSource.getAbsoluteFile())) {
+			return Arrays.asList(java, "-jar", applicationSource.getPath());
+		}
+		return Arrays.asList(java, "-cp", classPath, InvaderDetectorApplication.class.getName());
+	}
+
+	private List<Shard> split(final List<String> invaderFilePaths, final List<InvaderTemplate> invaders, final PackedMatrix radarMatrix,
+							  final float requiredPercentage, final int workers) {
+		final int height = radarMatrix.getHeight();
+		//Workers detect invader variants as well, rotated ones can be taller than invader itself
+		final int overlap = Math.max(0, InvaderVariants.of(invaders, detectorProperties.getInvaderVariants()).getMaximumHeight() - 1);
+		final int shardRows = detectorProperties.getShardRows() > 0
+			? detectorProperties.getShardRows()
+			: Math.max(1, (height + workers * SHARDS_PER_WORKER - 1) / (workers * SHARDS_PER_WORKER));
+
+		final List<Shard> shards = new ArrayList<>();
+		int fromRow = 0;
+		while (fromRow < height) {
+			int toRow = Math.min(height, fromRow + shardRows);
+			if (toRow + overlap >= height) {
+				//Shard holding the last radar row takes all remaining rows, so it includes bottom edge of radar matrix
+				toRow = height;
+			}
+
+			final int shardId = shards.size();
+			final int shardFromRow = fromRow;
+			final int shardToRow = toRow;
+			//Radar rows are copied only when shard is sent, so radar matrix is not held twice while shards wait for workers
+			shards.add(new Shard(shardId, fromRow, () -> ShardRequest.builder()
+				.shardId(shardId)
+				.invaderFilePaths(invaderFilePaths)
+				.requiredPercentage(requiredPercentage)
+				.resultLimit(resultFilter.getDetectionLimit())
+				.rowLimit(shardToRow - shardFromRow)
+				.topEdge(shardFromRow == 0)
+				.radarMatrix(radarMatrix.rows(shardFromRow, Math.min(height, shardToRow + overlap)))
+				.build()));
+			fromRow = toRow;
+		}
+
+		return shards;
+	}
+
+	/**
+	 * Moves results of shards to radar coordinates. Results found in more than one shard are kept once
+	 */
+	private List<List<DetectionResult>> merge(final List<Shard> shards, final int invaderCount) {
+		final List<Set<DetectionResult>> merged = new ArrayList<>(invaderCount);
+		for (int index = 0; index < invaderCount; index++) {
+			merged.add(new LinkedHashSet<>());
+		}
+
+		for (Shard shard : shards) {
+			for (int index = 0; index < invaderCount; index++) {
+				for (DetectionResult result : shard.reply.getResults().get(index)) {
+					merged.get(index).add(result.shift(shard.fromRow, 0));
+				}
+			}
+		}
+
+		return merged.stream()
+			.map(results -> {
+				final List<DetectionResult> invaderResults = new ArrayList<>(results);
+				invaderResults.sort(ResultCollector.RESULT_ORDER);
+				return ResultCollector.limit(invaderResults, resultFilter.getDetectionLimit());
+			})
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Runs a worker, and a replacement process of each worker failed on a shard, as long as shards are left to detect
+	 */
+	private void runWorkers(final Worker firstWorker, final Dispatch dispatch) {
+		try {
+			Worker worker = firstWorker;
+			while (worker != null && runWorker(worker, dispatch)) {
+				worker = dispatch.launch(worker.command, timeout(detectorProperties.getShardWorkerStartTimeout()));
+			}
+		} catch (IOException e) {
+			log.warn("Replacement shard worker can not be launched: {}", e.toString());
+		} finally {
+			dispatch.workerFinished();
+		}
+	}
+
+	/**
+	 * Accepts connection of a worker and sends it shards until none is left. Process of failed worker is stopped and its shard is reassigned
+	 * @return True if worker failed on a shard and has to be replaced
+	 */
+	private boolean runWorker(final Worker worker, final Dispatch dispatch) {
+		try (Socket socket = worker.serverSocket.accept()) {
+			closeQuietly(worker.serverSocket);
+			socket.setSoTimeout(timeout(detectorProperties.getShardReplyTimeout()));
+			final DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+			Shard shard;
+			while ((shard = dispatch.next()) != null) {
+				try {
+					ShardProtocol.writeRequest(output, shard.request.get());
+					final ShardReply reply = ShardProtocol.readReply(input);
+					if (reply.getShardId() != shard.shardId) {
+						throw new IOException("Unexpected reply of shard " + reply.getShardId());
+					}
+					dispatch.complete(shard, reply);
+				} catch (IOException | IllegalArgumentException e) {
+					log.warn("Shard worker failed on shard {}: {}", shard.shardId, e.toString());
+					worker.stop();
+					dispatch.reassign(shard);
+					return true;
+				}
+			}
+
+			ShardProtocol.writeShutdown(output);
+		} catch (IOException e) {
+			//Workers still starting when all shards are detected are not needed any more
+			if (dispatch.getRemaining() > 0) {
+				log.warn("Shard worker is not available: {}", e.toString());
+			}
+			worker.stop();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return false;
+	}
+
+	private static int timeout(final long milliseconds) {
+		return (int) Math.min(Integer.MAX_VALUE, milliseconds);
+	}
+
+	private static void closeQuietly(final ServerSocket serverSocket) {
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			log.debug("Error while closing shard coordinator socket", e);
+		}
+	}
+
+	/**
+	 * Worker process with the port it connects to
+	 */
+	private static class Worker {
+
+		private final List<String> command;
+		private final ServerSocket serverSocket;
+		private final Process process;
+
+		private Worker(final List<String> command, final ServerSocket serverSocket, final Process process) {
+			this.command = command;
+			this.serverSocket = serverSocket;
+			this.process = process;
+		}
+
+		/**
+		 * Launches worker process with coordinator port appended to its command.
+		 * Every worker connects to its own port, so a failed connection is known to belong to its process
+		 */
+		static Worker launch(final List<String> command, final int startTimeout) throws IOException {
+			final ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+			try {
+				serverSocket.setSoTimeout(startTimeout);
+				final List<String> processCommand = new ArrayList<>(command);
+				processCommand.add(WORKER_PORT_ARGUMENT + serverSocket.getLocalPort());
+				return new Worker(command, serverSocket, new ProcessBuilder(processCommand).inheritIO().start());
+			} catch (IOException e) {
+				closeQuietly(serverSocket);
+				throw e;
+			}
+		}
+
+		void stop() {
+			closeQuietly(serverSocket);
+			process.destroy();
+		}
+	}
+
+	/**
+	 * Shard of radar matrix with its first row in radar matrix, and reply of worker once it is detected
+	 */
+	private static class Shard {
+
+		private final int shardId;
+		private final int fromRow;
+		private final Supplier<ShardRequest> request;
+		private ShardReply reply;
+		private int failures;
+
+		Shard(final int shardId, final int fromRow, final Supplier<ShardRequest> request) {
+			this.shardId = shardId;
+			this.fromRow = fromRow;
+			this.request = request;
+		}
+	}
+
+	/**
+	 * Queue of shards shared by workers, with launched worker processes. Coordinator waits until all shards are detected,
+	 * a shard fails too many times, or no worker is left
+	 */
+	private static class Dispatch {
+
+		private final Deque<Shard> pending;
+		private final List<Worker> launched = new ArrayList<>();
+		private final DetectionStatistics statistics = new DetectionStatistics();
+		private final int retries;
+		private int remaining;
+		private int workers;
+		private Shard failedShard;
+		private boolean closed;
+
+		Dispatch(final List<Shard> shards, final int workers, final int retries) {
+			this.pending = new ArrayDeque<>(shards);
+			this.remaining = shards.size();
+			this.workers = workers;
+			this.retries = retries;
+		}
+
+		/**
+		 * Launches worker process while detection is in progress, so no process is left behind once dispatch is closed
+		 * @return Launched worker, null if detection is finished
+		 */
+		synchronized Worker launch(final List<String> command, final int startTimeout) throws IOException {
+			if (closed || remaining == 0 || failedShard != null) {
+				return null;
+			}
+			final Worker worker = Worker.launch(command, startTimeout);
+			launched.add(worker);
+			return worker;
+		}
+
+		/**
+		 * @return Next shard to be detected, null if all shards are detected or a shard failed too many times
+		 */
+		synchronized Shard next() throws InterruptedException {
+			while (pending.isEmpty() && remaining > 0 && failedShard == null) {
+				wait();
+			}
+			return failedShard == null ? pending.poll() : null;
+		}
+
+		synchronized void complete(final Shard shard, final ShardReply reply) {
+			shard.reply = reply;
+			statistics.add(reply.getStatistics());
+			remaining--;
+			notifyAll();
+		}
+
+		synchronized void reassign(final Shard shard) {
+			shard.failures++;
+			if (shard.failures > retries) {
+				failedShard = shard;
+			} else {
+				pending.addFirst(shard);
+			}
+			notifyAll();
+		}
+
+		synchronized void workerFinished() {
+			workers--;
+			notifyAll();
+		}
+
+		synchronized void await() throws InterruptedException {
+			while (remaining > 0 && workers > 0 && failedShard == null) {
+				wait();
+			}
+		}
+
+		/**
+		 * Stops all launched workers, no worker is launched afterwards
+		 */
+		synchronized void close() {
+			closed = true;
+			launched.forEach(Worker::stop);
+		}
+
+		synchronized int getRemaining() {
+			return remaining;
+		}
+
+		synchronized Shard getFailedShard() {
+			return failedShard;
+		}
+
+		DetectionStatistics getStatistics() {
+			return statistics;
+		}
+	}
+}
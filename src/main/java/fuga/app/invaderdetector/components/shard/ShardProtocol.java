@@ -0,0 +1,143 @@
+package fuga.app.invaderdetector.components.shard;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.DetectionStatistics;
+import fuga.app.invaderdetector.model.InvaderVariant;
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+/**
+ * Class describes messages exchanged by shard coordinator and worker process over socket connection.
+ * Coordinator sends shard requests, each answered by a reply of worker, and a negative shard ID when there are no shards left.
+ * Radar rows are sent in bit-packed form of {@link PackedMatrix}, numbers in big-endian order of {@link DataOutputStream}
+ */
+final class ShardProtocol {
+
+	private static final int SHUTDOWN = -1;
+
+	private ShardProtocol() {
+	}
+
+	static void writeRequest(final DataOutputStream output, final ShardRequest request) throws IOException {
+		output.writeInt(request.getShardId());
+		output.writeInt(request.getInvaderFilePaths().size());
+		for (String invaderFilePath : request.getInvaderFilePaths()) {
+			output.writeUTF(invaderFilePath);
+		}
+		output.writeFloat(request.getRequiredPercentage());
+		output.writeInt(request.getResultLimit());
+		output.writeInt(request.getRowLimit());
+		output.writeBoolean(request.isTopEdge());
+
+		final PackedMatrix radarMatrix = request.getRadarMatrix();
+		output.writeInt(radarMatrix.getWidth());
+		output.writeInt(radarMatrix.getHeight());
+		for (long word : radarMatrix.getWords()) {
+			output.writeLong(word);
+		}
+		output.flush();
+	}
+
+	static void writeShutdown(final DataOutputStream output) throws IOException {
+		output.writeInt(SHUTDOWN);
+		output.flush();
+	}
+
+	/**
+	 * @return ShardRequest object, null if coordinator has no shards left
+	 * @throws IOException If connection is closed or request is incomplete
+	 */
+	static ShardRequest readRequest(final DataInputStream input) throws IOException {
+		final int shardId = input.readInt();
+		if (shardId == SHUTDOWN) {
+			return null;
+		}
+
+		final int invaderCount = input.readInt();
+		final List<String> invaderFilePaths = new ArrayList<>(invaderCount);
+		for (int index = 0; index < invaderCount; index++) {
+			invaderFilePaths.add(input.readUTF());
+		}
+
+		final ShardRequest.ShardRequestBuilder request = ShardRequest.builder()
+			.shardId(shardId)
+			.invaderFilePaths(invaderFilePaths)
+			.requiredPercentage(input.readFloat())
+			.resultLimit(input.readInt())
+			.rowLimit(input.readInt())
+			.topEdge(input.readBoolean());
+
+		final PackedMatrix radarMatrix = new PackedMatrix(input.readInt(), input.readInt());
+		final long[] words = radarMatrix.getWords();
+		for (int index = 0; index < words.length; index++) {
+			words[index] = input.readLong();
+		}
+
+		return request.radarMatrix(radarMatrix).build();
+	}
+
+	static void writeReply(final DataOutputStream output, final ShardReply reply) throws IOException {
+		output.writeInt(reply.getShardId());
+		output.writeInt(reply.getResults().size());
+
+		for (List<DetectionResult> invaderResults : reply.getResults()) {
+			output.writeInt(invaderResults.size());
+			for (DetectionResult result : invaderResults) {
+				output.writeInt(result.getRowStart());
+				output.writeInt(result.getColumnStart());
+				output.writeInt(result.getRowEnd() - result.getRowStart() + 1);
+				output.writeInt(result.getColumnEnd() - result.getColumnStart() + 1);
+				output.writeFloat(result.getMatchingPercentage());
+				output.writeInt(result.getNoise());
+				output.writeInt(result.getJunk());
+				output.writeUTF(result.getVariant().name());
+			}
+		}
+
+		output.writeLong(reply.getStatistics().getWindowsScored());
+		output.writeLong(reply.getStatistics().getWindowsPruned());
+		output.writeLong(reply.getStatistics().getWindowsReused());
+		output.flush();
+	}
+
+	/**
+	 * @return ShardReply object
+	 * @throws IOException If connection is closed or reply is incomplete
+	 */
+	static ShardReply readReply(final DataInputStream input) throws IOException {
+		final int shardId = input.readInt();
+		final int invaderCount = input.readInt();
+		final List<List<DetectionResult>> results = new ArrayList<>(invaderCount);
+
+		for (int index = 0; index < invaderCount; index++) {
+			final int resultCount = input.readInt();
+			final List<DetectionResult> invaderResults = new ArrayList<>(resultCount);
+
+			for (int count = 0; count < resultCount; count++) {
+				final int rowStart = input.readInt();
+				final int columnStart = input.readInt();
+				final int height = input.readInt();
+				final int width = input.readInt();
+				final float matchingPercentage = input.readFloat();
+				final int noise = input.readInt();
+				final int junk = input.readInt();
+				final InvaderVariant variant = InvaderVariant.valueOf(input.readUTF());
+
+				invaderResults.add(DetectionResult.of(rowStart, columnStart, height, width, matchingPercentage, noise, junk, variant));
+			}
+			results.add(invaderResults);
+		}
+
+		final DetectionStatistics statistics = new DetectionStatistics();
+		statistics.addWindowsScored(input.readLong());
+		statistics.addWindowsPruned(input.readLong());
+		statistics.addWindowsReused(input.readLong());
+
+		return ShardReply.builder().shardId(shardId).results(results).statistics(statistics).build();
+	}
+}
@@ -0,0 +1,20 @@
+package fuga.app.invaderdetector.components.shard;
+
+import java.util.List;
+
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.DetectionStatistics;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Class represents results of shard detected by worker process, coordinates are relative to the first row of shard
+ */
+@Data
+@Builder
+public class ShardReply {
+
+	private int shardId;
+	private List<List<DetectionResult>> results;
+	private DetectionStatistics statistics;
+}
@@ -0,0 +1,26 @@
+package fuga.app.invaderdetector.components.shard;
+
+import java.util.List;
+
+import fuga.app.invaderdetector.model.PackedMatrix;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Class represents shard of radar image sent to worker process, rows of radar matrix with settings of detection process
+ */
+@Data
+@Builder
+public class ShardRequest {
+
+	private int shardId;
+	private List<String> invaderFilePaths;
+	private float requiredPercentage;
+	private int resultLimit;
+
+	//Sub-matrices start only in the first rowLimit rows, remaining rows are read by sub-matrices starting above them
+	private int rowLimit;
+	private boolean topEdge;
+
+	private PackedMatrix radarMatrix;
+}
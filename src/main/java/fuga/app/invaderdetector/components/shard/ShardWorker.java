@@ -0,0 +1,70 @@
+package fuga.app.invaderdetector.components.shard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.components.detector.DetectionEngine;
+import fuga.app.invaderdetector.components.detector.SpaceInvaderDetector;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Class used to detect shards of radar image in worker process launched by {@link ShardCoordinator}.
+ * Worker connects to coordinator and detects shards it receives until coordinator has no shards left
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ShardWorker {
+
+	private final SpaceInvaderDetector spaceInvaderDetector;
+	private final DetectionEngine detectionEngine;
+	private final DetectorProperties detectorProperties;
+
+	/**
+	 * Connects to coordinator and detects its shards
+	 * @param port Port of coordinator on loopback address
+	 * @throws IOException If connection to coordinator fails
+	 */
+	public void serve(final int port) throws IOException {
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			final DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			log.info("Connected to shard coordinator on port {}", port);
+
+			ShardRequest request;
+			while ((request = ShardProtocol.readRequest(input)) != null) {
+				ShardProtocol.writeReply(output, detect(request));
+			}
+		}
+	}
+
+	/**
+	 * Detection of invaders in shard, results are relative to the first row of shard
+	 * @param request Shard of radar image
+	 * @return ShardReply object
+	 */
+	ShardReply detect(final ShardRequest request) {
+		final List<InvaderTemplate> invaders = spaceInvaderDetector.loadInvaders(request.getInvaderFilePaths());
+		final DetectionContext shardContext = (detectorProperties.isSummedAreaPruning()
+			? DetectionContext.withPruning(invaders, request.getRadarMatrix(), request.getRequiredPercentage())
+			: DetectionContext.of(invaders, request.getRadarMatrix(), request.getRequiredPercentage())).withRowLimit(request.getRowLimit());
+		final DetectionContext context = (request.isTopEdge() ? shardContext : shardContext.withoutTopEdge()).withResultLimit(request.getResultLimit());
+
+		final List<List<DetectionResult>> results = detectionEngine.process(context);
+		log.info("Finished processing shard {}, {}", request.getShardId(), context.getStatistics());
+		return ShardReply.builder().shardId(request.getShardId()).results(results).statistics(context.getStatistics()).build();
+	}
+}
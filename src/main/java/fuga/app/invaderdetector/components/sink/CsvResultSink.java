@@ -0,0 +1,64 @@
+package fuga.app.invaderdetector.components.sink;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import fuga.app.invaderdetector.model.DetectionResult;
+
+/**
+ * Class used to write detection results as CSV, with header line followed by one line per result
+ */
+public class CsvResultSink implements ResultSink {
+
+	private static final String HEADER = "radar,invader,rowStart,rowEnd,columnStart,columnEnd,matchingPercentage,noise,junk,variant\n";
+
+	private final Writer writer;
+
+	public CsvResultSink(final Writer writer) throws IOException {
+		this.writer = writer;
+		writer.write(HEADER);
+	}
+
+	@Override
+	public void write(final String radarName, final String invaderName, final DetectionResult detectionResult) throws IOException {
+		writeQuoted(radarName);
+		writer.write(',');
+		writeQuoted(invaderName);
+		writer.write(',');
+		writer.write(Integer.toString(detectionResult.getRowStart()));
+		writer.write(',');
+		writer.write(Integer.toString(detectionResult.getRowEnd()));
+		writer.write(',');
+		writer.write(Integer.toString(detectionResult.getColumnStart()));
+		writer.write(',');
+		writer.write(Integer.toString(detectionResult.getColumnEnd()));
+		writer.write(',');
+		writer.write(Float.toString(detectionResult.getMatchingPercentage()));
+		writer.write(',');
+		writer.write(Integer.toString(detectionResult.getNoise()));
+		writer.write(',');
+		writer.write(Integer.toString(detectionResult.getJunk()));
+		writer.write(',');
+		writer.write(detectionResult.getVariant().name());
+		writer.write('\n');
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	/**
+	 * Values containing separator, quote or line break are enclosed in quotes, with quotes doubled
+	 */
+	private void writeQuoted(final String value) throws IOException {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			writer.write(value);
+			return;
+		}
+
+		writer.write('"');
+		writer.write(value.replace("\"", "\"\""));
+		writer.write('"');
+	}
+}
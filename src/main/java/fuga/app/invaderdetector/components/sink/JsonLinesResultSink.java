@@ -0,0 +1,60 @@
+package fuga.app.invaderdetector.components.sink;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import fuga.app.invaderdetector.model.DetectionResult;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class used to write detection results as JSON lines, one JSON object per result
+ */
+@RequiredArgsConstructor
+public class JsonLinesResultSink implements ResultSink {
+
+	private final Writer writer;
+
+	@Override
+	public void write(final String radarName, final String invaderName, final DetectionResult detectionResult) throws IOException {
+		writer.write("{\"radar\":\"");
+		writeEscaped(radarName);
+		writer.write("\",\"invader\":\"");
+		writeEscaped(invaderName);
+		writer.write("\",\"rowStart\":");
+		writer.write(Integer.toString(detectionResult.getRowStart()));
+		writer.write(",\"rowEnd\":");
+		writer.write(Integer.toString(detectionResult.getRowEnd()));
+		writer.write(",\"columnStart\":");
+		writer.write(Integer.toString(detectionResult.getColumnStart()));
+		writer.write(",\"columnEnd\":");
+		writer.write(Integer.toString(detectionResult.getColumnEnd()));
+		writer.write(",\"matchingPercentage\":");
+		writer.write(Float.toString(detectionResult.getMatchingPercentage()));
+		writer.write(",\"noise\":");
+		writer.write(Integer.toString(detectionResult.getNoise()));
+		writer.write(",\"junk\":");
+		writer.write(Integer.toString(detectionResult.getJunk()));
+		writer.write(",\"variant\":\"");
+		writer.write(detectionResult.getVariant().name());
+		writer.write("\"}\n");
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	private void writeEscaped(final String value) throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			final char character = value.charAt(i);
+			if (character == '"' || character == '\\') {
+				writer.write('\\');
+				writer.write(character);
+			} else if (character < 0x20) {
+				writer.write(String.format("\\u%04x", (int) character));
+			} else {
+				writer.write(character);
+			}
+		}
+	}
+}
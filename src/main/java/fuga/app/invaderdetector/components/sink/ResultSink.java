@@ -0,0 +1,20 @@
+package fuga.app.invaderdetector.components.sink;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import fuga.app.invaderdetector.model.DetectionResult;
+
+/**
+ * Receives detection results as they are produced and writes them to output
+ */
+public interface ResultSink extends Closeable {
+
+	/**
+	 * @param radarName Name of radar image in which invader is detected
+	 * @param invaderName Name of detected invader
+	 * @param detectionResult Result of detection process
+	 * @throws IOException If result can not be written
+	 */
+	void write(String radarName, String invaderName, DetectionResult detectionResult) throws IOException;
+}
@@ -0,0 +1,71 @@
+package fuga.app.invaderdetector.components.sink;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class used to open result sink of format and location configured in application.properties
+ */
+@Component
+@RequiredArgsConstructor
+public class ResultSinkFactory {
+
+	public static final String TEXT_FORMAT = "text";
+	public static final String JSON_LINES_FORMAT = "jsonl";
+	public static final String CSV_FORMAT = "csv";
+
+	private final DetectorProperties detectorProperties;
+
+	/**
+	 * @return True if results of single radar image are printed to console as coloured text, instead of being written to result sink
+	 */
+	public boolean isTextFormat() {
+		return TEXT_FORMAT.equalsIgnoreCase(detectorProperties.getResultFormat());
+	}
+
+	/**
+	 * Opens result sink of configured format, writing into configured file or console output
+	 * @return ResultSink object, which has to be closed after the last result
+	 * @throws IOException If output file can not be opened
+	 */
+	public ResultSink open() throws IOException {
+		final String format = detectorProperties.getResultFormat();
+
+		if (JSON_LINES_FORMAT.equalsIgnoreCase(format)) {
+			return new JsonLinesResultSink(openWriter());
+		} else if (CSV_FORMAT.equalsIgnoreCase(format)) {
+			return new CsvResultSink(openWriter());
+		} else if (TEXT_FORMAT.equalsIgnoreCase(format)) {
+			return new TextResultSink(openWriter());
+		}
+
+		throw new IllegalArgumentException("Unsupported result format: " + format);
+	}
+
+	private Writer openWriter() throws IOException {
+		final String outputPath = detectorProperties.getResultOutputPath();
+
+		if (outputPath == null || outputPath.isEmpty()) {
+			//Console output stays open after the sink is closed
+			return new FilterWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+				@Override
+				public void close() throws IOException {
+					flush();
+				}
+			};
+		}
+
+		return Files.newBufferedWriter(new File(outputPath).toPath(), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,31 @@
+package fuga.app.invaderdetector.components.sink;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import fuga.app.invaderdetector.model.DetectionResult;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Class used to write detection results as plain text, in the same form as printed in streaming mode, without radar image
+ */
+@RequiredArgsConstructor
+public class TextResultSink implements ResultSink {
+
+	private final Writer writer;
+
+	@Override
+	public void write(final String radarName, final String invaderName, final DetectionResult detectionResult) throws IOException {
+		writer.write("Radar: ");
+		writer.write(radarName);
+		writer.write("\nInvader: ");
+		writer.write(invaderName);
+		writer.write(detectionResult.toString());
+		writer.write('\n');
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+}
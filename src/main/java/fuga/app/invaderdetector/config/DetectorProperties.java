@@ -0,0 +1,242 @@
+package fuga.app.invaderdetector.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import fuga.app.invaderdetector.model.InvaderVariant;
+import lombok.Data;
+
+/**
+ * Class holds detection process settings, loaded from application.properties
+ */
+@Component
+@ConfigurationProperties
+@Data
+public class DetectorProperties {
+
+	/**
+	 * Number of threads used to scan radar image. Value 1 scans radar on calling thread, value 0 uses all available processors
+	 */
+	private int parallelism = 1;
+
+	/**
+	 * Skip radar sub-matrices which do not contain enough 'o' characters to reach required percentage, using summed-area table of radar image
+	 */
+	private boolean summedAreaPruning = true;
+
+	/**
+	 * Invaders with area (width * height) of at least this value are detected with cross-correlation instead of direct comparison. Value 0 disables cross-correlation
+	 */
+	private int fftMinimumInvaderArea = 16384;
+
+	/**
+	 * Number of coarse radar levels of coarse-to-fine search, each halving resolution of the previous one.
+	 * Suited for large and sparse radar images, results are the same as of exhaustive scan. Value 0 disables coarse-to-fine search
+	 */
+	private int pyramidLevels = 0;
+
+	/**
+	 * Radar image files of at least this size in bytes are memory-mapped and loaded directly into bit-packed matrix
+	 */
+	private long mappedLoaderMinimumFileSize = 16777216;
+
+	/**
+	 * Path to image file converted between text and binary format instead of detection. If empty, no conversion is done
+	 */
+	private String convertInputPath = "";
+
+	/**
+	 * Path to which converted image file is written
+	 */
+	private String convertOutputPath = "";
+
+	/**
+	 * Read radar image in bands of rows instead of loading it into memory, results are printed as soon as each band is processed
+	 */
+	private boolean streaming = false;
+
+	/**
+	 * Number of radar rows read at once in streaming mode, in addition to rows overlapping with the previous band
+	 */
+	private int streamingBandRows = 1024;
+
+	/**
+	 * Highlight all results of an invader on a single rendering of radar image, instead of rendering radar image once per result
+	 */
+	private boolean overlayResults = false;
+
+	/**
+	 * Format of detection results: text prints coloured results to console, jsonl and csv write one line per result as soon as it is found
+	 */
+	private String resultFormat = "text";
+
+	/**
+	 * File into which jsonl and csv results are written. Empty value writes them to console output
+	 */
+	private String resultOutputPath = "";
+
+	/**
+	 * Maximum estimated size in bytes of compiled invader templates kept between detection runs. Value 0 disables caching
+	 */
+	private long invaderCacheMaximumSize = 16777216;
+
+	/**
+	 * Directory or glob pattern (for example /frames/*.txt) of radar image files processed in batch mode. Empty value processes single radar image
+	 */
+	private String batchRadarPath = "";
+
+	/**
+	 * Paths to invader image files detected in batch mode. If empty, invader images from resources are used
+	 */
+	private List<String> batchInvaderPaths = new ArrayList<>();
+
+	/**
+	 * Number of threads loading radar image files in batch mode
+	 */
+	private int batchLoaderThreads = 1;
+
+	/**
+	 * Number of threads detecting invaders in loaded radar images in batch mode
+	 */
+	private int batchDetectorThreads = 1;
+
+	/**
+	 * Maximum number of radar images waiting between batch mode stages, bounds memory taken by loaded images and their results
+	 */
+	private int batchQueueCapacity = 4;
+
+	/**
+	 * Treat radar images of batch mode as consecutive frames of the same sensor, ordered by file name.
+	 * Each frame is compared with the previous one, and only sub-matrices containing changed cells are compared with invaders
+	 */
+	private boolean incrementalDetection = false;
+
+	/**
+	 * In incremental detection, radar frame is scanned from scratch when more than this fraction of sub-matrices contains changed cells
+	 */
+	private double incrementalMaximumDirtyFraction = 0.25;
+
+	/**
+	 * Orientations (ROTATE_90, ROTATE_180, ROTATE_270, MIRROR, MIRROR_ROTATE_90, MIRROR_ROTATE_180, MIRROR_ROTATE_270)
+	 * in which invaders are searched for, in addition to their original orientation
+	 */
+	private Set<InvaderVariant> invaderVariants = new LinkedHashSet<>();
+
+	/**
+	 * Also search for invaders partly outside radar image, in sub-matrices overhanging its edges. Only visible part of invader is compared
+	 */
+	private boolean edgeDetection = false;
+
+	/**
+	 * In edge detection, minimum fraction of invader 'o' characters that has to be inside radar image
+	 */
+	private float edgeMinimumVisibleFraction = 0.5f;
+
+	/**
+	 * Maximum number of results of an invader, only results with the highest matching percentage are kept. Value 0 keeps all results
+	 */
+	private int resultLimit = 0;
+
+	/**
+	 * Suppress results of an invader overlapping with another result of higher matching percentage
+	 */
+	private boolean nonMaximumSuppression = false;
+
+	/**
+	 * In non-maximum suppression, maximum overlap (intersection over union of sub-matrices) of kept results
+	 */
+	private double suppressionMaximumOverlap = 0.3;
+
+	/**
+	 * Required percentages detected at once: radar image is scored once and number of results is reported for each percentage.
+	 * If empty, radar image is detected with a single required percentage given as input argument
+	 */
+	private List<Float> sweepPercentages = new ArrayList<>();
+
+	/**
+	 * Run as resident detection service on local HTTP endpoint, instead of detecting invaders once and exiting
+	 */
+	private boolean server = false;
+
+	/**
+	 * Port of detection service, bound to loopback address. Value 0 picks a free port
+	 */
+	private int serverPort = 8080;
+
+	/**
+	 * Number of threads of detection service detecting invaders, each request is processed by one thread
+	 */
+	private int serverThreads = 4;
+
+	/**
+	 * Maximum number of requests of detection service waiting for a free thread, further requests are rejected with status 503
+	 */
+	private int serverQueueCapacity = 16;
+
+	/**
+	 * Time in milliseconds in which request of detection service has to be processed, otherwise it is answered with status 504.
+	 * Detection of timed out request still occupies its thread until it finishes
+	 */
+	private long serverRequestTimeout = 10000;
+
+	/**
+	 * Maximum size in bytes of radar image uploaded to detection service, larger uploads are rejected with status 413
+	 */
+	private long serverMaximumUploadSize = 67108864;
+
+	/**
+	 * Paths to invader image files detected by detection service, invader ID is file name without extension.
+	 * If empty, invader images from resources are used
+	 */
+	private List<String> serverInvaderPaths = new ArrayList<>();
+
+	/**
+	 * Number of worker processes radar image is detected in, radar image is split into shards of rows detected by local worker JVMs.
+	 * Value 0 detects radar image in this process
+	 */
+	private int shardWorkers = 0;
+
+	/**
+	 * Number of rows in which sub-matrices of a shard can start. Value 0 splits radar image into four shards per worker
+	 */
+	private int shardRows = 0;
+
+	/**
+	 * Time in milliseconds a launched worker process has to connect to coordinator, otherwise it is stopped
+	 */
+	private long shardWorkerStartTimeout = 60000;
+
+	/**
+	 * Time in milliseconds a worker has to answer a shard, after which the worker is stopped and its shard is reassigned to another worker
+	 */
+	private long shardReplyTimeout = 60000;
+
+	/**
+	 * Number of times a shard is reassigned after its worker failed, each failed worker is replaced by a new process.
+	 * Shard failing once more fails the detection
+	 */
+	private int shardRetries = 3;
+
+	/**
+	 * Command launching worker process, application arguments and coordinator port are appended to it. Empty list launches
+	 * this application with the same Java runtime, by its jar when it is started with java -jar, otherwise by its class path
+	 */
+	private List<String> shardWorkerCommand = new ArrayList<>();
+
+	/**
+	 * Port of shard coordinator, set by coordinator when it launches worker process. Value 0 runs application as usual
+	 */
+	private int shardWorkerPort = 0;
+
+	/**
+	 * @return Number of threads used to scan radar image
+	 */
+	public int resolveParallelism() {
+		return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+	}
+}
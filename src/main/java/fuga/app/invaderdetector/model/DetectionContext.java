@@ -0,0 +1,124 @@
+package fuga.app.invaderdetector.model;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Class represents single detection process, radar matrix with invaders detected in it and data derived from them
+ */
+@Getter
+public class DetectionContext {
+
+	private final List<InvaderTemplate> invaders;
+	private final PackedMatrix radarMatrix;
+	private final float requiredPercentage;
+	private final int[] requiredMatches;
+	private final SummedAreaTable summedAreaTable;
+	private final DetectionStatistics statistics;
+	private final int rowLimit;
+	private final boolean topEdge;
+	private final int resultLimit;
+
+	private DetectionContext(final List<InvaderTemplate> invaders, final PackedMatrix radarMatrix, final float requiredPercentage,
+							 final SummedAreaTable summedAreaTable, final DetectionStatistics statistics, final int rowLimit, final boolean topEdge,
+							 final int resultLimit) {
+		this.invaders = invaders;
+		this.radarMatrix = radarMatrix;
+		this.requiredPercentage = requiredPercentage;
+		this.requiredMatches = invaders.stream().mapToInt(invader -> invader.requiredMatches(requiredPercentage)).toArray();
+		this.summedAreaTable = summedAreaTable;
+		this.statistics = statistics;
+		this.rowLimit = rowLimit;
+		this.topEdge = topEdge;
+		this.resultLimit = resultLimit;
+	}
+
+	/**
+	 * Creates detection context without pruning stage
+	 * @param invaders Compiled invader templates
+	 * @param radarMatrix Bit-packed radar matrix
+	 * @param requiredPercentage Minimum required match percentage
+	 * @return DetectionContext object
+	 */
+	public static DetectionContext of(final List<InvaderTemplate> invaders, final PackedMatrix radarMatrix, final float requiredPercentage) {
+		return new DetectionContext(invaders, radarMatrix, requiredPercentage, null, new DetectionStatistics(), radarMatrix.getHeight(), true, 0);
+	}
+
+	/**
+	 * Creates detection context with pruning stage, summed-area table of radar matrix is built once and shared by all invaders
+	 * @param invaders Compiled invader templates
+	 * @param radarMatrix Bit-packed radar matrix
+	 * @param requiredPercentage Minimum required match percentage
+	 * @return DetectionContext object
+	 */
+	public static DetectionContext withPruning(final List<InvaderTemplate> invaders, final PackedMatrix radarMatrix, final float requiredPercentage) {
+		return new DetectionContext(invaders, radarMatrix, requiredPercentage, SummedAreaTable.of(radarMatrix), new DetectionStatistics(), radarMatrix.getHeight(), true, 0);
+	}
+
+	/**
+	 * Creates detection context for part of invaders, sharing radar matrix, summed-area table and statistics with this context
+	 * @param invaders Compiled invader templates
+	 * @return DetectionContext object
+	 */
+	public DetectionContext withInvaders(final List<InvaderTemplate> invaders) {
+		return new DetectionContext(invaders, radarMatrix, requiredPercentage, summedAreaTable, statistics, rowLimit, topEdge, resultLimit);
+	}
+
+	/**
+	 * Creates detection context in which radar sub-matrices start only in the first rows of radar matrix.
+	 * Remaining rows are still read by sub-matrices starting above them
+	 * @param rowLimit Number of rows in which sub-matrices can start
+	 * @return DetectionContext object
+	 */
+	public DetectionContext withRowLimit(final int rowLimit) {
+		return new DetectionContext(invaders, radarMatrix, requiredPercentage, summedAreaTable, statistics, rowLimit, topEdge, resultLimit);
+	}
+
+	/**
+	 * Creates detection context for band of radar rows which does not start at the top edge of radar image,
+	 * so sub-matrices overhanging the top edge of band are not searched for in it
+	 * @return DetectionContext object
+	 */
+	public DetectionContext withoutTopEdge() {
+		return new DetectionContext(invaders, radarMatrix, requiredPercentage, summedAreaTable, statistics, rowLimit, false, resultLimit);
+	}
+
+	/**
+	 * Creates detection context in which only the given number of results with the highest matching percentage is kept for each invader
+	 * @param resultLimit Maximum number of results of an invader, value 0 keeps all results
+	 * @return DetectionContext object
+	 */
+	public DetectionContext withResultLimit(final int resultLimit) {
+		return new DetectionContext(invaders, radarMatrix, requiredPercentage, summedAreaTable, statistics, rowLimit, topEdge, resultLimit);
+	}
+
+	/**
+	 * @return Collector of results of an invader, which keeps results up to result limit of this context
+	 */
+	public ResultCollector newResultCollector() {
+		return ResultCollector.of(resultLimit);
+	}
+
+	/**
+	 * @return True if the last row of radar matrix is the bottom edge of radar image, false if rows after it are processed in another context
+	 */
+	public boolean isBottomEdge() {
+		return rowLimit >= radarMatrix.getHeight();
+	}
+
+	/**
+	 * @param invader Compiled invader template
+	 * @return Last radar row in which invader can start
+	 */
+	public int getLastRow(final InvaderTemplate invader) {
+		return Math.min(radarMatrix.getHeight() - invader.getHeight(), rowLimit - 1);
+	}
+
+	/**
+	 * @return Last radar row in which any of invaders can start
+	 */
+	public int getLastRow() {
+		return invaders.stream().mapToInt(this::getLastRow).max().orElse(-1);
+	}
+}
@@ -6,7 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
- * Class represents result of space invader detection process
+ * Class represents result of space invader detection process.
+ * Segment and description texts are built from coordinates only when they are requested
  */
 @Data
 @Builder
@@ -14,8 +15,6 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class DetectionResult {
 
-	private String segment;
-	private String description;
 	private int noise;
 	private int junk;
 	private float matchingPercentage;
@@ -25,14 +24,89 @@ public class DetectionResult {
 	private int columnStart;
 	private int columnEnd;
 
+	private InvaderVariant variant;
+
+
+	/**
+	 * Creates detection result for invader found in radar sub-matrix
+	 * @param rowStart First row of radar sub-matrix
+	 * @param columnStart First column of radar sub-matrix
+	 * @param height Height of invader matrix
+	 * @param width Width of invader matrix
+	 * @param matchingPercentage Matching percentage of radar sub-matrix
+	 * @param noise Number of 'o' characters in radar sub-matrix treated as noise
+	 * @param junk Number of 'o' characters in radar sub-matrix treated as junk
+	 * @return DetectionResult object
+	 */
+	public static DetectionResult of(final int rowStart, final int columnStart, final int height, final int width,
+									 final float matchingPercentage, final int noise, final int junk) {
+		return of(rowStart, columnStart, height, width, matchingPercentage, noise, junk, InvaderVariant.IDENTITY);
+	}
+
+	/**
+	 * Creates detection result for invader, in given orientation, found in radar sub-matrix
+	 * @param rowStart First row of radar sub-matrix
+	 * @param columnStart First column of radar sub-matrix
+	 * @param height Height of invader matrix in given orientation
+	 * @param width Width of invader matrix in given orientation
+	 * @param matchingPercentage Matching percentage of radar sub-matrix
+	 * @param noise Number of 'o' characters in radar sub-matrix treated as noise
+	 * @param junk Number of 'o' characters in radar sub-matrix treated as junk
+	 * @param variant Orientation in which invader is found
+	 * @return DetectionResult object
+	 */
+	public static DetectionResult of(final int rowStart, final int columnStart, final int height, final int width,
+									 final float matchingPercentage, final int noise, final int junk, final InvaderVariant variant) {
+		return DetectionResult.builder()
+			.matchingPercentage(matchingPercentage)
+			.rowStart(rowStart)
+			.rowEnd(rowStart + height - 1)
+			.columnStart(columnStart).columnEnd(columnStart + width - 1)
+			.noise(noise)
+			.junk(junk)
+			.variant(variant)
+			.build();
+	}
+
+	/**
+	 * Creates copy of detection result, moved by given number of rows and columns
+	 * @param rowOffset Number of rows
+	 * @param columnOffset Number of columns
+	 * @return DetectionResult object
+	 */
+	public DetectionResult shift(final int rowOffset, final int columnOffset) {
+		return of(rowStart + rowOffset, columnStart + columnOffset, rowEnd - rowStart + 1, columnEnd - columnStart + 1, matchingPercentage, noise, junk, variant);
+	}
+
+	/**
+	 * @return Orientation in which invader is found, IDENTITY if not set
+	 */
+	public InvaderVariant getVariant() {
+		return variant != null ? variant : InvaderVariant.IDENTITY;
+	}
+
+	/**
+	 * @return Coordinates of radar sub-matrix in which invader is found
+	 */
+	public String getSegment() {
+		return String.format("row: [%2d, %2d], column: [%2d, %2d]", rowStart, rowEnd, columnStart, columnEnd);
+	}
+
+	/**
+	 * @return Description of result, with matching percentage
+	 */
+	public String getDescription() {
+		return String.format("Found matching invader in radar sub-matrix with matching accuracy of %.2f%%", matchingPercentage);
+	}
 
 	@Override
 	public String toString() {
 		return "\n" +
-			   "Segment: " + segment + "\n" +
-			   "Description: " + description + "\n" +
+			   "Segment: " + getSegment() + "\n" +
+			   "Description: " + getDescription() + "\n" +
 			   "Matching percentage: " + String.format("%.2f", matchingPercentage) + "%\n" +
 			   "Noise: " + noise + "\n" +
-			   "Junk: " + junk + "\n";
+			   "Junk: " + junk + "\n" +
+			   (getVariant() != InvaderVariant.IDENTITY ? "Variant: " + variant + "\n" : "");
 	}
 }
@@ -0,0 +1,61 @@
+package fuga.app.invaderdetector.model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class collects statistics of detection process, safe to be updated from multiple threads
+ */
+public class DetectionStatistics {
+
+	private final LongAdder windowsScored = new LongAdder();
+	private final LongAdder windowsPruned = new LongAdder();
+	private final LongAdder windowsReused = new LongAdder();
+
+	public void addWindowsScored(final long count) {
+		windowsScored.add(count);
+	}
+
+	public void addWindowsPruned(final long count) {
+		windowsPruned.add(count);
+	}
+
+	public void addWindowsReused(final long count) {
+		windowsReused.add(count);
+	}
+
+	/**
+	 * Adds statistics of another detection process to this one
+	 * @param statistics Statistics of another detection process
+	 */
+	public void add(final DetectionStatistics statistics) {
+		addWindowsScored(statistics.getWindowsScored());
+		addWindowsPruned(statistics.getWindowsPruned());
+		addWindowsReused(statistics.getWindowsReused());
+	}
+
+	/**
+	 * @return Number of radar sub-matrices compared with invader cell by cell
+	 */
+	public long getWindowsScored() {
+		return windowsScored.sum();
+	}
+
+	/**
+	 * @return Number of radar sub-matrices rejected without comparison, because they can not reach required percentage
+	 */
+	public long getWindowsPruned() {
+		return windowsPruned.sum();
+	}
+
+	/**
+	 * @return Number of radar sub-matrices whose result is taken from previous radar frame, because none of their cells changed
+	 */
+	public long getWindowsReused() {
+		return windowsReused.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "windows scored: " + getWindowsScored() + ", windows pruned: " + getWindowsPruned() + ", windows reused: " + getWindowsReused();
+	}
+}
@@ -0,0 +1,150 @@
+package fuga.app.invaderdetector.model;
+
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+import lombok.Getter;
+
+/**
+ * Class represents space invader compiled for detection process, bit-packed invader image with data derived from it
+ */
+@Getter
+public class InvaderTemplate {
+
+	//Approximate size of object header, used to estimate memory taken by template
+	private static final int OBJECT_OVERHEAD = 16;
+
+	private final Matrix matrix;
+	private final InvaderVariant variant;
+	private final PackedMatrix pattern;
+	private final int matchingCount;
+	private final long lastWordMask;
+	private final int[] rowOrder;
+	private final PackedMatrix noiseMask;
+
+	private InvaderTemplate(final Matrix matrix, final InvaderVariant variant, final PackedMatrix pattern) {
+		this.matrix = matrix;
+		this.variant = variant;
+		this.pattern = pattern;
+		this.matchingCount = pattern.count();
+		this.lastWordMask = (pattern.getWidth() & 63) == 0 ? -1L : (1L << pattern.getWidth()) - 1;
+		this.rowOrder = rowOrder(pattern);
+		this.noiseMask = noiseMask(pattern);
+	}
+
+	/**
+	 * Marks cells which have 'o' character in one of neighbouring positions (bottom, top, left, right, bottom-left, bottom-right, top-left, top-right).
+	 * Radar 'o' character in such cell is treated as noise, otherwise it is junk
+	 * @param pattern Bit-packed invader matrix
+	 * @return Bit-packed noise mask of invader size
+	 */
+	private static PackedMatrix noiseMask(final PackedMatrix pattern) {
+		final PackedMatrix mask = new PackedMatrix(pattern.getWidth(), pattern.getHeight());
+
+		for (int x = 0; x < pattern.getHeight(); x++) {
+			for (int y = 0; y < pattern.getWidth(); y++) {
+				if (!pattern.get(x, y)) {
+					continue;
+				}
+
+				for (int i = Math.max(0, x - 1); i <= Math.min(pattern.getHeight() - 1, x + 1); i++) {
+					for (int j = Math.max(0, y - 1); j <= Math.min(pattern.getWidth() - 1, y + 1); j++) {
+						if (i != x || j != y) {
+							mask.set(i, j);
+						}
+					}
+				}
+			}
+		}
+
+		return mask;
+	}
+
+	/**
+	 * Orders invader rows by number of 'o' characters, descending. Rows without 'o' characters can not produce a miss and are left out
+	 * @param pattern Bit-packed invader matrix
+	 * @return Indexes of invader rows
+	 */
+	private static int[] rowOrder(final PackedMatrix pattern) {
+		final int[] rowCounts = new int[pattern.getHeight()];
+
+		for (int i = 0; i < pattern.getHeight(); i++) {
+			for (int k = 0; k < pattern.getWordsPerRow(); k++) {
+				rowCounts[i] += Long.bitCount(pattern.word(i, k));
+			}
+		}
+
+		return IntStream.range(0, pattern.getHeight())
+			.boxed()
+			.filter(row -> rowCounts[row] > 0)
+			.sorted(Comparator.comparingInt((Integer row) -> rowCounts[row]).reversed())
+			.mapToInt(Integer::intValue)
+			.toArray();
+	}
+
+	/**
+	 * Compiles invader template from invader matrix
+	 * @param invaderMatrix Invader matrix object
+	 * @return InvaderTemplate object
+	 */
+	public static InvaderTemplate of(final Matrix invaderMatrix) {
+		return of(invaderMatrix, InvaderVariant.IDENTITY);
+	}
+
+	/**
+	 * Compiles invader template from invader matrix in given orientation
+	 * @param invaderMatrix Invader matrix object, in original orientation
+	 * @param variant Orientation of invader
+	 * @return InvaderTemplate object, whose matrix is rotated and/or mirrored invader matrix
+	 */
+	public static InvaderTemplate of(final Matrix invaderMatrix, final InvaderVariant variant) {
+		final Matrix variantMatrix = variant.apply(invaderMatrix);
+		return new InvaderTemplate(variantMatrix, variant, PackedMatrix.of(variantMatrix));
+	}
+
+	/**
+	 * @return Approximate number of bytes taken by template, including invader matrix it is compiled from
+	 */
+	public long estimateSize() {
+		final long matrixSize = (long) matrix.getHeight() * (OBJECT_OVERHEAD + 2L * matrix.getWidth());
+		final long packedSize = 8L * (pattern.getWords().length + noiseMask.getWords().length);
+		return 4 * OBJECT_OVERHEAD + matrixSize + packedSize + 4L * rowOrder.length;
+	}
+
+	public int getWidth() {
+		return pattern.getWidth();
+	}
+
+	public int getHeight() {
+		return pattern.getHeight();
+	}
+
+	/**
+	 * Calculates minimum number of invader 'o' characters that has to be matched in radar sub-matrix to reach required percentage.
+	 * Matching percentage of sub-matrix is calculated the same way as in detection process, so the result is exact
+	 * @param requiredPercentage Minimum required match percentage
+	 * @return Minimum number of exact matches, Integer.MAX_VALUE if required percentage can not be reached
+	 */
+	public int requiredMatches(final float requiredPercentage) {
+		if (matchingCount == 0) {
+			//Matching percentage of invader without 'o' characters is always 0
+			return requiredPercentage <= 0 ? 0 : Integer.MAX_VALUE;
+		}
+
+		for (int matches = Math.max(0, (int) (requiredPercentage * matchingCount / 100) - 1); matches <= matchingCount; matches++) {
+			if ((matches * 100.0f) / matchingCount >= requiredPercentage) {
+				return matches;
+			}
+		}
+
+		return Integer.MAX_VALUE;
+	}
+
+	/**
+	 * @param wordIndex Index of word inside the row
+	 * @return Mask of columns, belonging to invader, inside the word
+	 */
+	public long columnMask(final int wordIndex) {
+		return wordIndex == pattern.getWordsPerRow() - 1 ? lastWordMask : -1L;
+	}
+}
@@ -0,0 +1,69 @@
+package fuga.app.invaderdetector.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Enum represents orientation in which invader can appear on radar image: one of four rotations (clockwise, by quarter turns),
+ * of invader image or of its mirror image (flipped left to right)
+ */
+@Getter
+@RequiredArgsConstructor
+public enum InvaderVariant {
+
+	IDENTITY(false, 0),
+	ROTATE_90(false, 1),
+	ROTATE_180(false, 2),
+	ROTATE_270(false, 3),
+	MIRROR(true, 0),
+	MIRROR_ROTATE_90(true, 1),
+	MIRROR_ROTATE_180(true, 2),
+	MIRROR_ROTATE_270(true, 3);
+
+	private final boolean mirrored;
+	private final int quarterTurns;
+
+	/**
+	 * Creates invader matrix in this orientation
+	 * @param invaderMatrix Invader matrix object
+	 * @return New Matrix object, invader matrix itself for IDENTITY
+	 */
+	public Matrix apply(final Matrix invaderMatrix) {
+		if (this == IDENTITY) {
+			return invaderMatrix;
+		}
+
+		final int height = invaderMatrix.getHeight();
+		final int width = invaderMatrix.getWidth();
+		final boolean transposed = (quarterTurns & 1) == 1;
+		final char[][] elements = new char[transposed ? width : height][transposed ? height : width];
+
+		for (int i = 0; i < height; i++) {
+			for (int j = 0; j < width; j++) {
+				final int column = mirrored ? width - 1 - j : j;
+				final char element = invaderMatrix.getElements()[i][j];
+
+				switch (quarterTurns) {
+					case 1:
+						elements[column][height - 1 - i] = element;
+						break;
+					case 2:
+						elements[height - 1 - i][width - 1 - column] = element;
+						break;
+					case 3:
+						elements[width - 1 - column][i] = element;
+						break;
+					default:
+						elements[i][column] = element;
+						break;
+				}
+			}
+		}
+
+		return Matrix.builder()
+			.width(transposed ? height : width)
+			.height(transposed ? width : height)
+			.elements(elements)
+			.build();
+	}
+}
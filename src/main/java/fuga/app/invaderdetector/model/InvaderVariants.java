@@ -0,0 +1,102 @@
+package fuga.app.invaderdetector.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Class represents invaders expanded into templates of all their orientations.
+ * Orientations which give the same invader pattern as another orientation of the same invader (symmetric invaders) are left out,
+ * so every distinct pattern is compared with radar only once
+ */
+@Getter
+public class InvaderVariants {
+
+	private final List<InvaderTemplate> templates;
+	private final int[] owners;
+	private final int invaderCount;
+
+	private InvaderVariants(final List<InvaderTemplate> templates, final int[] owners, final int invaderCount) {
+		this.templates = templates;
+		this.owners = owners;
+		this.invaderCount = invaderCount;
+	}
+
+	/**
+	 * Expands invaders into templates of given orientations. Every invader is always included in its original orientation
+	 * @param invaders Compiled invader templates, in original orientation
+	 * @param variants Orientations in which invaders are searched for
+	 * @return InvaderVariants object, with templates of each invader following each other
+	 */
+	public static InvaderVariants of(final List<InvaderTemplate> invaders, final Collection<InvaderVariant> variants) {
+		final EnumSet<InvaderVariant> orientations = EnumSet.of(InvaderVariant.IDENTITY);
+		orientations.addAll(variants);
+
+		final List<InvaderTemplate> templates = new ArrayList<>(invaders.size() * orientations.size());
+		final List<Integer> owners = new ArrayList<>(invaders.size() * orientations.size());
+
+		for (int index = 0; index < invaders.size(); index++) {
+			final InvaderTemplate invader = invaders.get(index);
+			final int first = templates.size();
+
+			for (InvaderVariant variant : orientations) {
+				final InvaderTemplate template = variant == InvaderVariant.IDENTITY ? invader : InvaderTemplate.of(invader.getMatrix(), variant);
+				if (templates.subList(first, templates.size()).stream().noneMatch(other -> other.getPattern().equals(template.getPattern()))) {
+					templates.add(template);
+					owners.add(index);
+				}
+			}
+		}
+
+		return new InvaderVariants(templates, owners.stream().mapToInt(Integer::intValue).toArray(), invaders.size());
+	}
+
+	/**
+	 * Rotated invaders can be taller than in their original orientation, so rows shared by neighbouring bands of radar image follow this height
+	 * @return Height of the tallest template, 0 if there are no templates
+	 */
+	public int getMaximumHeight() {
+		return templates.stream().mapToInt(InvaderTemplate::getHeight).max().orElse(0);
+	}
+
+	/**
+	 * @param templateIndex Index of template
+	 * @return Index of invader which template is compiled from
+	 */
+	public int getOwner(final int templateIndex) {
+		return owners[templateIndex];
+	}
+
+	/**
+	 * Puts results of all orientations of an invader into one list
+	 * @param templateResults Lists of DetectionResult objects, one list per template in order of templates
+	 * @return Lists of DetectionResult objects, ordered by row, column and orientation, one list per invader
+	 */
+	public List<List<DetectionResult>> regroup(final List<List<DetectionResult>> templateResults) {
+		final List<List<DetectionResult>> results = new ArrayList<>(invaderCount);
+
+		for (int first = 0, next; first < templates.size(); first = next) {
+			next = first + 1;
+			while (next < templates.size() && owners[next] == owners[first]) {
+				next++;
+			}
+
+			if (next - first == 1) {
+				results.add(templateResults.get(first));
+				continue;
+			}
+
+			final List<DetectionResult> merged = new ArrayList<>();
+			for (int templateIndex = first; templateIndex < next; templateIndex++) {
+				merged.addAll(templateResults.get(templateIndex));
+			}
+			merged.sort(ResultCollector.RESULT_ORDER);
+			results.add(merged);
+		}
+
+		return results;
+	}
+}
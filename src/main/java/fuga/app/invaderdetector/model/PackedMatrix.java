@@ -0,0 +1,140 @@
+package fuga.app.invaderdetector.model;
+
+import java.util.Arrays;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Class represents bit-packed Matrix. Every row is stored as a sequence of long words, where bit set to 1 means 'o' character.
+ * Column j of a row is stored in bit (j % 64) of word (j / 64)
+ */
+@Getter
+@EqualsAndHashCode
+@ToString(of = {"width", "height"})
+public class PackedMatrix {
+
+	private static final char MATCHING_CHAR = 'o';
+	private static final char EMPTY_CHAR = '-';
+
+	private final int width;
+	private final int height;
+	private final int wordsPerRow;
+	private final long[] words;
+
+	public PackedMatrix(final int width, final int height) {
+		this.width = width;
+		this.height = height;
+		this.wordsPerRow = (width + 63) >>> 6;
+		this.words = new long[wordsPerRow * height];
+	}
+
+	private PackedMatrix(final int width, final int height, final long[] words) {
+		this.width = width;
+		this.height = height;
+		this.wordsPerRow = (width + 63) >>> 6;
+		this.words = words;
+	}
+
+	/**
+	 * Creates view of the first rows of matrix. View shares words with this matrix, so changes of one are visible in the other
+	 * @param rows Number of rows
+	 * @return PackedMatrix object
+	 */
+	public PackedMatrix topRows(final int rows) {
+		return rows == height ? this : new PackedMatrix(width, rows, words);
+	}
+
+	/**
+	 * Creates copy of rows [fromRow, toRow) of matrix
+	 * @param fromRow First row (inclusive)
+	 * @param toRow Last row (exclusive)
+	 * @return PackedMatrix object
+	 */
+	public PackedMatrix rows(final int fromRow, final int toRow) {
+		return new PackedMatrix(width, toRow - fromRow, Arrays.copyOfRange(words, fromRow * wordsPerRow, toRow * wordsPerRow));
+	}
+
+	/**
+	 * Packs Matrix object into bit-packed representation
+	 * @param matrix Matrix object
+	 * @return PackedMatrix object
+	 */
+	public static PackedMatrix of(final Matrix matrix) {
+		final PackedMatrix packedMatrix = new PackedMatrix(matrix.getWidth(), matrix.getHeight());
+
+		for (int i = 0; i < matrix.getHeight(); i++) {
+			for (int j = 0; j < matrix.getWidth(); j++) {
+				if (matrix.getElements()[i][j] == MATCHING_CHAR) {
+					packedMatrix.set(i, j);
+				}
+			}
+		}
+
+		return packedMatrix;
+	}
+
+	/**
+	 * Unpacks matrix back to Matrix object. All cells that are not 'o' are represented with '-'
+	 * @return Matrix object
+	 */
+	public Matrix toMatrix() {
+		final char[][] elements = new char[height][width];
+
+		for (int i = 0; i < height; i++) {
+			for (int j = 0; j < width; j++) {
+				elements[i][j] = get(i, j) ? MATCHING_CHAR : EMPTY_CHAR;
+			}
+		}
+
+		return Matrix.builder().width(width).height(height).elements(elements).build();
+	}
+
+	public boolean get(final int row, final int column) {
+		return (words[row * wordsPerRow + (column >>> 6)] & (1L << column)) != 0;
+	}
+
+	public void set(final int row, final int column) {
+		words[row * wordsPerRow + (column >>> 6)] |= 1L << column;
+	}
+
+	/**
+	 * @param row Row index
+	 * @param wordIndex Index of word inside the row
+	 * @return Word containing columns [64 * wordIndex, 64 * wordIndex + 63] of the row
+	 */
+	public long word(final int row, final int wordIndex) {
+		return words[row * wordsPerRow + wordIndex];
+	}
+
+	/**
+	 * Extracts 64 cells of the row starting at given column, not necessarily aligned to word boundary.
+	 * Cells located after the last column of the row are returned as 0
+	 * @param row Row index
+	 * @param column Column of the first extracted cell, stored in the lowest bit of the result
+	 * @return Word containing columns [column, column + 63] of the row
+	 */
+	public long bits(final int row, final int column) {
+		final int wordIndex = column >>> 6;
+		final int shift = column & 63;
+		final int index = row * wordsPerRow + wordIndex;
+
+		long result = words[index] >>> shift;
+		if (shift != 0 && wordIndex + 1 < wordsPerRow) {
+			result |= words[index + 1] << (64 - shift);
+		}
+		return result;
+	}
+
+	/**
+	 * @return Number of 'o' characters in matrix
+	 */
+	public int count() {
+		int count = 0;
+		for (int i = 0; i < wordsPerRow * height; i++) {
+			count += Long.bitCount(words[i]);
+		}
+		return count;
+	}
+}
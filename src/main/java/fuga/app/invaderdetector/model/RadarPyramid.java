@@ -0,0 +1,78 @@
+package fuga.app.invaderdetector.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class represents pyramid of coarse radar matrices. Level L has 'o' character in cell (row, column)
+ * if any cell of the 2^L x 2^L block of radar matrix starting at (row, column) is 'o', level 0 is radar matrix itself.
+ * Invader 'o' characters covered by level L at (row, column) are therefore an upper bound of exact matches
+ * of every radar sub-matrix starting in rows [row, row + 2^L) and columns [column, column + 2^L)
+ */
+public class RadarPyramid {
+
+	private final List<PackedMatrix> levels;
+
+	private RadarPyramid(final List<PackedMatrix> levels) {
+		this.levels = levels;
+	}
+
+	/**
+	 * Builds pyramid of radar matrix, each level from the previous one
+	 * @param radarMatrix Bit-packed radar matrix
+	 * @param topLevel Highest level of pyramid
+	 * @return RadarPyramid object
+	 */
+	public static RadarPyramid of(final PackedMatrix radarMatrix, final int topLevel) {
+		final List<PackedMatrix> levels = new ArrayList<>(topLevel + 1);
+		levels.add(radarMatrix);
+
+		for (int level = 1; level <= topLevel; level++) {
+			levels.add(coarsen(levels.get(level - 1), 1 << (level - 1)));
+		}
+
+		return new RadarPyramid(levels);
+	}
+
+	/**
+	 * @param level Level of pyramid, 0 for radar matrix
+	 * @return Bit-packed matrix of the level, of the same size as radar matrix
+	 */
+	public PackedMatrix getLevel(final int level) {
+		return levels.get(level);
+	}
+
+	/**
+	 * @return Highest level of pyramid
+	 */
+	public int getTopLevel() {
+		return levels.size() - 1;
+	}
+
+	/**
+	 * Doubles block size of level: cell is 'o' if any of cells (row, column), (row + step, column),
+	 * (row, column + step) and (row + step, column + step) of the previous level is 'o'. Cells outside matrix are '-'
+	 */
+	private static PackedMatrix coarsen(final PackedMatrix matrix, final int step) {
+		final int width = matrix.getWidth();
+		final int height = matrix.getHeight();
+		final int wordsPerRow = matrix.getWordsPerRow();
+		final PackedMatrix rows = new PackedMatrix(width, height);
+		final PackedMatrix coarse = new PackedMatrix(width, height);
+
+		for (int i = 0; i < height; i++) {
+			for (int k = 0; k < wordsPerRow; k++) {
+				rows.getWords()[i * wordsPerRow + k] = matrix.word(i, k) | (i + step < height ? matrix.word(i + step, k) : 0);
+			}
+		}
+
+		for (int i = 0; i < height; i++) {
+			for (int k = 0; k < wordsPerRow; k++) {
+				final int shiftedColumn = (k << 6) + step;
+				coarse.getWords()[i * wordsPerRow + k] = rows.word(i, k) | (shiftedColumn < width ? rows.bits(i, shiftedColumn) : 0);
+			}
+		}
+
+		return coarse;
+	}
+}
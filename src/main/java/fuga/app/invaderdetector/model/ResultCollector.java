@@ -0,0 +1,91 @@
+package fuga.app.invaderdetector.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Class used to collect detection results of an invader. Without limit all results are kept,
+ * with limit only the given number of results with the highest matching percentage is kept in a bounded heap,
+ * so memory does not depend on number of matching sub-matrices
+ */
+public class ResultCollector {
+
+	/**
+	 * Order of results in radar image: by row, column and orientation
+	 */
+	public static final Comparator<DetectionResult> RESULT_ORDER = Comparator.comparingInt(DetectionResult::getRowStart)
+		.thenComparingInt(DetectionResult::getColumnStart)
+		.thenComparing(DetectionResult::getVariant);
+
+	/**
+	 * Order of results by quality: higher matching percentage first, results with the same percentage in order of radar image
+	 */
+	public static final Comparator<DetectionResult> BEST_FIRST = Comparator.comparing(DetectionResult::getMatchingPercentage, Comparator.reverseOrder())
+		.thenComparing(RESULT_ORDER);
+
+	private final int limit;
+	private final List<DetectionResult> results;
+	private final PriorityQueue<DetectionResult> heap;
+
+	private ResultCollector(final int limit) {
+		this.limit = limit;
+		this.results = limit > 0 ? null : new ArrayList<>();
+		//Heap head is the worst kept result, which is replaced when better result is found
+		this.heap = limit > 0 ? new PriorityQueue<>(Math.min(limit, 1024) + 1, BEST_FIRST.reversed()) : null;
+	}
+
+	/**
+	 * @param limit Maximum number of kept results, value 0 keeps all results
+	 * @return ResultCollector object
+	 */
+	public static ResultCollector of(final int limit) {
+		return new ResultCollector(limit);
+	}
+
+	/**
+	 * Keeps only the given number of best results of a list
+	 * @param results Lists of DetectionResult objects
+	 * @param limit Maximum number of kept results, value 0 keeps all results
+	 * @return List of DetectionResult objects, ordered by row and column, the list itself if it is not longer than limit
+	 */
+	public static List<DetectionResult> limit(final List<DetectionResult> results, final int limit) {
+		if (limit <= 0 || results.size() <= limit) {
+			return results;
+		}
+
+		final ResultCollector collector = of(limit);
+		collector.addAll(results);
+		return collector.toList();
+	}
+
+	public void add(final DetectionResult result) {
+		if (heap == null) {
+			results.add(result);
+		} else if (heap.size() < limit) {
+			heap.add(result);
+		} else if (BEST_FIRST.compare(result, heap.peek()) < 0) {
+			heap.poll();
+			heap.add(result);
+		}
+	}
+
+	public void addAll(final Collection<DetectionResult> results) {
+		results.forEach(this::add);
+	}
+
+	/**
+	 * @return List of collected DetectionResult objects, ordered by row and column
+	 */
+	public List<DetectionResult> toList() {
+		if (heap == null) {
+			return results;
+		}
+
+		final List<DetectionResult> kept = new ArrayList<>(heap);
+		kept.sort(RESULT_ORDER);
+		return kept;
+	}
+}
@@ -0,0 +1,145 @@
+package fuga.app.invaderdetector.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Class represents number of exact matches of every radar sub-matrix of invader size, one entry per offset.
+ * Scores do not depend on required percentage, so a score map built once answers any number of required percentages
+ * without comparing radar with invader again. Entries are stored in the narrowest array holding number of invader 'o' characters,
+ * noise and junk are scored only for sub-matrices reaching required percentage
+ */
+public class ScoreMap {
+
+	//Largest number of entries a score map can hold in a single array
+	private static final long MAX_ENTRIES = Integer.MAX_VALUE - 8;
+
+	@Getter
+	private final InvaderTemplate invader;
+	@Getter
+	private final int rows;
+	@Getter
+	private final int columns;
+
+	private final WindowScorer windowScorer;
+	private final byte[] byteMatches;
+	private final short[] shortMatches;
+	private final int[] intMatches;
+
+	/**
+	 * @param invader Compiled invader template
+	 * @param rows Number of rows of radar sub-matrices, radar height - invader height + 1
+	 * @param columns Number of columns of radar sub-matrices, radar width - invader width + 1
+	 * @param windowScorer Scorer of radar sub-matrices reaching required percentage
+	 * @throws IllegalArgumentException If number of radar sub-matrices does not fit into an array
+	 */
+	public ScoreMap(final InvaderTemplate invader, final int rows, final int columns, final WindowScorer windowScorer) {
+		this.invader = invader;
+		this.rows = Math.max(0, rows);
+		this.columns = Math.max(0, columns);
+		this.windowScorer = windowScorer;
+
+		final long entries = (long) this.rows * this.columns;
+		if (entries > MAX_ENTRIES) {
+			throw new IllegalArgumentException("Radar image has too many sub-matrices for score map: " + this.rows + "x" + this.columns);
+		}
+
+		final int matchingCount = invader.getMatchingCount();
+		this.byteMatches = matchingCount <= 0xFF ? new byte[(int) entries] : null;
+		this.shortMatches = matchingCount > 0xFF && matchingCount <= 0xFFFF ? new short[(int) entries] : null;
+		this.intMatches = matchingCount > 0xFFFF ? new int[(int) entries] : null;
+	}
+
+	/**
+	 * Stores number of exact matches of radar sub-matrix starting at given row and column
+	 */
+	public void set(final int row, final int column, final int exactMatches) {
+		final int offset = row * columns + column;
+
+		if (byteMatches != null) {
+			byteMatches[offset] = (byte) exactMatches;
+		} else if (shortMatches != null) {
+			shortMatches[offset] = (short) exactMatches;
+		} else {
+			intMatches[offset] = exactMatches;
+		}
+	}
+
+	/**
+	 * @return Number of invader 'o' characters matched in radar sub-matrix starting at given row and column
+	 */
+	public int exactMatches(final int row, final int column) {
+		return exactMatches(row * columns + column);
+	}
+
+	/**
+	 * @return Number of invader 'o' characters missing in radar sub-matrix starting at given row and column
+	 */
+	public int invaderOnly(final int row, final int column) {
+		return invader.getMatchingCount() - exactMatches(row, column);
+	}
+
+	/**
+	 * Selects radar sub-matrices reaching required percentage, the same ones detection process finds
+	 * @param requiredPercentage Minimum required match percentage
+	 * @return List of DetectionResult objects, ordered by row and column
+	 */
+	public List<DetectionResult> results(final float requiredPercentage) {
+		final List<DetectionResult> results = new ArrayList<>();
+		final int requiredMatches = invader.requiredMatches(requiredPercentage);
+
+		if (requiredMatches == Integer.MAX_VALUE) {
+			return results;
+		}
+
+		final int entries = rows * columns;
+		for (int offset = 0; offset < entries; offset++) {
+			if (exactMatches(offset) >= requiredMatches) {
+				final DetectionResult result = windowScorer.score(offset / columns, offset % columns, requiredPercentage, requiredMatches);
+				if (result != null) {
+					results.add(result);
+				}
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Histogram of window scores, number of radar sub-matrices reaching a required percentage is the sum of its tail
+	 * @return Number of radar sub-matrices by number of exact matches, from 0 to number of invader 'o' characters
+	 */
+	public long[] histogram() {
+		final long[] histogram = new long[invader.getMatchingCount() + 1];
+		final int entries = rows * columns;
+
+		for (int offset = 0; offset < entries; offset++) {
+			histogram[exactMatches(offset)]++;
+		}
+
+		return histogram;
+	}
+
+	private int exactMatches(final int offset) {
+		if (byteMatches != null) {
+			return byteMatches[offset] & 0xFF;
+		}
+		if (shortMatches != null) {
+			return shortMatches[offset] & 0xFFFF;
+		}
+		return intMatches[offset];
+	}
+
+	/**
+	 * Scores radar sub-matrix which reached required number of exact matches, computing its noise and junk
+	 */
+	public interface WindowScorer {
+
+		/**
+		 * @return DetectionResult object if sub-matrix fulfills matching condition, null otherwise
+		 */
+		DetectionResult score(int row, int column, float requiredPercentage, int requiredMatches);
+	}
+}
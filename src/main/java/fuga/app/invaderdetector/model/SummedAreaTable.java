@@ -0,0 +1,55 @@
+package fuga.app.invaderdetector.model;
+
+/**
+ * Class represents summed-area table (integral image) of 'o' characters in matrix.
+ * Number of 'o' characters in any rectangular sub-matrix is calculated in constant time
+ */
+public class SummedAreaTable {
+
+	private final int stride;
+	private final int[] sums;
+
+	private SummedAreaTable(final int width, final int height) {
+		this.stride = width + 1;
+		this.sums = new int[stride * (height + 1)];
+	}
+
+	/**
+	 * Builds summed-area table of bit-packed matrix
+	 * @param matrix Bit-packed matrix
+	 * @return SummedAreaTable object
+	 */
+	public static SummedAreaTable of(final PackedMatrix matrix) {
+		final SummedAreaTable table = new SummedAreaTable(matrix.getWidth(), matrix.getHeight());
+		final int[] sums = table.sums;
+		final int stride = table.stride;
+
+		for (int i = 0; i < matrix.getHeight(); i++) {
+			int rowSum = 0;
+			final int previous = i * stride;
+			final int current = previous + stride;
+
+			for (int j = 0; j < matrix.getWidth(); j++) {
+				if ((matrix.word(i, j >>> 6) & (1L << j)) != 0) {
+					rowSum++;
+				}
+				sums[current + j + 1] = sums[previous + j + 1] + rowSum;
+			}
+		}
+
+		return table;
+	}
+
+	/**
+	 * @param row First row of sub-matrix
+	 * @param column First column of sub-matrix
+	 * @param height Height of sub-matrix
+	 * @param width Width of sub-matrix
+	 * @return Number of 'o' characters in sub-matrix
+	 */
+	public int sum(final int row, final int column, final int height, final int width) {
+		final int top = row * stride;
+		final int bottom = (row + height) * stride;
+		return sums[bottom + column + width] - sums[bottom + column] - sums[top + column + width] + sums[top + column];
+	}
+}
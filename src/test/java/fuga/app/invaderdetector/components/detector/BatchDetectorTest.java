@@ -0,0 +1,166 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import fuga.app.invaderdetector.components.filter.ResultFilter;
+import fuga.app.invaderdetector.components.loader.BinaryMatrixLoader;
+import fuga.app.invaderdetector.components.loader.InvaderTemplateCache;
+import fuga.app.invaderdetector.components.loader.MappedMatrixLoader;
+import fuga.app.invaderdetector.components.loader.MatrixLoaderComponent;
+import fuga.app.invaderdetector.components.metrics.DetectionMetrics;
+import fuga.app.invaderdetector.components.sink.ResultSink;
+import fuga.app.invaderdetector.components.sink.ResultSinkFactory;
+import fuga.app.invaderdetector.components.transformer.FileToMatrixTransformer;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static fuga.app.invaderdetector.components.detector.BitPackedDetectionEngineTest.randomMatrix;
+import static org.junit.Assert.assertEquals;
+
+public class BatchDetectorTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final BitPackedDetectionEngine detectionEngine = new BitPackedDetectionEngine();
+	private final DetectorProperties detectorProperties = new DetectorProperties();
+	private final BatchDetector batchDetector = new BatchDetector(new MatrixLoaderComponent(), new MappedMatrixLoader(), new BinaryMatrixLoader(), new FileToMatrixTransformer(),
+		new InvaderTemplateCache(detectorProperties), detectionEngine, new IncrementalDetector(detectionEngine, detectionEngine, detectorProperties),
+		new ResultSinkFactory(detectorProperties), new ResultFilter(detectorProperties), new DetectionMetrics(new SimpleMeterRegistry()), detectorProperties);
+
+	@Test
+	public void testSameResultsAsSingleRadarDetection() throws IOException {
+		assertSameResultsAsSingleRadarDetection(false);
+	}
+
+	@Test
+	public void testIncrementalDetection() throws IOException {
+		detectorProperties.setIncrementalDetection(true);
+		assertSameResultsAsSingleRadarDetection(true);
+	}
+
+	/**
+	 * @param consecutiveFrames Radar images differ only in a few cells from the previous one, otherwise they are unrelated
+	 */
+	private void assertSameResultsAsSingleRadarDetection(final boolean consecutiveFrames) throws IOException {
+		final Random random = new Random(14);
+		final Matrix invader1 = randomMatrix(random, 6, 4, 0.6);
+		final Matrix invader2 = randomMatrix(random, 3, 3, 0.6);
+		final List<String> invaderPaths = Arrays.asList(write("invader1.txt", invader1), write("invader2.txt", invader2));
+		final List<InvaderTemplate> invaders = Arrays.asList(InvaderTemplate.of(invader1), InvaderTemplate.of(invader2));
+
+		final File frames = temporaryFolder.newFolder("frames");
+		final Map<String, List<DetectionResult>> expected = new HashMap<>();
+		Matrix radar = randomMatrix(random, 40, 30, 0.5);
+		for (int frame = 0; frame < 12; frame++) {
+			if (consecutiveFrames) {
+				radar.setElement(random.nextInt(30), random.nextInt(40), random.nextBoolean() ? 'o' : '-');
+			} else {
+				radar = randomMatrix(random, 40 + frame, 30, 0.5);
+			}
+			final String radarPath = write(String.format("frames/radar%02d.txt", frame), radar);
+			final List<List<DetectionResult>> results = detectionEngine.process(DetectionContext.of(invaders, PackedMatrix.of(radar), 70.0f));
+			expected.put(radarPath + " " + invaderPaths.get(0), results.get(0));
+			expected.put(radarPath + " " + invaderPaths.get(1), results.get(1));
+		}
+
+		detectorProperties.setBatchLoaderThreads(2);
+		detectorProperties.setBatchDetectorThreads(3);
+		detectorProperties.setBatchQueueCapacity(1);
+
+		final Map<String, List<DetectionResult>> actual = new HashMap<>();
+		final int processed = batchDetector.detect(invaderPaths, frames.getPath(), 70.0f, collect(actual));
+
+		assertEquals(12, processed);
+		for (Map.Entry<String, List<DetectionResult>> entry : expected.entrySet()) {
+			assertEquals(entry.getValue(), actual.getOrDefault(entry.getKey(), new ArrayList<>()));
+		}
+	}
+
+	@Test(timeout = 60000)
+	public void testDetectorThreadFailedWithError() throws IOException {
+		//The first frame fails with an error instead of an exception, its thread stops but the remaining frames are still detected
+		final AtomicBoolean failed = new AtomicBoolean();
+		final BitPackedDetectionEngine failingEngine = new BitPackedDetectionEngine() {
+			@Override
+			public List<List<DetectionResult>> process(final DetectionContext context) {
+				if (failed.compareAndSet(false, true)) {
+					throw new OutOfMemoryError("Test error of detection");
+				}
+				return super.process(context);
+			}
+		};
+		final BatchDetector failingDetector = new BatchDetector(new MatrixLoaderComponent(), new MappedMatrixLoader(), new BinaryMatrixLoader(), new FileToMatrixTransformer(),
+			new InvaderTemplateCache(detectorProperties), failingEngine, new IncrementalDetector(failingEngine, failingEngine, detectorProperties),
+			new ResultSinkFactory(detectorProperties), new ResultFilter(detectorProperties), new DetectionMetrics(new SimpleMeterRegistry()), detectorProperties);
+
+		final Random random = new Random(16);
+		final List<String> invaderPaths = Arrays.asList(write("invader.txt", randomMatrix(random, 3, 3, 0.6)));
+		final File frames = temporaryFolder.newFolder("frames");
+		for (int frame = 0; frame < 4; frame++) {
+			write(String.format("frames/radar%02d.txt", frame), randomMatrix(random, 20, 20, 0.5));
+		}
+		detectorProperties.setBatchLoaderThreads(1);
+		detectorProperties.setBatchDetectorThreads(2);
+		detectorProperties.setBatchQueueCapacity(1);
+
+		assertEquals(3, failingDetector.detect(invaderPaths, frames.getPath(), 70.0f, collect(new HashMap<>())));
+	}
+
+	@Test
+	public void testGlobPattern() throws IOException {
+		temporaryFolder.newFolder("frames");
+		final Matrix radar = randomMatrix(new Random(15), 10, 10, 0.5);
+		write("frames/radar1.txt", radar);
+		write("frames/radar2.txt", radar);
+		write("frames/other.txt", radar);
+
+		final File frames = new File(temporaryFolder.getRoot(), "frames");
+		assertEquals(Arrays.asList(new File(frames, "radar1.txt").getPath(), new File(frames, "radar2.txt").getPath()),
+			batchDetector.listRadarFiles(new File(frames, "radar*.txt").getPath()));
+		assertEquals(3, batchDetector.listRadarFiles(frames.getPath()).size());
+	}
+
+	private ResultSink collect(final Map<String, List<DetectionResult>> results) {
+		return new ResultSink() {
+			@Override
+			public void write(final String radarName, final String invaderName, final DetectionResult detectionResult) {
+				results.computeIfAbsent(radarName + " " + invaderName, key -> new ArrayList<>()).add(detectionResult);
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	private String write(final String name, final Matrix matrix) throws IOException {
+		final StringBuilder content = new StringBuilder();
+		for (char[] row : matrix.getElements()) {
+			content.append(row).append('\n');
+		}
+
+		final File file = new File(temporaryFolder.getRoot(), name);
+		Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.US_ASCII));
+		return file.getPath();
+	}
+}
@@ -0,0 +1,191 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import fuga.app.invaderdetector.model.ScoreMap;
+import fuga.app.invaderdetector.model.SummedAreaTable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BitPackedDetectionEngineTest {
+
+	private final CharMatrixDetectionEngine referenceEngine = new CharMatrixDetectionEngine();
+	private final BitPackedDetectionEngine detectionEngine = new BitPackedDetectionEngine();
+
+	@Test
+	public void testParityWithReferenceEngine() {
+		final Random random = new Random(42);
+
+		for (int run = 0; run < 20; run++) {
+			final Matrix radarMatrix = randomMatrix(random, 20 + random.nextInt(150), 10 + random.nextInt(30), 0.5);
+			final Matrix invaderMatrix = randomMatrix(random, 1 + random.nextInt(70), 1 + random.nextInt(8), 0.6);
+			final float requiredPercentage = 40.0f + random.nextInt(40);
+
+			final List<DetectionResult> expected = referenceEngine.process(invaderMatrix, radarMatrix, requiredPercentage);
+			final List<DetectionResult> actual = detectionEngine.process(InvaderTemplate.of(invaderMatrix), PackedMatrix.of(radarMatrix), requiredPercentage);
+
+			assertEquals(expected, actual);
+		}
+	}
+
+	@Test
+	public void testParityOnDenseRadar() {
+		final Random random = new Random(7);
+		final Matrix radarMatrix = randomMatrix(random, 200, 20, 0.8);
+		final Matrix invaderMatrix = randomMatrix(random, 65, 5, 0.7);
+
+		final List<DetectionResult> expected = referenceEngine.process(invaderMatrix, radarMatrix, 75.0f);
+
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, detectionEngine.process(InvaderTemplate.of(invaderMatrix), PackedMatrix.of(radarMatrix), 75.0f));
+	}
+
+	@Test
+	public void testParityAtThresholdBounds() {
+		final Random random = new Random(23);
+		final Matrix radarMatrix = randomMatrix(random, 60, 15, 0.7);
+		final Matrix invaderMatrix = randomMatrix(random, 9, 4, 0.5);
+		final Matrix emptyInvaderMatrix = randomMatrix(random, 3, 3, 0.0);
+
+		for (float requiredPercentage : new float[] {0.0f, 100.0f, 100.5f}) {
+			assertEquals(referenceEngine.process(invaderMatrix, radarMatrix, requiredPercentage),
+				detectionEngine.process(InvaderTemplate.of(invaderMatrix), PackedMatrix.of(radarMatrix), requiredPercentage));
+			assertEquals(referenceEngine.process(emptyInvaderMatrix, radarMatrix, requiredPercentage),
+				detectionEngine.process(InvaderTemplate.of(emptyInvaderMatrix), PackedMatrix.of(radarMatrix), requiredPercentage));
+		}
+	}
+
+	@Test
+	public void testMultipleInvadersInSinglePass() {
+		final Random random = new Random(11);
+		final Matrix radarMatrix = randomMatrix(random, 120, 40, 0.6);
+		final List<InvaderTemplate> invaders = Arrays.asList(
+			InvaderTemplate.of(randomMatrix(random, 11, 8, 0.6)),
+			InvaderTemplate.of(randomMatrix(random, 8, 3, 0.6)),
+			InvaderTemplate.of(randomMatrix(random, 20, 45, 0.6)));
+
+		final List<List<DetectionResult>> results = detectionEngine.process(DetectionContext.of(invaders, PackedMatrix.of(radarMatrix), 60.0f));
+
+		assertEquals(invaders.size(), results.size());
+		for (int index = 0; index < invaders.size(); index++) {
+			assertEquals(detectionEngine.process(invaders.get(index), PackedMatrix.of(radarMatrix), 60.0f), results.get(index));
+		}
+	}
+
+	@Test
+	public void testPruningKeepsResults() {
+		final Random random = new Random(13);
+		final PackedMatrix radarMatrix = PackedMatrix.of(randomMatrix(random, 150, 60, 0.3));
+		final List<InvaderTemplate> invaders = Arrays.asList(
+			InvaderTemplate.of(randomMatrix(random, 11, 8, 0.6)),
+			InvaderTemplate.of(randomMatrix(random, 4, 3, 0.5)));
+
+		final DetectionContext context = DetectionContext.of(invaders, radarMatrix, 50.0f);
+		final DetectionContext pruningContext = DetectionContext.withPruning(invaders, radarMatrix, 50.0f);
+
+		assertEquals(detectionEngine.process(context), detectionEngine.process(pruningContext));
+		assertEquals(0, context.getStatistics().getWindowsPruned());
+		assertTrue(pruningContext.getStatistics().getWindowsPruned() > 0);
+		assertEquals(context.getStatistics().getWindowsScored(),
+			pruningContext.getStatistics().getWindowsScored() + pruningContext.getStatistics().getWindowsPruned());
+	}
+
+	@Test
+	public void testSummedAreaTable() {
+		final Random random = new Random(17);
+		final Matrix matrix = randomMatrix(random, 70, 20, 0.5);
+		final SummedAreaTable summedAreaTable = SummedAreaTable.of(PackedMatrix.of(matrix));
+
+		for (int run = 0; run < 100; run++) {
+			final int row = random.nextInt(20);
+			final int column = random.nextInt(70);
+			final int height = random.nextInt(21 - row);
+			final int width = random.nextInt(71 - column);
+
+			int expected = 0;
+			for (int i = row; i < row + height; i++) {
+				for (int j = column; j < column + width; j++) {
+					expected += matrix.getElements()[i][j] == 'o' ? 1 : 0;
+				}
+			}
+
+			assertEquals(expected, summedAreaTable.sum(row, column, height, width));
+		}
+	}
+
+	@Test
+	public void testScoreMapAnswersEveryPercentage() {
+		final Random random = new Random(29);
+
+		for (int run = 0; run < 30; run++) {
+			final InvaderTemplate invader = InvaderTemplate.of(randomMatrix(random, 1 + random.nextInt(80), 1 + random.nextInt(8), 0.5));
+			final PackedMatrix radarMatrix = PackedMatrix.of(randomMatrix(random, 10 + random.nextInt(150), 5 + random.nextInt(30), random.nextDouble()));
+			final ScoreMap scoreMap = detectionEngine.scoreMap(invader, radarMatrix);
+			final long[] histogram = scoreMap.histogram();
+
+			for (float requiredPercentage : new float[] {0.0f, 25.0f, 50.0f, 62.5f, 80.0f, 99.9f, 100.0f}) {
+				final List<DetectionResult> results = detectionEngine.process(invader, radarMatrix, requiredPercentage);
+				assertEquals(results, scoreMap.results(requiredPercentage));
+
+				final int requiredMatches = invader.requiredMatches(requiredPercentage);
+				long tail = 0;
+				for (int matches = Math.min(requiredMatches, histogram.length); matches < histogram.length; matches++) {
+					tail += histogram[matches];
+				}
+				assertEquals(results.size(), tail);
+			}
+
+			assertEquals((long) scoreMap.getRows() * scoreMap.getColumns(), Arrays.stream(histogram).sum());
+		}
+	}
+
+	@Test
+	public void testScoreMapOfLargeInvader() {
+		//More than 255 invader 'o' characters do not fit into a byte per sub-matrix
+		final Random random = new Random(33);
+		final InvaderTemplate invader = InvaderTemplate.of(randomMatrix(random, 100, 6, 0.9));
+		final PackedMatrix radarMatrix = PackedMatrix.of(randomMatrix(random, 140, 20, 0.9));
+		assertTrue(invader.getMatchingCount() > 0xFF);
+
+		final ScoreMap scoreMap = detectionEngine.scoreMap(invader, radarMatrix);
+		for (float requiredPercentage : new float[] {80.0f, 90.0f, 95.0f}) {
+			assertEquals(detectionEngine.process(invader, radarMatrix, requiredPercentage), scoreMap.results(requiredPercentage));
+		}
+		assertEquals((long) scoreMap.getRows() * scoreMap.getColumns(), Arrays.stream(scoreMap.histogram()).sum());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testScoreMapTooLarge() {
+		new ScoreMap(InvaderTemplate.of(randomMatrix(new Random(34), 3, 3, 0.5)), 100000, 100000, (row, column, requiredPercentage, requiredMatches) -> null);
+	}
+
+	@Test
+	public void testPackUnpack() {
+		final Matrix matrix = randomMatrix(new Random(1), 130, 3, 0.5);
+
+		assertEquals(PackedMatrix.of(matrix), PackedMatrix.of(PackedMatrix.of(matrix).toMatrix()));
+	}
+
+	static Matrix randomMatrix(final Random random, final int width, final int height, final double density) {
+		final char[][] elements = new char[height][width];
+
+		for (int i = 0; i < height; i++) {
+			for (int j = 0; j < width; j++) {
+				elements[i][j] = random.nextDouble() < density ? 'o' : '-';
+			}
+		}
+
+		return Matrix.builder().width(width).height(height).elements(elements).build();
+	}
+}
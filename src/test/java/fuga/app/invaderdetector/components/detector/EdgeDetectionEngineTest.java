@@ -0,0 +1,124 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+import static fuga.app.invaderdetector.components.detector.BitPackedDetectionEngineTest.randomMatrix;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EdgeDetectionEngineTest {
+
+	private final BitPackedDetectionEngine directEngine = new BitPackedDetectionEngine();
+	private final DetectorProperties detectorProperties = new DetectorProperties();
+	private final EdgeDetectionEngine edgeEngine = new EdgeDetectionEngine(
+		new AutoDetectionEngine(new ParallelDetectionEngine(directEngine, detectorProperties), new FftDetectionEngine(directEngine),
+		new PyramidDetectionEngine(directEngine, detectorProperties), new ExactMatchDetectionEngine(directEngine), detectorProperties), directEngine, detectorProperties);
+
+	@Test
+	public void testSameResultsAsComparisonOfVisibleCells() {
+		detectorProperties.setEdgeDetection(true);
+		detectorProperties.setEdgeMinimumVisibleFraction(0.3f);
+		final Random random = new Random(17);
+
+		for (int run = 0; run < 4; run++) {
+			final Matrix radar = randomMatrix(random, 60 + random.nextInt(80), 5 + random.nextInt(20), 0.5);
+			final List<Matrix> invaderMatrices = Arrays.asList(randomMatrix(random, 11, 8, 0.6), randomMatrix(random, 70, 3, 0.6), randomMatrix(random, 1, 1, 1.0));
+			final List<InvaderTemplate> invaders = new ArrayList<>();
+			invaderMatrices.forEach(invaderMatrix -> invaders.add(InvaderTemplate.of(invaderMatrix)));
+
+			final List<List<DetectionResult>> results = edgeEngine.process(DetectionContext.withPruning(invaders, PackedMatrix.of(radar), 70.0f));
+
+			for (int index = 0; index < invaders.size(); index++) {
+				assertEquals(compareVisibleCells(invaderMatrices.get(index), radar, 70.0f, 0.3f), results.get(index));
+			}
+		}
+	}
+
+	@Test
+	public void testInvaderPartlyOutsideRadarFound() {
+		final Matrix invaderMatrix = randomMatrix(new Random(18), 8, 6, 0.6);
+		final Matrix radar = randomMatrix(new Random(19), 30, 20, 0.0);
+		//Left half of invader is outside radar image
+		for (int i = 0; i < 6; i++) {
+			System.arraycopy(invaderMatrix.getElements()[i], 4, radar.getElements()[7 + i], 0, 4);
+		}
+		final List<InvaderTemplate> invaders = Arrays.asList(InvaderTemplate.of(invaderMatrix));
+
+		assertTrue(edgeEngine.process(DetectionContext.of(invaders, PackedMatrix.of(radar), 100.0f)).get(0).isEmpty());
+
+		detectorProperties.setEdgeDetection(true);
+		detectorProperties.setEdgeMinimumVisibleFraction(0.2f);
+		final List<DetectionResult> results = edgeEngine.process(DetectionContext.of(invaders, PackedMatrix.of(radar), 100.0f)).get(0);
+
+		assertTrue(results.stream().anyMatch(result -> result.getRowStart() == 7 && result.getColumnStart() == -4 && result.getColumnEnd() == 3));
+	}
+
+	/**
+	 * Compares invader with every radar sub-matrix which has at least one cell inside radar, one cell at a time, counting only cells inside radar
+	 */
+	private List<DetectionResult> compareVisibleCells(final Matrix invader, final Matrix radar, final float requiredPercentage, final float minimumVisibleFraction) {
+		final List<DetectionResult> results = new ArrayList<>();
+		final int matchingCount = PackedMatrix.of(invader).count();
+
+		for (int row = 1 - invader.getHeight(); row < radar.getHeight(); row++) {
+			for (int column = 1 - invader.getWidth(); column < radar.getWidth(); column++) {
+				int visible = 0;
+				int exactMatches = 0;
+				int noise = 0;
+				int junk = 0;
+
+				for (int i = 0; i < invader.getHeight(); i++) {
+					for (int j = 0; j < invader.getWidth(); j++) {
+						final int radarRow = row + i;
+						final int radarColumn = column + j;
+						if (radarRow < 0 || radarRow >= radar.getHeight() || radarColumn < 0 || radarColumn >= radar.getWidth()) {
+							continue;
+						}
+
+						final boolean invaderCell = invader.getElements()[i][j] == 'o';
+						final boolean radarCell = radar.getElements()[radarRow][radarColumn] == 'o';
+						if (invaderCell) {
+							visible++;
+							exactMatches += radarCell ? 1 : 0;
+						} else if (radarCell) {
+							if (hasNeighbour(invader, i, j)) {
+								noise++;
+							} else {
+								junk++;
+							}
+						}
+					}
+				}
+
+				if (visible > 0 && visible >= minimumVisibleFraction * matchingCount && exactMatches * 100.0f / visible >= requiredPercentage) {
+					results.add(DetectionResult.of(row, column, invader.getHeight(), invader.getWidth(), exactMatches * 100.0f / visible, noise, junk));
+				}
+			}
+		}
+
+		return results;
+	}
+
+	private boolean hasNeighbour(final Matrix invader, final int row, final int column) {
+		for (int i = Math.max(0, row - 1); i <= Math.min(invader.getHeight() - 1, row + 1); i++) {
+			for (int j = Math.max(0, column - 1); j <= Math.min(invader.getWidth() - 1, column + 1); j++) {
+				if ((i != row || j != column) && invader.getElements()[i][j] == 'o') {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
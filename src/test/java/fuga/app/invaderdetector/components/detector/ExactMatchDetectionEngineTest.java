@@ -0,0 +1,101 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+import static fuga.app.invaderdetector.components.detector.BitPackedDetectionEngineTest.randomMatrix;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExactMatchDetectionEngineTest {
+
+	private final BitPackedDetectionEngine directEngine = new BitPackedDetectionEngine();
+	private final DetectorProperties detectorProperties = new DetectorProperties();
+	private final ExactMatchDetectionEngine exactEngine = new ExactMatchDetectionEngine(directEngine);
+	private final AutoDetectionEngine autoEngine = new AutoDetectionEngine(new ParallelDetectionEngine(directEngine, detectorProperties),
+		new FftDetectionEngine(directEngine), new PyramidDetectionEngine(directEngine, detectorProperties), exactEngine, detectorProperties);
+
+	@Test
+	public void testSameResultsAsFullComparison() {
+		final Random random = new Random(25);
+
+		for (int run = 0; run < 80; run++) {
+			final Matrix radar = randomMatrix(random, 20 + random.nextInt(200), 10 + random.nextInt(40), 0.3 + random.nextDouble() * 0.6);
+			final Matrix invader1 = randomMatrix(random, 1 + random.nextInt(90), 1 + random.nextInt(8), 0.6);
+			final Matrix invader2 = randomMatrix(random, 1 + random.nextInt(6), 1 + random.nextInt(6), 0.5);
+			plant(radar, invader1, random);
+			plant(radar, invader2, random);
+
+			final List<InvaderTemplate> invaders = Arrays.asList(InvaderTemplate.of(invader1), InvaderTemplate.of(invader2));
+			final PackedMatrix radarMatrix = PackedMatrix.of(radar);
+			if (invaders.stream().anyMatch(invader -> invader.getMatchingCount() == 0)) {
+				continue;
+			}
+
+			assertEquals(directEngine.process(DetectionContext.of(invaders, radarMatrix, 100.0f)),
+				exactEngine.process(DetectionContext.of(invaders, radarMatrix, 100.0f)));
+			assertEquals(directEngine.process(DetectionContext.of(invaders, radarMatrix, 100.0f).withRowLimit(5)),
+				exactEngine.process(DetectionContext.of(invaders, radarMatrix, 100.0f).withRowLimit(5)));
+		}
+	}
+
+	@Test
+	public void testPlantedInvaderWithNoiseFound() {
+		final Random random = new Random(26);
+		final Matrix radar = randomMatrix(random, 300, 200, 0.2);
+		final Matrix invader = randomMatrix(random, 70, 6, 0.7);
+
+		//Radar cells around invader 'o' characters stay as they are, so found sub-matrix has noise and junk
+		for (int i = 0; i < invader.getHeight(); i++) {
+			for (int j = 0; j < invader.getWidth(); j++) {
+				if (invader.getElements()[i][j] == 'o') {
+					radar.setElement(150 + i, 200 + j, 'o');
+				}
+			}
+		}
+
+		final List<InvaderTemplate> invaders = Arrays.asList(InvaderTemplate.of(invader));
+		final DetectionContext context = DetectionContext.of(invaders, PackedMatrix.of(radar), 100.0f);
+		final List<List<DetectionResult>> results = autoEngine.process(context);
+
+		assertEquals(directEngine.process(DetectionContext.of(invaders, PackedMatrix.of(radar), 100.0f)), results);
+		assertTrue(results.get(0).stream().anyMatch(result -> result.getRowStart() == 150 && result.getColumnStart() == 200 && result.getNoise() > 0));
+		assertTrue(context.getStatistics().getWindowsScored() < 100);
+	}
+
+	@Test
+	public void testOnlyCompleteMatchesAreExact() {
+		final InvaderTemplate invader = InvaderTemplate.of(randomMatrix(new Random(27), 10, 10, 0.5));
+
+		assertTrue(ExactMatchDetectionEngine.isExact(invader, invader.requiredMatches(100.0f)));
+		assertFalse(ExactMatchDetectionEngine.isExact(invader, invader.requiredMatches(90.0f)));
+		assertFalse(ExactMatchDetectionEngine.isExact(InvaderTemplate.of(randomMatrix(new Random(28), 3, 3, 0.0)), Integer.MAX_VALUE));
+	}
+
+	private void plant(final Matrix radar, final Matrix invader, final Random random) {
+		if (invader.getWidth() > radar.getWidth() || invader.getHeight() > radar.getHeight()) {
+			return;
+		}
+
+		final int row = random.nextInt(radar.getHeight() - invader.getHeight() + 1);
+		final int column = random.nextInt(radar.getWidth() - invader.getWidth() + 1);
+		for (int i = 0; i < invader.getHeight(); i++) {
+			for (int j = 0; j < invader.getWidth(); j++) {
+				if (invader.getElements()[i][j] == 'o') {
+					radar.setElement(row + i, column + j, 'o');
+				}
+			}
+		}
+	}
+}
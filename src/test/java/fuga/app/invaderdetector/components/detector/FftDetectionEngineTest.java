@@ -0,0 +1,60 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+import static fuga.app.invaderdetector.components.detector.BitPackedDetectionEngineTest.randomMatrix;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class FftDetectionEngineTest {
+
+	private final BitPackedDetectionEngine directEngine = new BitPackedDetectionEngine();
+	private final FftDetectionEngine fftEngine = new FftDetectionEngine(directEngine);
+
+	@Test
+	public void testSameResultsAsDirectComparison() {
+		final Random random = new Random(29);
+
+		for (int run = 0; run < 5; run++) {
+			final PackedMatrix radarMatrix = PackedMatrix.of(randomMatrix(random, 100 + random.nextInt(100), 50 + random.nextInt(50), 0.6));
+			final List<InvaderTemplate> invaders = Arrays.asList(
+				InvaderTemplate.of(randomMatrix(random, 1 + random.nextInt(80), 1 + random.nextInt(40), 0.6)),
+				InvaderTemplate.of(randomMatrix(random, 300, 2, 0.6)));
+			final float requiredPercentage = 55.0f + random.nextInt(10);
+
+			final List<List<DetectionResult>> expected = directEngine.process(DetectionContext.of(invaders, radarMatrix, requiredPercentage));
+
+			assertEquals(expected, fftEngine.process(DetectionContext.of(invaders, radarMatrix, requiredPercentage)));
+		}
+	}
+
+	@Test
+	public void testAutoSelectionKeepsInvaderOrder() {
+		final DetectorProperties detectorProperties = new DetectorProperties();
+		detectorProperties.setFftMinimumInvaderArea(100);
+		final AutoDetectionEngine autoEngine = new AutoDetectionEngine(new ParallelDetectionEngine(directEngine, detectorProperties), fftEngine,
+			new PyramidDetectionEngine(directEngine, detectorProperties), new ExactMatchDetectionEngine(directEngine), detectorProperties);
+
+		final Random random = new Random(31);
+		final PackedMatrix radarMatrix = PackedMatrix.of(randomMatrix(random, 120, 60, 0.7));
+		final List<InvaderTemplate> invaders = Arrays.asList(
+			InvaderTemplate.of(randomMatrix(random, 20, 10, 0.7)),
+			InvaderTemplate.of(randomMatrix(random, 5, 4, 0.7)),
+			InvaderTemplate.of(randomMatrix(random, 12, 12, 0.7)));
+
+		final List<List<DetectionResult>> expected = directEngine.process(DetectionContext.of(invaders, radarMatrix, 60.0f));
+
+		assertFalse(expected.get(0).isEmpty());
+		assertEquals(expected, autoEngine.process(DetectionContext.withPruning(invaders, radarMatrix, 60.0f)));
+	}
+}
@@ -0,0 +1,123 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.DetectionStatistics;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.InvaderVariant;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+import static fuga.app.invaderdetector.components.detector.BitPackedDetectionEngineTest.randomMatrix;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IncrementalDetectorTest {
+
+	private final BitPackedDetectionEngine detectionEngine = new BitPackedDetectionEngine();
+	private final DetectorProperties detectorProperties = new DetectorProperties();
+	private final IncrementalDetector incrementalDetector = new IncrementalDetector(detectionEngine, detectionEngine, detectorProperties);
+
+	@Test
+	public void testSameResultsAsFullScan() {
+		final Random random = new Random(15);
+		final List<InvaderTemplate> invaders = Arrays.asList(
+			InvaderTemplate.of(randomMatrix(random, 11, 8, 0.6)),
+			InvaderTemplate.of(randomMatrix(random, 70, 3, 0.6)),
+			InvaderTemplate.of(randomMatrix(random, 2, 2, 0.6)));
+		final Matrix radarMatrix = randomMatrix(random, 150, 60, 0.6);
+
+		final IncrementalDetector.Session session = incrementalDetector.start(invaders, 60.0f);
+		final DetectionStatistics statistics = new DetectionStatistics();
+
+		for (int frame = 0; frame < 20; frame++) {
+			//Frames differ in a few random cells
+			for (int change = 0; change < 3; change++) {
+				final int row = random.nextInt(radarMatrix.getHeight());
+				final int column = random.nextInt(radarMatrix.getWidth());
+				radarMatrix.setElement(row, column, radarMatrix.getElements()[row][column] == 'o' ? '-' : 'o');
+			}
+
+			final PackedMatrix packedRadar = PackedMatrix.of(radarMatrix);
+			final List<List<DetectionResult>> expected = detectionEngine.process(DetectionContext.of(invaders, packedRadar, 60.0f));
+			assertEquals(expected, session.process(packedRadar, statistics));
+		}
+
+		assertTrue(statistics.getWindowsReused() > 10 * statistics.getWindowsScored());
+	}
+
+	@Test
+	public void testSameResultsAsFullScanOfVariants() {
+		detectorProperties.setInvaderVariants(EnumSet.allOf(InvaderVariant.class));
+		assertSameResultsAsFullScan(18);
+	}
+
+	@Test
+	public void testSameResultsAsFullScanWithEdgeDetection() {
+		detectorProperties.setInvaderVariants(EnumSet.of(InvaderVariant.ROTATE_90));
+		detectorProperties.setEdgeDetection(true);
+		assertSameResultsAsFullScan(19);
+	}
+
+	private void assertSameResultsAsFullScan(final long seed) {
+		final VariantDetectionEngine variantEngine = new VariantDetectionEngine(new EdgeDetectionEngine(new AutoDetectionEngine(
+			new ParallelDetectionEngine(detectionEngine, detectorProperties), new FftDetectionEngine(detectionEngine),
+			new PyramidDetectionEngine(detectionEngine, detectorProperties), new ExactMatchDetectionEngine(detectionEngine), detectorProperties),
+			detectionEngine, detectorProperties), detectorProperties);
+		final IncrementalDetector variantDetector = new IncrementalDetector(variantEngine, detectionEngine, detectorProperties);
+
+		final Random random = new Random(seed);
+		final List<InvaderTemplate> invaders = Arrays.asList(InvaderTemplate.of(randomMatrix(random, 6, 3, 0.6)), InvaderTemplate.of(randomMatrix(random, 2, 2, 0.5)));
+		final Matrix radarMatrix = randomMatrix(random, 80, 50, 0.6);
+		final IncrementalDetector.Session session = variantDetector.start(invaders, 65.0f);
+		final DetectionStatistics statistics = new DetectionStatistics();
+
+		for (int frame = 0; frame < 10; frame++) {
+			radarMatrix.setElement(random.nextInt(radarMatrix.getHeight()), random.nextInt(radarMatrix.getWidth()), random.nextBoolean() ? 'o' : '-');
+
+			final PackedMatrix packedRadar = PackedMatrix.of(radarMatrix);
+			assertEquals(variantEngine.process(DetectionContext.of(invaders, packedRadar, 65.0f)), session.process(packedRadar, statistics));
+		}
+
+		assertTrue(statistics.getWindowsReused() > statistics.getWindowsScored());
+	}
+
+	@Test
+	public void testFrameOfDifferentSizeScannedFromScratch() {
+		final Random random = new Random(16);
+		final List<InvaderTemplate> invaders = Arrays.asList(InvaderTemplate.of(randomMatrix(random, 5, 4, 0.6)));
+		final IncrementalDetector.Session session = incrementalDetector.start(invaders, 50.0f);
+
+		session.process(randomMatrix(random, 30, 20, 0.5));
+		final Matrix radarMatrix = randomMatrix(random, 31, 20, 0.5);
+		final DetectionStatistics statistics = new DetectionStatistics();
+
+		assertEquals(detectionEngine.process(invaders.get(0), PackedMatrix.of(radarMatrix), 50.0f),
+			session.process(PackedMatrix.of(radarMatrix), statistics).get(0));
+		assertEquals(0, statistics.getWindowsReused());
+	}
+
+	@Test
+	public void testDirtyOrigins() {
+		final PackedMatrix changes = new PackedMatrix(130, 10);
+		changes.set(5, 66);
+		final InvaderTemplate invader = InvaderTemplate.of(randomMatrix(new Random(17), 3, 2, 0.6));
+
+		final PackedMatrix origins = IncrementalDetector.dirtyOrigins(changes, invader);
+
+		assertEquals(6, origins.count());
+		for (int row = 4; row <= 5; row++) {
+			for (int column = 64; column <= 66; column++) {
+				assertTrue(origins.get(row, column));
+			}
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+import static fuga.app.invaderdetector.components.detector.BitPackedDetectionEngineTest.randomMatrix;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ParallelDetectionEngineTest {
+
+	private final BitPackedDetectionEngine sequentialEngine = new BitPackedDetectionEngine();
+	private final ParallelDetectionEngine parallelEngine = new ParallelDetectionEngine(sequentialEngine, parallelProperties());
+
+	@After
+	public void tearDown() {
+		parallelEngine.shutdown();
+	}
+
+	@Test
+	public void testSameResultsInSameOrder() {
+		final Random random = new Random(3);
+		final PackedMatrix radarMatrix = PackedMatrix.of(randomMatrix(random, 300, 500, 0.6));
+		final InvaderTemplate invader = InvaderTemplate.of(randomMatrix(random, 11, 8, 0.6));
+
+		final List<DetectionResult> expected = sequentialEngine.process(invader, radarMatrix, 65.0f);
+
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, parallelEngine.process(invader, radarMatrix, 65.0f));
+	}
+
+	@Test
+	public void testInvaderLargerThanRadar() {
+		final Random random = new Random(5);
+		final Matrix radarMatrix = randomMatrix(random, 10, 10, 0.5);
+		final InvaderTemplate invader = InvaderTemplate.of(randomMatrix(random, 5, 20, 0.5));
+
+		assertEquals(0, parallelEngine.process(invader, PackedMatrix.of(radarMatrix), 0.0f).size());
+	}
+
+	private static DetectorProperties parallelProperties() {
+		final DetectorProperties detectorProperties = new DetectorProperties();
+		detectorProperties.setParallelism(4);
+		return detectorProperties;
+	}
+}
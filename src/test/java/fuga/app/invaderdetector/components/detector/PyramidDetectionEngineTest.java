@@ -0,0 +1,104 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import fuga.app.invaderdetector.model.RadarPyramid;
+
+import static fuga.app.invaderdetector.components.detector.BitPackedDetectionEngineTest.randomMatrix;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PyramidDetectionEngineTest {
+
+	private final BitPackedDetectionEngine directEngine = new BitPackedDetectionEngine();
+	private final DetectorProperties detectorProperties = new DetectorProperties();
+	private final PyramidDetectionEngine pyramidEngine = new PyramidDetectionEngine(directEngine, detectorProperties);
+
+	@Test
+	public void testPyramidLevels() {
+		final PackedMatrix radarMatrix = PackedMatrix.of(randomMatrix(new Random(22), 150, 20, 0.05));
+		final RadarPyramid pyramid = RadarPyramid.of(radarMatrix, 3);
+
+		for (int level = 0; level <= pyramid.getTopLevel(); level++) {
+			final int blockSize = 1 << level;
+			for (int i = 0; i < radarMatrix.getHeight(); i++) {
+				for (int j = 0; j < radarMatrix.getWidth(); j++) {
+					boolean expected = false;
+					for (int k = i; k < Math.min(i + blockSize, radarMatrix.getHeight()); k++) {
+						for (int l = j; l < Math.min(j + blockSize, radarMatrix.getWidth()); l++) {
+							expected |= radarMatrix.get(k, l);
+						}
+					}
+					assertEquals(expected, pyramid.getLevel(level).get(i, j));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSameResultsAsExhaustiveScan() {
+		final Random random = new Random(23);
+
+		for (int run = 0; run < 60; run++) {
+			detectorProperties.setPyramidLevels(1 + random.nextInt(4));
+			final Matrix radar = randomMatrix(random, 40 + random.nextInt(150), 20 + random.nextInt(40), 0.05 + random.nextDouble() * 0.5);
+			final Matrix invader1 = randomMatrix(random, 1 + random.nextInt(70), 1 + random.nextInt(12), 0.6);
+			final Matrix invader2 = randomMatrix(random, 2 + random.nextInt(10), 2 + random.nextInt(10), 0.6);
+			plant(radar, invader1, random);
+			plant(radar, invader2, random);
+
+			final List<InvaderTemplate> invaders = Arrays.asList(InvaderTemplate.of(invader1), InvaderTemplate.of(invader2));
+			final PackedMatrix radarMatrix = PackedMatrix.of(radar);
+			final float requiredPercentage = 50.0f + random.nextInt(51);
+
+			assertEquals(directEngine.process(DetectionContext.of(invaders, radarMatrix, requiredPercentage)),
+				pyramidEngine.process(DetectionContext.of(invaders, radarMatrix, requiredPercentage)));
+			assertEquals(directEngine.process(DetectionContext.withPruning(invaders, radarMatrix, requiredPercentage).withRowLimit(10)),
+				pyramidEngine.process(DetectionContext.withPruning(invaders, radarMatrix, requiredPercentage).withRowLimit(10)));
+			assertEquals(directEngine.process(DetectionContext.of(invaders, radarMatrix, requiredPercentage).withResultLimit(3)),
+				pyramidEngine.process(DetectionContext.of(invaders, radarMatrix, requiredPercentage).withResultLimit(3)));
+		}
+	}
+
+	@Test
+	public void testSparseRadarScoresFewWindows() {
+		final Random random = new Random(24);
+		final Matrix radar = randomMatrix(random, 1000, 1000, 0.001);
+		final Matrix invader = randomMatrix(random, 11, 8, 0.7);
+		plant(radar, invader, random);
+
+		detectorProperties.setPyramidLevels(3);
+		final List<InvaderTemplate> invaders = Arrays.asList(InvaderTemplate.of(invader));
+		final DetectionContext context = DetectionContext.of(invaders, PackedMatrix.of(radar), 80.0f);
+		final List<List<DetectionResult>> results = pyramidEngine.process(context);
+
+		assertEquals(directEngine.process(DetectionContext.of(invaders, PackedMatrix.of(radar), 80.0f)), results);
+		assertEquals(1, results.get(0).size());
+
+		final long windows = (1000L - 11 + 1) * (1000 - 8 + 1);
+		assertEquals(windows, context.getStatistics().getWindowsScored() + context.getStatistics().getWindowsPruned());
+		assertTrue(context.getStatistics().getWindowsScored() < windows / 100);
+	}
+
+	private void plant(final Matrix radar, final Matrix invader, final Random random) {
+		if (invader.getWidth() > radar.getWidth() || invader.getHeight() > radar.getHeight()) {
+			return;
+		}
+
+		final int row = random.nextInt(radar.getHeight() - invader.getHeight() + 1);
+		final int column = random.nextInt(radar.getWidth() - invader.getWidth() + 1);
+		for (int i = 0; i < invader.getHeight(); i++) {
+			System.arraycopy(invader.getElements()[i], 0, radar.getElements()[row + i], column, invader.getWidth());
+		}
+	}
+}
@@ -1,7 +1,12 @@
 package fuga.app.invaderdetector.components.detector;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -9,13 +14,27 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import fuga.app.invaderdetector.components.filter.ResultFilter;
+import fuga.app.invaderdetector.components.loader.BinaryMatrixLoader;
+import fuga.app.invaderdetector.components.loader.InvaderTemplateCache;
 import fuga.app.invaderdetector.components.loader.MatrixLoaderComponent;
+import fuga.app.invaderdetector.components.metrics.DetectionMetrics;
 import fuga.app.invaderdetector.components.printer.ResultPrinter;
+import fuga.app.invaderdetector.components.sink.ResultSink;
+import fuga.app.invaderdetector.components.sink.ResultSinkFactory;
 import fuga.app.invaderdetector.components.transformer.FileToMatrixTransformer;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
 import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.InvaderVariant;
 import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
@@ -98,6 +117,39 @@ public class SpaceInvaderDetectorTest {
 	@Mock
 	private FileToMatrixTransformer fileToMatrixTransformer;
 
+	@Spy
+	private DetectorProperties detectorProperties = new DetectorProperties();
+
+	@Spy
+	private InvaderTemplateCache invaderTemplateCache = new InvaderTemplateCache(detectorProperties);
+
+	@Spy
+	private ResultSinkFactory resultSinkFactory = new ResultSinkFactory(detectorProperties);
+
+	@Mock
+	private ResultSink resultSink;
+
+	@Spy
+	private BinaryMatrixLoader binaryMatrixLoader = new BinaryMatrixLoader();
+
+	//Spied properties are a copy of the instance given to other components, so result filter is configured through its own properties
+	private final DetectorProperties filterProperties = new DetectorProperties();
+
+	@Spy
+	private ResultFilter resultFilter = new ResultFilter(filterProperties);
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Spy
+	private DetectionMetrics detectionMetrics = new DetectionMetrics(meterRegistry);
+
+	@Spy
+	private BitPackedDetectionEngine bitPackedDetectionEngine = new BitPackedDetectionEngine();
+
+	@Spy
+	private DetectionEngine detectionEngine = new AutoDetectionEngine(new ParallelDetectionEngine(new BitPackedDetectionEngine(), detectorProperties),
+		new FftDetectionEngine(new BitPackedDetectionEngine()), new PyramidDetectionEngine(new BitPackedDetectionEngine(), detectorProperties), new ExactMatchDetectionEngine(new BitPackedDetectionEngine()), detectorProperties);
+
 	@InjectMocks
 	private SpaceInvaderDetector spaceInvaderDetector;
 
@@ -147,4 +199,188 @@ public class SpaceInvaderDetectorTest {
 		assertEquals(1, detectionResults.get(0).getNoise());
 	}
 
+	@Test
+	public void testMultipleInvadersLoadRadarOnce() {
+		when(matrixLoaderComponent.loadFromFile(INVADER1_PATH)).thenReturn(invader1FileLines);
+		when(matrixLoaderComponent.loadFromFile(INVADER2_PATH)).thenReturn(invader2FileLines);
+		when(matrixLoaderComponent.loadFromFile(RADAR1_PATH)).thenReturn(radar1FileLines);
+
+		final Matrix invader1Matrix = Matrix.builder().elements(invader1MatrixElements).width(invader1MatrixElements[0].length).height(invader1MatrixElements.length).build();
+		final Matrix invader2Matrix = Matrix.builder().elements(invader2MatrixElements).width(invader2MatrixElements[0].length).height(invader2MatrixElements.length).build();
+		final Matrix radarMatrix = Matrix.builder().elements(radar1MatrixElements).width(radar1MatrixElements[0].length).height(radar1MatrixElements.length).build();
+
+		when(fileToMatrixTransformer.transform(invader1FileLines)).thenReturn(invader1Matrix);
+		when(fileToMatrixTransformer.transform(invader2FileLines)).thenReturn(invader2Matrix);
+		when(fileToMatrixTransformer.transform(radar1FileLines)).thenReturn(radarMatrix);
+
+		spaceInvaderDetector.detect(Arrays.asList(INVADER1_PATH, INVADER2_PATH), RADAR1_PATH, FULL_MATCH_PERCENTAGE);
+
+		verify(matrixLoaderComponent, times(1)).loadFromFile(RADAR1_PATH);
+		verify(resultPrinter).print(argumentCaptor.capture(), eq(radarMatrix), eq(invader1Matrix));
+		assertEquals(4, argumentCaptor.getValue().size());
+
+		verify(resultPrinter).print(argumentCaptor.capture(), eq(radarMatrix), eq(invader2Matrix));
+		assertEquals(46, argumentCaptor.getValue().size());
+	}
+
+	@Test
+	public void testResultsWrittenToSink() throws IOException {
+		when(matrixLoaderComponent.loadFromFile(INVADER1_PATH)).thenReturn(invader1FileLines);
+		when(matrixLoaderComponent.loadFromFile(INVADER2_PATH)).thenReturn(invader2FileLines);
+		when(matrixLoaderComponent.loadFromFile(RADAR1_PATH)).thenReturn(radar1FileLines);
+
+		final Matrix invader1Matrix = Matrix.builder().elements(invader1MatrixElements).width(invader1MatrixElements[0].length).height(invader1MatrixElements.length).build();
+		final Matrix invader2Matrix = Matrix.builder().elements(invader2MatrixElements).width(invader2MatrixElements[0].length).height(invader2MatrixElements.length).build();
+		final Matrix radarMatrix = Matrix.builder().elements(radar1MatrixElements).width(radar1MatrixElements[0].length).height(radar1MatrixElements.length).build();
+
+		when(fileToMatrixTransformer.transform(invader1FileLines)).thenReturn(invader1Matrix);
+		when(fileToMatrixTransformer.transform(invader2FileLines)).thenReturn(invader2Matrix);
+		when(fileToMatrixTransformer.transform(radar1FileLines)).thenReturn(radarMatrix);
+
+		spaceInvaderDetector.detect(Arrays.asList(INVADER1_PATH, INVADER2_PATH), RADAR1_PATH, FULL_MATCH_PERCENTAGE, resultSink);
+
+		verify(resultSink, times(4)).write(eq(RADAR1_PATH), eq(INVADER1_PATH), any(DetectionResult.class));
+		verify(resultSink, times(46)).write(eq(RADAR1_PATH), eq(INVADER2_PATH), any(DetectionResult.class));
+		verifyZeroInteractions(resultPrinter);
+	}
+
+	@Test
+	public void testInvaderLoadedOnceAcrossRuns() {
+		when(matrixLoaderComponent.loadFromFile(INVADER2_PATH)).thenReturn(invader2FileLines);
+		when(matrixLoaderComponent.loadFromFile(RADAR2_PATH)).thenReturn(radar2FileLines);
+
+		final Matrix invader2Matrix = Matrix.builder().elements(invader2MatrixElements).width(invader2MatrixElements[0].length).height(invader2MatrixElements.length).build();
+		final Matrix radarMatrix = Matrix.builder().elements(radar2MatrixElements).width(radar2MatrixElements[0].length).height(radar2MatrixElements.length).build();
+
+		when(fileToMatrixTransformer.transform(invader2FileLines)).thenReturn(invader2Matrix);
+		when(fileToMatrixTransformer.transform(radar2FileLines)).thenReturn(radarMatrix);
+
+		spaceInvaderDetector.detect(INVADER2_PATH, RADAR2_PATH, FULL_MATCH_PERCENTAGE);
+		spaceInvaderDetector.detect(INVADER2_PATH, RADAR2_PATH, FULL_MATCH_PERCENTAGE);
+
+		verify(matrixLoaderComponent, times(1)).loadFromFile(INVADER2_PATH);
+		verify(matrixLoaderComponent, times(2)).loadFromFile(RADAR2_PATH);
+		verify(resultPrinter, times(2)).print(anyList(), eq(radarMatrix), eq(invader2Matrix));
+		assertEquals(1, invaderTemplateCache.getHits());
+		assertEquals(1, invaderTemplateCache.getMisses());
+	}
+
+	@Test
+	public void testMetricsRecorded() {
+		when(matrixLoaderComponent.loadFromFile(INVADER1_PATH)).thenReturn(invader1FileLines);
+		when(matrixLoaderComponent.loadFromFile(INVADER2_PATH)).thenReturn(invader2FileLines);
+		when(matrixLoaderComponent.loadFromFile(RADAR1_PATH)).thenReturn(radar1FileLines);
+
+		final Matrix invader1Matrix = Matrix.builder().elements(invader1MatrixElements).width(invader1MatrixElements[0].length).height(invader1MatrixElements.length).build();
+		final Matrix invader2Matrix = Matrix.builder().elements(invader2MatrixElements).width(invader2MatrixElements[0].length).height(invader2MatrixElements.length).build();
+		final Matrix radarMatrix = Matrix.builder().elements(radar1MatrixElements).width(radar1MatrixElements[0].length).height(radar1MatrixElements.length).build();
+
+		when(fileToMatrixTransformer.transform(invader1FileLines)).thenReturn(invader1Matrix);
+		when(fileToMatrixTransformer.transform(invader2FileLines)).thenReturn(invader2Matrix);
+		when(fileToMatrixTransformer.transform(radar1FileLines)).thenReturn(radarMatrix);
+
+		spaceInvaderDetector.detect(Arrays.asList(INVADER1_PATH, INVADER2_PATH), RADAR1_PATH, FULL_MATCH_PERCENTAGE);
+
+		for (String stage : Arrays.asList("transform", "detect", "print")) {
+			assertEquals(1, meterRegistry.get(DetectionMetrics.STAGE_DURATION).tag("stage", stage).timer().count());
+		}
+		//Invaders and radar image are loaded separately
+		assertEquals(2, meterRegistry.get(DetectionMetrics.STAGE_DURATION).tag("stage", "load").timer().count());
+
+		final long windows = (44 - 11 + 1) * (4 - 4 + 1) + (44 - 2 + 1) * (4 - 2 + 1);
+		assertEquals(windows, meterRegistry.get(DetectionMetrics.WINDOWS_SCORED).counter().count()
+			+ meterRegistry.get(DetectionMetrics.WINDOWS_PRUNED).counter().count(), 0.0);
+		assertEquals(4 + 46, meterRegistry.get(DetectionMetrics.MATCHES).counter().count(), 0.0);
+		assertEquals(new File(INVADER1_PATH).length() + new File(INVADER2_PATH).length() + new File(RADAR1_PATH).length(),
+			meterRegistry.get(DetectionMetrics.BYTES_READ).counter().count(), 0.0);
+	}
+
+	@Test
+	public void testResultLimitAppliedAfterSuppression() {
+		//Second invader matches less than overlapping neighbours of the first one, which are suppressed
+		final List<String> radarFileLines = Arrays.asList(
+			"ooooooooooooo-----------ooooo-",
+			"o-ooooooo-ooo-----o-ooooooo-o-",
+			"o-o-----o-ooo-----o-o-----o-o-",
+			"---oo-oo---oo--------oo-oo----"
+		);
+		when(matrixLoaderComponent.loadFromFile(INVADER1_PATH)).thenReturn(invader1FileLines);
+		final Matrix invader1Matrix = Matrix.builder().elements(invader1MatrixElements).width(invader1MatrixElements[0].length).height(invader1MatrixElements.length).build();
+		when(fileToMatrixTransformer.transform(invader1FileLines)).thenReturn(invader1Matrix);
+		final PackedMatrix radarMatrix = PackedMatrix.of(new FileToMatrixTransformer().transform(radarFileLines));
+
+		for (DetectorProperties properties : Arrays.asList(detectorProperties, filterProperties)) {
+			properties.setNonMaximumSuppression(true);
+			properties.setResultLimit(2);
+		}
+		final List<DetectionResult> detectionResults = spaceInvaderDetector.detect(Arrays.asList(INVADER1_PATH), radarMatrix, 75.0f).get(0);
+
+		assertEquals(2, detectionResults.size());
+		assertEquals(0, detectionResults.get(0).getColumnStart());
+		assertEquals(FULL_MATCH_PERCENTAGE, detectionResults.get(0).getMatchingPercentage(), 0.0f);
+		assertEquals(18, detectionResults.get(1).getColumnStart());
+	}
+
+	@Test
+	public void testSweepScoresRadarOnce() {
+		when(matrixLoaderComponent.loadFromFile(INVADER1_PATH)).thenReturn(invader1FileLines);
+		when(matrixLoaderComponent.loadFromFile(INVADER2_PATH)).thenReturn(invader2FileLines);
+		when(matrixLoaderComponent.loadFromFile(RADAR1_PATH)).thenReturn(radar1FileLines);
+
+		final Matrix invader1Matrix = Matrix.builder().elements(invader1MatrixElements).width(invader1MatrixElements[0].length).height(invader1MatrixElements.length).build();
+		final Matrix invader2Matrix = Matrix.builder().elements(invader2MatrixElements).width(invader2MatrixElements[0].length).height(invader2MatrixElements.length).build();
+		final Matrix radarMatrix = Matrix.builder().elements(radar1MatrixElements).width(radar1MatrixElements[0].length).height(radar1MatrixElements.length).build();
+
+		when(fileToMatrixTransformer.transform(invader1FileLines)).thenReturn(invader1Matrix);
+		when(fileToMatrixTransformer.transform(invader2FileLines)).thenReturn(invader2Matrix);
+		when(fileToMatrixTransformer.transform(radar1FileLines)).thenReturn(radarMatrix);
+
+		final List<Float> percentages = Arrays.asList(50.0f, 80.0f, FULL_MATCH_PERCENTAGE);
+		final Map<Float, List<List<DetectionResult>>> sweepResults = spaceInvaderDetector.sweep(Arrays.asList(INVADER1_PATH, INVADER2_PATH), RADAR1_PATH, percentages);
+
+		verify(matrixLoaderComponent, times(1)).loadFromFile(RADAR1_PATH);
+		verify(detectionEngine, never()).process(any());
+		verify(bitPackedDetectionEngine, times(2)).scoreMap(any(), any());
+
+		assertEquals(percentages, new ArrayList<>(sweepResults.keySet()));
+		for (float percentage : percentages) {
+			assertEquals(spaceInvaderDetector.detect(Arrays.asList(INVADER1_PATH, INVADER2_PATH), PackedMatrix.of(radarMatrix), percentage),
+				sweepResults.get(percentage));
+		}
+		assertEquals(4, sweepResults.get(FULL_MATCH_PERCENTAGE).get(0).size());
+	}
+	@Test
+	public void testSweepAppliesDetectionConfiguration() {
+		when(matrixLoaderComponent.loadFromFile(INVADER1_PATH)).thenReturn(invader1FileLines);
+		when(matrixLoaderComponent.loadFromFile(INVADER2_PATH)).thenReturn(invader2FileLines);
+		when(matrixLoaderComponent.loadFromFile(RADAR1_PATH)).thenReturn(radar1FileLines);
+
+		final Matrix invader1Matrix = Matrix.builder().elements(invader1MatrixElements).width(invader1MatrixElements[0].length).height(invader1MatrixElements.length).build();
+		final Matrix invader2Matrix = Matrix.builder().elements(invader2MatrixElements).width(invader2MatrixElements[0].length).height(invader2MatrixElements.length).build();
+		final Matrix radarMatrix = Matrix.builder().elements(radar1MatrixElements).width(radar1MatrixElements[0].length).height(radar1MatrixElements.length).build();
+
+		when(fileToMatrixTransformer.transform(invader1FileLines)).thenReturn(invader1Matrix);
+		when(fileToMatrixTransformer.transform(invader2FileLines)).thenReturn(invader2Matrix);
+		when(fileToMatrixTransformer.transform(radar1FileLines)).thenReturn(radarMatrix);
+
+		for (DetectorProperties properties : Arrays.asList(detectorProperties, filterProperties)) {
+			properties.setEdgeDetection(true);
+			properties.setInvaderVariants(new LinkedHashSet<>(Arrays.asList(InvaderVariant.ROTATE_90)));
+			properties.setNonMaximumSuppression(true);
+			properties.setResultLimit(3);
+		}
+		final DetectionEngine variantDetectionEngine = new VariantDetectionEngine(new EdgeDetectionEngine((AutoDetectionEngine) detectionEngine, new BitPackedDetectionEngine(), filterProperties), filterProperties);
+		final List<InvaderTemplate> invaders = Arrays.asList(InvaderTemplate.of(invader1Matrix), InvaderTemplate.of(invader2Matrix));
+
+		final List<Float> percentages = Arrays.asList(60.0f, 80.0f, FULL_MATCH_PERCENTAGE);
+		final Map<Float, List<List<DetectionResult>>> sweepResults = spaceInvaderDetector.sweep(Arrays.asList(INVADER1_PATH, INVADER2_PATH), RADAR1_PATH, percentages);
+
+		for (float percentage : percentages) {
+			assertEquals(resultFilter.apply(variantDetectionEngine.process(DetectionContext.of(invaders, PackedMatrix.of(radarMatrix), percentage))),
+				sweepResults.get(percentage));
+		}
+		assertTrue(sweepResults.get(60.0f).get(1).stream().anyMatch(result -> result.getRowStart() < 0));
+		assertTrue(sweepResults.get(FULL_MATCH_PERCENTAGE).get(1).stream().anyMatch(result -> result.getVariant() == InvaderVariant.ROTATE_90));
+		assertEquals(3, sweepResults.get(60.0f).get(0).size());
+	}
 }
@@ -0,0 +1,148 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import fuga.app.invaderdetector.components.filter.ResultFilter;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.DetectionStatistics;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.InvaderVariant;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+import static fuga.app.invaderdetector.components.detector.BitPackedDetectionEngineTest.randomMatrix;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingDetectorTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final BitPackedDetectionEngine detectionEngine = new BitPackedDetectionEngine();
+
+	@Test
+	public void testSameResultsAsInMemoryDetection() throws IOException {
+		final Random random = new Random(37);
+		final Matrix radarMatrix = randomMatrix(random, 90, 103, 0.6);
+		final List<InvaderTemplate> invaders = Arrays.asList(
+			InvaderTemplate.of(randomMatrix(random, 11, 8, 0.6)),
+			InvaderTemplate.of(randomMatrix(random, 4, 2, 0.6)),
+			InvaderTemplate.of(randomMatrix(random, 6, 1, 0.6)));
+
+		final List<List<DetectionResult>> expected = detectionEngine.process(DetectionContext.of(invaders, PackedMatrix.of(radarMatrix), 62.0f));
+		assertFalse(expected.get(0).isEmpty());
+
+		for (int bandRows : new int[] {1, 7, 50, 103, 500}) {
+			final DetectorProperties detectorProperties = new DetectorProperties();
+			detectorProperties.setStreamingBandRows(bandRows);
+			final StreamingDetector streamingDetector = new StreamingDetector(detectionEngine, new ResultFilter(detectorProperties), detectorProperties);
+
+			final List<List<DetectionResult>> actual = Arrays.asList(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+			final DetectionStatistics statistics = streamingDetector.detect(invaders, write(radarMatrix), 62.0f,
+				(invaderIndex, detectionResult) -> actual.get(invaderIndex).add(detectionResult));
+
+			assertEquals(expected, actual);
+			assertEquals((90 - 11 + 1) * (103 - 8 + 1) + (90 - 4 + 1) * (103 - 2 + 1) + (90 - 6 + 1) * 103,
+				statistics.getWindowsScored() + statistics.getWindowsPruned());
+		}
+	}
+
+	@Test
+	public void testEdgeDetectionSameResultsAsInMemoryDetection() throws IOException {
+		final Random random = new Random(38);
+		final Matrix radarMatrix = randomMatrix(random, 40, 33, 0.6);
+		final List<InvaderTemplate> invaders = Arrays.asList(
+			InvaderTemplate.of(randomMatrix(random, 8, 5, 0.6)),
+			InvaderTemplate.of(randomMatrix(random, 3, 2, 0.6)));
+
+		final DetectorProperties detectorProperties = new DetectorProperties();
+		detectorProperties.setEdgeDetection(true);
+		final EdgeDetectionEngine edgeEngine = new EdgeDetectionEngine(new AutoDetectionEngine(new ParallelDetectionEngine(detectionEngine, detectorProperties),
+			new FftDetectionEngine(detectionEngine), new PyramidDetectionEngine(detectionEngine, detectorProperties), new ExactMatchDetectionEngine(detectionEngine), detectorProperties), detectionEngine, detectorProperties);
+
+		final List<List<DetectionResult>> expected = edgeEngine.process(DetectionContext.of(invaders, PackedMatrix.of(radarMatrix), 62.0f));
+		assertTrue(expected.get(0).stream().anyMatch(result -> result.getRowStart() < 0));
+
+		for (int bandRows : new int[] {1, 6, 33, 100}) {
+			detectorProperties.setStreamingBandRows(bandRows);
+			final StreamingDetector streamingDetector = new StreamingDetector(edgeEngine, new ResultFilter(detectorProperties), detectorProperties);
+
+			final List<List<DetectionResult>> actual = Arrays.asList(new ArrayList<>(), new ArrayList<>());
+			streamingDetector.detect(invaders, write(radarMatrix), 62.0f, (invaderIndex, detectionResult) -> actual.get(invaderIndex).add(detectionResult));
+
+			assertEquals(expected, actual);
+		}
+	}
+
+	@Test
+	public void testVariantsSameResultsAsInMemoryDetection() throws IOException {
+		final Random random = new Random(40);
+		final Matrix radarMatrix = randomMatrix(random, 60, 45, 0.6);
+		final List<InvaderTemplate> invaders = Arrays.asList(InvaderTemplate.of(randomMatrix(random, 11, 3, 0.6)));
+
+		final DetectorProperties detectorProperties = new DetectorProperties();
+		detectorProperties.setInvaderVariants(EnumSet.of(InvaderVariant.ROTATE_90));
+		final VariantDetectionEngine variantEngine = new VariantDetectionEngine(new EdgeDetectionEngine(new AutoDetectionEngine(
+			new ParallelDetectionEngine(detectionEngine, detectorProperties), new FftDetectionEngine(detectionEngine),
+			new PyramidDetectionEngine(detectionEngine, detectorProperties), new ExactMatchDetectionEngine(detectionEngine), detectorProperties),
+			detectionEngine, detectorProperties), detectorProperties);
+
+		final List<List<DetectionResult>> expected = variantEngine.process(DetectionContext.of(invaders, PackedMatrix.of(radarMatrix), 55.0f));
+		assertTrue(expected.get(0).stream().anyMatch(result -> result.getVariant() == InvaderVariant.ROTATE_90));
+
+		for (int bandRows : new int[] {1, 7, 45}) {
+			detectorProperties.setStreamingBandRows(bandRows);
+			final StreamingDetector streamingDetector = new StreamingDetector(variantEngine, new ResultFilter(detectorProperties), detectorProperties);
+
+			final List<List<DetectionResult>> actual = Collections.singletonList(new ArrayList<>());
+			streamingDetector.detect(invaders, write(radarMatrix), 55.0f, (invaderIndex, detectionResult) -> actual.get(invaderIndex).add(detectionResult));
+
+			assertEquals(expected, actual);
+		}
+	}
+
+	@Test
+	public void testResultLimitAcrossBands() throws IOException {
+		final Random random = new Random(39);
+		final Matrix radarMatrix = randomMatrix(random, 50, 80, 0.5);
+		final List<InvaderTemplate> invaders = Arrays.asList(InvaderTemplate.of(randomMatrix(random, 5, 4, 0.6)));
+
+		final DetectorProperties detectorProperties = new DetectorProperties();
+		detectorProperties.setStreamingBandRows(9);
+		detectorProperties.setResultLimit(5);
+		final StreamingDetector streamingDetector = new StreamingDetector(detectionEngine, new ResultFilter(detectorProperties), detectorProperties);
+
+		final List<DetectionResult> actual = new ArrayList<>();
+		streamingDetector.detect(invaders, write(radarMatrix), 40.0f, (invaderIndex, detectionResult) -> actual.add(detectionResult));
+
+		assertEquals(detectionEngine.process(DetectionContext.of(invaders, PackedMatrix.of(radarMatrix), 40.0f).withResultLimit(5)).get(0), actual);
+	}
+
+	private String write(final Matrix matrix) throws IOException {
+		final StringBuilder content = new StringBuilder();
+		for (char[] row : matrix.getElements()) {
+			content.append(row).append('\n');
+		}
+
+		final File file = temporaryFolder.newFile();
+		Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.US_ASCII));
+		return file.getPath();
+	}
+}
@@ -0,0 +1,125 @@
+package fuga.app.invaderdetector.components.detector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.InvaderVariant;
+import fuga.app.invaderdetector.model.InvaderVariants;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+import static fuga.app.invaderdetector.components.detector.BitPackedDetectionEngineTest.randomMatrix;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VariantDetectionEngineTest {
+
+	private final BitPackedDetectionEngine directEngine = new BitPackedDetectionEngine();
+	private final DetectorProperties detectorProperties = new DetectorProperties();
+	private final VariantDetectionEngine variantEngine = new VariantDetectionEngine(new EdgeDetectionEngine(
+		new AutoDetectionEngine(new ParallelDetectionEngine(directEngine, detectorProperties), new FftDetectionEngine(directEngine),
+		new PyramidDetectionEngine(directEngine, detectorProperties), new ExactMatchDetectionEngine(directEngine), detectorProperties), directEngine, detectorProperties), detectorProperties);
+
+	@Test
+	public void testVariantMatrices() {
+		final Matrix invaderMatrix = matrix("oo-", "--o");
+
+		assertArrayEquals(matrix("-o", "-o", "o-").getElements(), InvaderVariant.ROTATE_90.apply(invaderMatrix).getElements());
+		assertArrayEquals(matrix("o--", "-oo").getElements(), InvaderVariant.ROTATE_180.apply(invaderMatrix).getElements());
+		assertArrayEquals(matrix("-o", "o-", "o-").getElements(), InvaderVariant.ROTATE_270.apply(invaderMatrix).getElements());
+		assertArrayEquals(matrix("-oo", "o--").getElements(), InvaderVariant.MIRROR.apply(invaderMatrix).getElements());
+		assertArrayEquals(matrix("--o", "oo-").getElements(), InvaderVariant.MIRROR_ROTATE_180.apply(invaderMatrix).getElements());
+		assertArrayEquals(matrix("o-", "-o", "-o").getElements(), InvaderVariant.MIRROR_ROTATE_90.apply(invaderMatrix).getElements());
+		assertEquals(2, InvaderVariant.ROTATE_270.apply(invaderMatrix).getWidth());
+	}
+
+	@Test
+	public void testSymmetricVariantsLeftOut() {
+		final List<InvaderTemplate> invaders = Arrays.asList(
+			InvaderTemplate.of(matrix("-o-", "ooo", "-o-")),
+			InvaderTemplate.of(matrix("o-o", "ooo", "-o-")),
+			InvaderTemplate.of(matrix("oo-", "--o")));
+
+		final InvaderVariants variants = InvaderVariants.of(invaders, EnumSet.allOf(InvaderVariant.class));
+
+		assertEquals(1 + 4 + 8, variants.getTemplates().size());
+		assertEquals(InvaderVariant.IDENTITY, variants.getTemplates().get(0).getVariant());
+		assertEquals(1, variants.getOwner(1));
+		assertEquals(2, variants.getOwner(5));
+	}
+
+	@Test
+	public void testSameResultsAsSeparateScans() {
+		final Random random = new Random(16);
+		final Matrix invader1 = randomMatrix(random, 7, 4, 0.6);
+		final Matrix invader2 = matrix("-o-", "ooo", "o-o");
+		final Matrix radar = randomMatrix(random, 60, 40, 0.4);
+		plant(radar, InvaderVariant.ROTATE_90.apply(invader1), 3, 5);
+		plant(radar, InvaderVariant.MIRROR_ROTATE_180.apply(invader1), 20, 30);
+		plant(radar, InvaderVariant.ROTATE_180.apply(invader2), 33, 50);
+
+		detectorProperties.setInvaderVariants(EnumSet.of(InvaderVariant.ROTATE_90, InvaderVariant.ROTATE_180, InvaderVariant.MIRROR_ROTATE_180));
+		final List<InvaderTemplate> invaders = Arrays.asList(InvaderTemplate.of(invader1), InvaderTemplate.of(invader2));
+		final PackedMatrix radarMatrix = PackedMatrix.of(radar);
+
+		final List<List<DetectionResult>> results = variantEngine.process(DetectionContext.withPruning(invaders, radarMatrix, 75.0f));
+
+		assertEquals(separateScans(invader1, radarMatrix, 75.0f), results.get(0));
+		assertEquals(separateScans(invader2, radarMatrix, 75.0f), results.get(1));
+		assertTrue(results.get(0).contains(directEngine.scoreWindow(InvaderTemplate.of(invader1, InvaderVariant.ROTATE_90), radarMatrix, 3, 5, 100.0f, 0)));
+		assertTrue(results.get(1).stream().anyMatch(result -> result.getRowStart() == 33 && result.getColumnStart() == 50
+			&& result.getMatchingPercentage() == 100.0f && result.getVariant() == InvaderVariant.ROTATE_180));
+	}
+
+	@Test
+	public void testNoVariantsConfigured() {
+		final Random random = new Random(17);
+		final List<InvaderTemplate> invaders = Arrays.asList(InvaderTemplate.of(randomMatrix(random, 5, 5, 0.6)));
+		final PackedMatrix radarMatrix = PackedMatrix.of(randomMatrix(random, 30, 30, 0.6));
+
+		assertEquals(directEngine.process(DetectionContext.of(invaders, radarMatrix, 60.0f)),
+			variantEngine.process(DetectionContext.of(invaders, radarMatrix, 60.0f)));
+	}
+
+	/**
+	 * Scans radar once for every distinct orientation of invader
+	 */
+	private List<DetectionResult> separateScans(final Matrix invaderMatrix, final PackedMatrix radarMatrix, final float requiredPercentage) {
+		final List<DetectionResult> expected = new ArrayList<>();
+		final List<PackedMatrix> patterns = new ArrayList<>();
+
+		for (InvaderVariant variant : EnumSet.of(InvaderVariant.IDENTITY, InvaderVariant.ROTATE_90, InvaderVariant.ROTATE_180, InvaderVariant.MIRROR_ROTATE_180)) {
+			final InvaderTemplate template = InvaderTemplate.of(invaderMatrix, variant);
+			if (!patterns.contains(template.getPattern())) {
+				patterns.add(template.getPattern());
+				expected.addAll(directEngine.process(template, radarMatrix, requiredPercentage));
+			}
+		}
+
+		expected.sort(Comparator.comparingInt(DetectionResult::getRowStart).thenComparingInt(DetectionResult::getColumnStart)
+			.thenComparing(DetectionResult::getVariant));
+		return expected;
+	}
+
+	private void plant(final Matrix radar, final Matrix invaderMatrix, final int row, final int column) {
+		for (int i = 0; i < invaderMatrix.getHeight(); i++) {
+			System.arraycopy(invaderMatrix.getElements()[i], 0, radar.getElements()[row + i], column, invaderMatrix.getWidth());
+		}
+	}
+
+	private Matrix matrix(final String... rows) {
+		final char[][] elements = Arrays.stream(rows).map(String::toCharArray).toArray(char[][]::new);
+		return Matrix.builder().width(elements[0].length).height(elements.length).elements(elements).build();
+	}
+}
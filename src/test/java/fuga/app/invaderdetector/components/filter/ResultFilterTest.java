@@ -0,0 +1,96 @@
+package fuga.app.invaderdetector.components.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import fuga.app.invaderdetector.components.detector.BitPackedDetectionEngine;
+import fuga.app.invaderdetector.components.detector.ParallelDetectionEngine;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import fuga.app.invaderdetector.model.ResultCollector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ResultFilterTest {
+
+	private final DetectorProperties detectorProperties = new DetectorProperties();
+	private final ResultFilter resultFilter = new ResultFilter(detectorProperties);
+
+	@Test
+	public void testResultLimitKeepsBestResults() {
+		final Random random = new Random(18);
+		final List<InvaderTemplate> invaders = Arrays.asList(InvaderTemplate.of(randomMatrix(random, 6, 5)), InvaderTemplate.of(randomMatrix(random, 3, 3)));
+		final PackedMatrix radarMatrix = PackedMatrix.of(randomMatrix(random, 120, 200));
+		detectorProperties.setParallelism(4);
+		final ParallelDetectionEngine detectionEngine = new ParallelDetectionEngine(new BitPackedDetectionEngine(), detectorProperties);
+
+		final List<List<DetectionResult>> allResults = detectionEngine.process(DetectionContext.of(invaders, radarMatrix, 40.0f));
+		final List<List<DetectionResult>> limitedResults = detectionEngine.process(DetectionContext.of(invaders, radarMatrix, 40.0f).withResultLimit(7));
+
+		for (int index = 0; index < invaders.size(); index++) {
+			assertTrue(allResults.get(index).size() > 100);
+			final List<DetectionResult> expected = allResults.get(index).stream().sorted(ResultCollector.BEST_FIRST).limit(7)
+				.sorted(ResultCollector.RESULT_ORDER).collect(Collectors.toList());
+			assertEquals(expected, limitedResults.get(index));
+		}
+	}
+
+	@Test
+	public void testNonMaximumSuppression() {
+		final DetectionResult best = DetectionResult.of(10, 10, 4, 4, 95.0f, 0, 0);
+		final DetectionResult overlapping = DetectionResult.of(11, 11, 4, 4, 90.0f, 0, 0);
+		final DetectionResult touching = DetectionResult.of(13, 13, 4, 4, 85.0f, 0, 0);
+		final DetectionResult separate = DetectionResult.of(0, 0, 4, 4, 80.0f, 0, 0);
+
+		detectorProperties.setNonMaximumSuppression(true);
+		assertEquals(Arrays.asList(Arrays.asList(separate, best, touching)),
+			resultFilter.apply(Collections.singletonList(Arrays.asList(separate, best, overlapping, touching))));
+
+		detectorProperties.setResultLimit(2);
+		assertEquals(Arrays.asList(Arrays.asList(best, touching)),
+			resultFilter.apply(Collections.singletonList(Arrays.asList(separate, best, overlapping, touching))));
+	}
+
+	@Test
+	public void testSameResultsAsComparisonWithAllKept() {
+		final Random random = new Random(19);
+		final List<DetectionResult> detectionResults = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			final boolean rotated = random.nextBoolean();
+			detectionResults.add(DetectionResult.of(random.nextInt(100) - 5, random.nextInt(100) - 5, rotated ? 8 : 11, rotated ? 11 : 8,
+				50.0f + random.nextInt(50), 0, 0));
+		}
+
+		//Every result compared with all kept results
+		final List<DetectionResult> expected = new ArrayList<>();
+		for (DetectionResult result : detectionResults.stream().sorted(ResultCollector.BEST_FIRST).collect(Collectors.toList())) {
+			if (expected.stream().allMatch(kept -> ResultFilter.overlap(result, kept) <= 0.3)) {
+				expected.add(result);
+			}
+		}
+		expected.sort(ResultCollector.RESULT_ORDER);
+
+		assertEquals(expected, ResultFilter.suppress(detectionResults, 0.3));
+	}
+
+	private Matrix randomMatrix(final Random random, final int width, final int height) {
+		final char[][] elements = new char[height][width];
+		for (int i = 0; i < height; i++) {
+			for (int j = 0; j < width; j++) {
+				elements[i][j] = random.nextBoolean() ? 'o' : '-';
+			}
+		}
+		return Matrix.builder().width(width).height(height).elements(elements).build();
+	}
+}
@@ -0,0 +1,99 @@
+package fuga.app.invaderdetector.components.loader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import fuga.app.invaderdetector.components.transformer.FileToMatrixTransformer;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.Matrix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class InvaderTemplateCacheTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final DetectorProperties detectorProperties = new DetectorProperties();
+	private final InvaderTemplateCache invaderTemplateCache = new InvaderTemplateCache(detectorProperties);
+
+	private final MatrixLoaderComponent matrixLoaderComponent = new MatrixLoaderComponent();
+	private final FileToMatrixTransformer fileToMatrixTransformer = new FileToMatrixTransformer();
+	private final AtomicInteger loads = new AtomicInteger();
+	private final Function<String, Matrix> loader = filePath -> {
+		loads.incrementAndGet();
+		return fileToMatrixTransformer.transform(matrixLoaderComponent.loadFromFile(filePath));
+	};
+
+	@Test
+	public void testHitAndReloadOfModifiedFile() throws IOException {
+		final File invaderFile = write("invader.txt", "-o-\no-o\n");
+
+		final InvaderTemplate template = invaderTemplateCache.get(invaderFile.getPath(), loader);
+		assertSame(template, invaderTemplateCache.get(invaderFile.getPath(), loader));
+		assertEquals(3, template.getMatchingCount());
+		assertEquals(1, loads.get());
+
+		write("invader.txt", "ooo\no-o\n");
+		invaderFile.setLastModified(invaderFile.lastModified() + 2000);
+
+		final InvaderTemplate reloaded = invaderTemplateCache.get(invaderFile.getPath(), loader);
+		assertNotSame(template, reloaded);
+		assertEquals(5, reloaded.getMatchingCount());
+		assertEquals(2, loads.get());
+
+		assertEquals(1, invaderTemplateCache.getHits());
+		assertEquals(2, invaderTemplateCache.getMisses());
+		assertEquals(reloaded.estimateSize(), invaderTemplateCache.getSize());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEvicted() throws IOException {
+		final File first = write("first.txt", "oo\noo\n");
+		final File second = write("second.txt", "o-\n-o\n");
+		final File third = write("third.txt", "-o\no-\n");
+
+		final long templateSize = invaderTemplateCache.get(first.getPath(), loader).estimateSize();
+		detectorProperties.setInvaderCacheMaximumSize(2 * templateSize);
+
+		invaderTemplateCache.get(second.getPath(), loader);
+		invaderTemplateCache.get(first.getPath(), loader);
+		invaderTemplateCache.get(third.getPath(), loader);
+		assertEquals(1, invaderTemplateCache.getEvictions());
+
+		//Second template was least recently used, so it is loaded again
+		invaderTemplateCache.get(first.getPath(), loader);
+		invaderTemplateCache.get(second.getPath(), loader);
+		assertEquals(4, loads.get());
+		assertEquals(2, invaderTemplateCache.getEvictions());
+		assertEquals(2 * templateSize, invaderTemplateCache.getSize());
+	}
+
+	@Test
+	public void testDisabledCache() throws IOException {
+		final File invaderFile = write("invader.txt", "-o-\no-o\n");
+		detectorProperties.setInvaderCacheMaximumSize(0);
+
+		invaderTemplateCache.get(invaderFile.getPath(), loader);
+		invaderTemplateCache.get(invaderFile.getPath(), loader);
+
+		assertEquals(2, loads.get());
+		assertEquals(0, invaderTemplateCache.getSize());
+	}
+
+	private File write(final String name, final String content) throws IOException {
+		final File file = new File(temporaryFolder.getRoot(), name);
+		Files.write(file.toPath(), content.getBytes());
+		return file;
+	}
+}
@@ -0,0 +1,66 @@
+package fuga.app.invaderdetector.components.loader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import fuga.app.invaderdetector.components.transformer.FileToMatrixTransformer;
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+import static org.junit.Assert.assertEquals;
+
+public class MappedMatrixLoaderTest {
+
+	private static final String ABSOLUTE_PATH = System.getProperty("user.dir");
+
+	private static final String RADAR_PATH = ABSOLUTE_PATH + "/src/main/resources/files/radarimages/radar.txt";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final MappedMatrixLoader mappedMatrixLoader = new MappedMatrixLoader();
+	private final MatrixLoaderComponent matrixLoaderComponent = new MatrixLoaderComponent();
+	private final FileToMatrixTransformer fileToMatrixTransformer = new FileToMatrixTransformer();
+
+	@Test
+	public void testSameMatrixAsTextLoader() {
+		assertEquals(loadAsText(RADAR_PATH), mappedMatrixLoader.load(RADAR_PATH));
+	}
+
+	@Test
+	public void testLineTerminators() throws IOException {
+		final String row1 = "o-o-----------------------------------------------------------ooo-o";
+		final String row2 = "-o---------------------------------------------------------------o-";
+
+		for (String content : new String[] {
+			row1 + "\n" + row2 + "\n",
+			row1 + "\r\n" + row2,
+			row1 + "\r" + row2 + "\r\n",
+			row1 + "\n\n" + row2 + "\n"}) {
+
+			final String filePath = write(content);
+			assertEquals(loadAsText(filePath), mappedMatrixLoader.load(filePath));
+		}
+	}
+
+	@Test
+	public void testEmptyAndMissingFile() throws IOException {
+		assertEquals(new PackedMatrix(0, 0), mappedMatrixLoader.load(write("")));
+		assertEquals(new PackedMatrix(0, 0), mappedMatrixLoader.load(temporaryFolder.getRoot() + "/missing.txt"));
+	}
+
+	private PackedMatrix loadAsText(final String filePath) {
+		return PackedMatrix.of(fileToMatrixTransformer.transform(matrixLoaderComponent.loadFromFile(filePath)));
+	}
+
+	private String write(final String content) throws IOException {
+		final File file = temporaryFolder.newFile();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+		return file.getPath();
+	}
+}
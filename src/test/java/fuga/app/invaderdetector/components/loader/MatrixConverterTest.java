@@ -0,0 +1,144 @@
+package fuga.app.invaderdetector.components.loader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import fuga.app.invaderdetector.components.transformer.FileToMatrixTransformer;
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MatrixConverterTest {
+
+	private static final String ABSOLUTE_PATH = System.getProperty("user.dir");
+
+	private static final String RADAR_PATH = ABSOLUTE_PATH + "/src/main/resources/files/radarimages/radar.txt";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final BinaryMatrixLoader binaryMatrixLoader = new BinaryMatrixLoader();
+	private final BinaryMatrixWriter binaryMatrixWriter = new BinaryMatrixWriter();
+	private final MatrixConverter matrixConverter = new MatrixConverter(new MappedMatrixLoader(), binaryMatrixLoader, binaryMatrixWriter);
+	private final MatrixLoaderComponent matrixLoaderComponent = new MatrixLoaderComponent();
+	private final FileToMatrixTransformer fileToMatrixTransformer = new FileToMatrixTransformer();
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		final String binaryPath = temporaryFolder.getRoot() + "/radar.bin";
+		final String textPath = temporaryFolder.getRoot() + "/radar.txt";
+
+		matrixConverter.convert(RADAR_PATH, binaryPath);
+		matrixConverter.convert(binaryPath, textPath);
+
+		assertTrue(binaryMatrixLoader.isBinary(binaryPath));
+		assertFalse(binaryMatrixLoader.isBinary(RADAR_PATH));
+		assertEquals(loadAsText(RADAR_PATH), binaryMatrixLoader.load(binaryPath));
+		assertEquals(matrixLoaderComponent.loadFromFile(RADAR_PATH), matrixLoaderComponent.loadFromFile(textPath));
+	}
+
+	@Test
+	public void testStreamingReadOfBinaryImage() throws IOException {
+		//Width of 130 leaves unused bits in the last word of every row
+		final Random random = new Random(19);
+		final PackedMatrix radar = new PackedMatrix(130, 75);
+		for (int i = 0; i < radar.getHeight(); i++) {
+			for (int j = 0; j < radar.getWidth(); j++) {
+				if (random.nextBoolean()) {
+					radar.set(i, j);
+				}
+			}
+		}
+		final String binaryPath = temporaryFolder.getRoot() + "/radar.bin";
+		binaryMatrixWriter.write(radar, binaryPath);
+
+		final PackedMatrix band = new PackedMatrix(radar.getWidth(), 20);
+		final long[] words = new long[radar.getWords().length];
+		int rows = 0;
+
+		try (PackedRowReader reader = new PackedRowReader(binaryPath)) {
+			assertEquals(radar.getWidth(), reader.getWidth());
+
+			int read;
+			while ((read = reader.read(band, 0)) > 0) {
+				System.arraycopy(band.getWords(), 0, words, rows * band.getWordsPerRow(), read * band.getWordsPerRow());
+				rows += read;
+			}
+		}
+
+		assertEquals(radar.getHeight(), rows);
+		assertArrayEquals(radar.getWords(), words);
+	}
+
+	@Test
+	public void testInvalidBinaryImage() throws IOException {
+		final File file = temporaryFolder.newFile("broken.bin");
+		final byte[] header = new byte[16];
+		System.arraycopy(new byte[] {'S', 'I', 'B', 'M', 1, 0, 0, 0, 100, 0, 0, 0, 100, 0, 0, 0}, 0, header, 0, 16);
+		Files.write(file.toPath(), header);
+
+		assertTrue(binaryMatrixLoader.isBinary(file.getPath()));
+		assertEquals(new PackedMatrix(0, 0), binaryMatrixLoader.load(file.getPath()));
+	}
+
+	@Test
+	public void testOversizedBinaryImage() throws IOException {
+		final File file = temporaryFolder.newFile("oversized.bin");
+		Files.write(file.toPath(), new byte[] {'S', 'I', 'B', 'M', 1, 0, 0, 0, -1, -1, -1, 127, -1, -1, -1, 127});
+
+		assertEquals(new PackedMatrix(0, 0), binaryMatrixLoader.load(file.getPath()));
+	}
+
+	@Test
+	public void testPaddingOfBinaryImageCleared() throws IOException {
+		final PackedMatrix radar = new PackedMatrix(70, 3);
+		radar.set(1, 69);
+		final String binaryPath = temporaryFolder.getRoot() + "/radar.bin";
+		binaryMatrixWriter.write(radar, binaryPath);
+
+		//Sets every bit of the last word of each row, including those past image width
+		final byte[] bytes = Files.readAllBytes(new File(binaryPath).toPath());
+		for (int i = 0; i < radar.getHeight(); i++) {
+			Arrays.fill(bytes, 16 + 8 * (2 * i + 1), 16 + 8 * (2 * i + 2), (byte) -1);
+		}
+		Files.write(new File(binaryPath).toPath(), bytes);
+
+		final PackedMatrix loaded = binaryMatrixLoader.load(binaryPath);
+		assertEquals(3 * 6, loaded.count());
+
+		final PackedMatrix band = new PackedMatrix(radar.getWidth(), radar.getHeight());
+		try (PackedRowReader reader = new PackedRowReader(binaryPath)) {
+			assertEquals(radar.getHeight(), reader.read(band, 0));
+		}
+		assertEquals(loaded, band);
+	}
+
+	@Test
+	public void testConversionOfInvalidBinaryImage() throws IOException {
+		final File file = temporaryFolder.newFile("broken.bin");
+		Files.write(file.toPath(), new byte[] {'S', 'I', 'B', 'M', 1, 0, 0, 0, 100, 0, 0, 0, 100, 0, 0, 0});
+		final File output = new File(temporaryFolder.getRoot(), "broken.txt");
+
+		try {
+			matrixConverter.convert(file.getPath(), output.getPath());
+			fail("Conversion of invalid binary image should fail");
+		} catch (IOException e) {
+			assertFalse(output.exists());
+		}
+	}
+
+	private PackedMatrix loadAsText(final String filePath) {
+		return PackedMatrix.of(fileToMatrixTransformer.transform(matrixLoaderComponent.loadFromFile(filePath)));
+	}
+}
@@ -0,0 +1,98 @@
+package fuga.app.invaderdetector.components.printer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.Matrix;
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ResultPrinterTest {
+
+	private static final String ANSI_YELLOW = "\u001B[33m";
+	private static final String ANSI_WHITE = "\u001B[37m";
+
+	private final PrintStream systemOut = System.out;
+	private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+	private final DetectorProperties detectorProperties = new DetectorProperties();
+	private final ResultPrinter resultPrinter = new ResultPrinter(detectorProperties);
+
+	private final Matrix invaderMatrix = matrix("oo", "-o");
+	private final Matrix radarMatrix = matrix("-----", "-oo--", "--o-o", "---oo");
+	private final List<DetectionResult> detectionResults = Arrays.asList(
+		DetectionResult.of(1, 1, 2, 2, 100.0f, 0, 0),
+		DetectionResult.of(2, 3, 2, 2, 100.0f, 0, 1));
+
+	@Before
+	public void setUp() {
+		System.setOut(new PrintStream(output));
+	}
+
+	@After
+	public void tearDown() {
+		System.setOut(systemOut);
+	}
+
+	@Test
+	public void testColourWrittenOnlyOnTransition() {
+		resultPrinter.print(detectionResults, radarMatrix, invaderMatrix);
+
+		final String printed = output.toString();
+		assertEquals(2, count(printed, "Segment:"));
+		//Every result is highlighted in 2 rows, each starting a yellow run
+		assertEquals(4, count(printed, ANSI_YELLOW));
+		//White colour is kept from the previous row
+		assertTrue(printed.contains(System.lineSeparator() + "-" + ANSI_YELLOW + "oo" + ANSI_WHITE + "--" + System.lineSeparator()));
+		assertEquals(plain(printed), plain(print(detectionResults, PackedMatrix.of(radarMatrix))));
+	}
+
+	@Test
+	public void testOverlayRendersRadarOnce() {
+		detectorProperties.setOverlayResults(true);
+		resultPrinter.print(detectionResults, radarMatrix, invaderMatrix);
+
+		final String printed = output.toString();
+		assertEquals(2, count(printed, "Segment:"));
+		assertEquals(1, count(printed, "~" + System.lineSeparator()));
+		//Rows 1 and 3 are highlighted by one result, row 2 by both results
+		assertEquals(3, count(printed, ANSI_YELLOW));
+		assertTrue(printed.contains(System.lineSeparator() + "-" + ANSI_YELLOW + "-o-o" + System.lineSeparator()));
+	}
+
+	private String print(final List<DetectionResult> results, final PackedMatrix packedRadar) {
+		output.reset();
+		resultPrinter.print(results, packedRadar, invaderMatrix);
+		return output.toString();
+	}
+
+	private static String plain(final String text) {
+		return text.replaceAll("\u001B\\[\\d+m", "");
+	}
+
+	private static int count(final String text, final String part) {
+		int count = 0;
+		for (int index = text.indexOf(part); index >= 0; index = text.indexOf(part, index + part.length())) {
+			count++;
+		}
+		return count;
+	}
+
+	private static Matrix matrix(final String... rows) {
+		final char[][] elements = new char[rows.length][];
+		for (int i = 0; i < rows.length; i++) {
+			elements[i] = rows[i].toCharArray();
+		}
+		return Matrix.builder().width(rows[0].length()).height(rows.length).elements(elements).build();
+	}
+}
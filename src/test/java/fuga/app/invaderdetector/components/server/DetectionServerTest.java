@@ -0,0 +1,218 @@
+package fuga.app.invaderdetector.components.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import fuga.app.invaderdetector.components.detector.SpaceInvaderDetector;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.PackedMatrix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DetectionServerTest {
+
+	private static final List<String> INVADER_PATHS = Arrays.asList("/invaders/invader1.txt", "/invaders/invader2.txt");
+
+	private final SpaceInvaderDetector spaceInvaderDetector = mock(SpaceInvaderDetector.class);
+	private final DetectorProperties detectorProperties = new DetectorProperties();
+	private final DetectionServer detectionServer = new DetectionServer(spaceInvaderDetector, detectorProperties);
+	private final ExecutorService clients = Executors.newCachedThreadPool();
+
+	private InetSocketAddress address;
+
+	@After
+	public void tearDown() {
+		detectionServer.stop();
+		clients.shutdownNow();
+	}
+
+	@Test
+	public void testUploadedRadar() throws IOException {
+		final DetectionResult result1 = DetectionResult.of(0, 1, 0, 1, 100.0f, 0, 0);
+		final DetectionResult result2 = DetectionResult.of(1, 2, 3, 4, 75.0f, 1, 0);
+		when(spaceInvaderDetector.detect(anyCollection(), any(PackedMatrix.class), anyFloat()))
+			.thenReturn(Arrays.asList(Collections.singletonList(result1), Collections.singletonList(result2)));
+		start();
+
+		final Response response = post("/detect?percentage=75", "o-o-\n-o-o\r\n\n");
+
+		final ArgumentCaptor<PackedMatrix> radarCaptor = ArgumentCaptor.forClass(PackedMatrix.class);
+		verify(spaceInvaderDetector).detect(eq(INVADER_PATHS), radarCaptor.capture(), eq(75.0f));
+		assertEquals(4, radarCaptor.getValue().getWidth());
+		assertEquals(2, radarCaptor.getValue().getHeight());
+		assertTrue(radarCaptor.getValue().get(1, 1));
+
+		assertEquals(200, response.status);
+		final String[] lines = response.body.split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].startsWith("{\"radar\":\"upload\",\"invader\":\"invader1\",\"rowStart\":0"));
+		assertTrue(lines[1].startsWith("{\"radar\":\"upload\",\"invader\":\"invader2\",\"rowStart\":1"));
+	}
+
+	@Test
+	public void testSelectedInvader() throws IOException {
+		when(spaceInvaderDetector.detect(anyCollection(), any(PackedMatrix.class), anyFloat()))
+			.thenReturn(Collections.singletonList(Collections.emptyList()));
+		start();
+
+		final Response response = post("/detect?percentage=80&invader=invader2", "oo\noo\n");
+
+		verify(spaceInvaderDetector).detect(eq(Collections.singletonList(INVADER_PATHS.get(1))), any(PackedMatrix.class), eq(80.0f));
+		assertEquals(200, response.status);
+		assertEquals("", response.body);
+	}
+
+	@Test
+	public void testInvalidRequests() throws IOException {
+		start();
+
+		assertEquals(400, post("/detect", "oo\n").status);
+		assertEquals(400, post("/detect?percentage=101", "oo\n").status);
+		assertEquals(404, post("/detect?percentage=80&invader=invader3", "oo\n").status);
+		assertEquals(404, post("/detect?percentage=80&radarPath=/missing/radar.txt", "").status);
+		assertEquals(400, post("/detect?percentage=80", "ooo\noo\n").status);
+		assertEquals(400, post("/detect?percentage=80", "").status);
+
+		detectorProperties.setServerMaximumUploadSize(4);
+		assertEquals(413, post("/detect?percentage=80", "ooo\nooo\n").status);
+	}
+
+	@Test
+	public void testBusyServiceRejectsRequests() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		when(spaceInvaderDetector.detect(anyCollection(), any(PackedMatrix.class), anyFloat())).thenAnswer(invocation -> {
+			started.countDown();
+			release.await();
+			return Arrays.asList(Collections.emptyList(), Collections.emptyList());
+		});
+
+		detectorProperties.setServerThreads(1);
+		detectorProperties.setServerQueueCapacity(0);
+		start();
+
+		final Future<Response> first = clients.submit(() -> post("/detect?percentage=80", "oo\n"));
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		final Response second = post("/detect?percentage=80", "oo\n");
+		assertEquals(503, second.status);
+
+		release.countDown();
+		assertEquals(200, first.get(10, TimeUnit.SECONDS).status);
+	}
+
+	@Test
+	public void testRequestTimeout() throws IOException {
+		final CountDownLatch release = new CountDownLatch(1);
+		when(spaceInvaderDetector.detect(anyCollection(), any(PackedMatrix.class), anyFloat())).thenAnswer(invocation -> {
+			release.await();
+			return Arrays.asList(Collections.emptyList(), Collections.emptyList());
+		});
+		start();
+
+		try {
+			assertEquals(504, post("/detect?percentage=80&timeout=50", "oo\n").status);
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	public void testTimedOutRequestKeepsCapacity() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch finished = new CountDownLatch(1);
+		when(spaceInvaderDetector.detect(anyCollection(), any(PackedMatrix.class), anyFloat())).thenAnswer(invocation -> {
+			release.await();
+			finished.countDown();
+			return Arrays.asList(Collections.emptyList(), Collections.emptyList());
+		});
+
+		detectorProperties.setServerThreads(1);
+		detectorProperties.setServerQueueCapacity(0);
+		start();
+
+		try {
+			assertEquals(504, post("/detect?percentage=80&timeout=50", "oo\n").status);
+			assertEquals(503, post("/detect?percentage=80", "oo\n").status);
+		} finally {
+			release.countDown();
+		}
+
+		assertTrue(finished.await(10, TimeUnit.SECONDS));
+		when(spaceInvaderDetector.detect(anyCollection(), any(PackedMatrix.class), anyFloat()))
+			.thenReturn(Arrays.asList(Collections.emptyList(), Collections.emptyList()));
+		//Permit is released right after detection returns
+		Response response = post("/detect?percentage=80", "oo\n");
+		for (int attempt = 0; response.status == 503 && attempt < 100; attempt++) {
+			Thread.sleep(20);
+			response = post("/detect?percentage=80", "oo\n");
+		}
+		assertEquals(200, response.status);
+	}
+
+	private void start() throws IOException {
+		detectorProperties.setServerPort(0);
+		address = detectionServer.start(INVADER_PATHS);
+	}
+
+	private Response post(final String path, final String body) throws IOException {
+		final HttpURLConnection connection = (HttpURLConnection) new URL("http", address.getHostString(), address.getPort(), path).openConnection();
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		try (OutputStream output = connection.getOutputStream()) {
+			output.write(body.getBytes(StandardCharsets.US_ASCII));
+		}
+
+		final int status = connection.getResponseCode();
+		final ByteArrayOutputStream content = new ByteArrayOutputStream();
+		try (InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+			if (input != null) {
+				final byte[] buffer = new byte[4096];
+				for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+					content.write(buffer, 0, read);
+				}
+			}
+		} finally {
+			connection.disconnect();
+		}
+
+		return new Response(status, new String(content.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	private static class Response {
+		private final int status;
+		private final String body;
+
+		Response(final int status, final String body) {
+			this.status = status;
+			this.body = body;
+		}
+	}
+}
@@ -0,0 +1,328 @@
+package fuga.app.invaderdetector.components.shard;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import fuga.app.invaderdetector.InvaderDetectorApplication;
+import fuga.app.invaderdetector.components.detector.AutoDetectionEngine;
+import fuga.app.invaderdetector.components.detector.BitPackedDetectionEngine;
+import fuga.app.invaderdetector.components.detector.DetectionEngine;
+import fuga.app.invaderdetector.components.detector.EdgeDetectionEngine;
+import fuga.app.invaderdetector.components.detector.ExactMatchDetectionEngine;
+import fuga.app.invaderdetector.components.detector.FftDetectionEngine;
+import fuga.app.invaderdetector.components.detector.ParallelDetectionEngine;
+import fuga.app.invaderdetector.components.detector.PyramidDetectionEngine;
+import fuga.app.invaderdetector.components.detector.SpaceInvaderDetector;
+import fuga.app.invaderdetector.components.detector.VariantDetectionEngine;
+import fuga.app.invaderdetector.components.filter.ResultFilter;
+import fuga.app.invaderdetector.components.loader.MatrixLoaderComponent;
+import fuga.app.invaderdetector.components.metrics.DetectionMetrics;
+import fuga.app.invaderdetector.components.printer.ResultPrinter;
+import fuga.app.invaderdetector.components.sink.ResultSinkFactory;
+import fuga.app.invaderdetector.components.transformer.FileToMatrixTransformer;
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionContext;
+import fuga.app.invaderdetector.model.DetectionResult;
+import fuga.app.invaderdetector.model.DetectionStatistics;
+import fuga.app.invaderdetector.model.InvaderTemplate;
+import fuga.app.invaderdetector.model.InvaderVariant;
+import fuga.app.invaderdetector.model.PackedMatrix;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ShardCoordinatorTest {
+
+	private static final String ABSOLUTE_PATH = System.getProperty("user.dir");
+
+	private static final List<String> INVADER_PATHS = Arrays.asList(ABSOLUTE_PATH + "/src/test/resources/files/invaders/invader1.txt",
+		ABSOLUTE_PATH + "/src/test/resources/files/invaders/invader2.txt");
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final SpaceInvaderDetector spaceInvaderDetector = mock(SpaceInvaderDetector.class);
+	private final DetectorProperties detectorProperties = new DetectorProperties();
+	private final ShardCoordinator shardCoordinator = coordinator();
+
+	private List<InvaderTemplate> invaders;
+
+	@Before
+	public void setUp() {
+		invaders = INVADER_PATHS.stream()
+			.map(path -> InvaderTemplate.of(new FileToMatrixTransformer().transform(new MatrixLoaderComponent().loadFromFile(path))))
+			.collect(Collectors.toList());
+		when(spaceInvaderDetector.loadInvaders(INVADER_PATHS)).thenReturn(invaders);
+	}
+
+	@Test
+	public void testProtocol() throws IOException {
+		final ShardRequest request = ShardRequest.builder()
+			.shardId(3)
+			.invaderFilePaths(INVADER_PATHS)
+			.requiredPercentage(72.5f)
+			.resultLimit(10)
+			.rowLimit(4)
+			.topEdge(false)
+			.radarMatrix(randomRadar(new Random(30), 130, 11).rows(2, 9))
+			.build();
+		final DetectionStatistics statistics = new DetectionStatistics();
+		statistics.addWindowsScored(7);
+		statistics.addWindowsPruned(5);
+		final ShardReply reply = ShardReply.builder()
+			.shardId(3)
+			.results(Arrays.asList(Collections.singletonList(DetectionResult.of(1, 2, 8, 11, 72.5f, 3, 4, InvaderVariant.ROTATE_90)), Collections.emptyList()))
+			.statistics(statistics)
+			.build();
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream output = new DataOutputStream(bytes);
+		ShardProtocol.writeRequest(output, request);
+		ShardProtocol.writeReply(output, reply);
+		ShardProtocol.writeShutdown(output);
+
+		final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		assertEquals(request, ShardProtocol.readRequest(input));
+		final ShardReply readReply = ShardProtocol.readReply(input);
+		assertEquals(reply.getResults(), readReply.getResults());
+		assertEquals(7, readReply.getStatistics().getWindowsScored());
+		assertEquals(5, readReply.getStatistics().getWindowsPruned());
+		assertNull(ShardProtocol.readRequest(input));
+	}
+
+	@Test
+	public void testShardOfCrashedWorkerReassigned() throws IOException {
+		final PackedMatrix radarMatrix = randomRadar(new Random(31), 150, 60);
+		detectorProperties.setShardRows(5);
+
+		final List<List<DetectionResult>> results = shardCoordinator.detect(INVADER_PATHS, radarMatrix, 70.0f,
+			Arrays.asList(failingOnceWorkerCommand(CrashingWorker.class), shardCoordinator.workerCommand()));
+
+		final List<List<DetectionResult>> expected = new BitPackedDetectionEngine().process(DetectionContext.of(invaders, radarMatrix, 70.0f));
+		assertTrue(expected.get(0).size() > 0 && expected.get(1).size() > 0);
+		assertEquals(expected, results);
+	}
+
+	@Test
+	public void testShardOfHangingWorkerReassigned() throws IOException {
+		final PackedMatrix radarMatrix = randomRadar(new Random(37), 150, 30);
+		detectorProperties.setShardRows(10);
+		detectorProperties.setShardReplyTimeout(1000);
+
+		final List<List<DetectionResult>> results = shardCoordinator.detect(INVADER_PATHS, radarMatrix, 70.0f,
+			Arrays.asList(failingOnceWorkerCommand(HangingWorker.class), shardCoordinator.workerCommand()));
+
+		assertEquals(new BitPackedDetectionEngine().process(DetectionContext.of(invaders, radarMatrix, 70.0f)), results);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testWorkerNotConnected() throws IOException {
+		detectorProperties.setShardWorkerStartTimeout(500);
+		shardCoordinator.detect(INVADER_PATHS, randomRadar(new Random(38), 50, 20), 70.0f, Collections.singletonList(testWorkerCommand(IdleWorker.class)));
+	}
+
+	@Test
+	public void testResultsWrittenToResultSink() throws IOException {
+		final PackedMatrix radarMatrix = randomRadar(new Random(39), 100, 20);
+		final String outputPath = temporaryFolder.getRoot() + "/results.jsonl";
+		when(spaceInvaderDetector.loadRadar("radar.txt")).thenReturn(radarMatrix);
+		detectorProperties.setResultFormat(ResultSinkFactory.JSON_LINES_FORMAT);
+		detectorProperties.setResultOutputPath(outputPath);
+
+		shardCoordinator.detect(INVADER_PATHS, "radar.txt", 70.0f);
+
+		final List<List<DetectionResult>> expected = new BitPackedDetectionEngine().process(DetectionContext.of(invaders, radarMatrix, 70.0f));
+		final List<String> lines = Files.readAllLines(new File(outputPath).toPath());
+		assertEquals(expected.get(0).size() + expected.get(1).size(), lines.size());
+		assertTrue(lines.get(0).startsWith("{\"radar\":\"radar.txt\",\"invader\":\"" + INVADER_PATHS.get(0) + "\""));
+	}
+
+	@Test
+	public void testCrashedWorkerReplaced() throws IOException {
+		final PackedMatrix radarMatrix = randomRadar(new Random(33), 150, 40);
+		detectorProperties.setShardRows(5);
+
+		final List<List<DetectionResult>> results = shardCoordinator.detect(INVADER_PATHS, radarMatrix, 70.0f,
+			Collections.singletonList(failingOnceWorkerCommand(CrashingWorker.class)));
+
+		assertTrue(new File(temporaryFolder.getRoot(), FailingOnceWorker.class.getSimpleName()).exists());
+		assertEquals(new BitPackedDetectionEngine().process(DetectionContext.of(invaders, radarMatrix, 70.0f)), results);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testAllWorkersCrashed() throws IOException {
+		detectorProperties.setShardRetries(1);
+		shardCoordinator.detect(INVADER_PATHS, randomRadar(new Random(32), 50, 20), 70.0f, Arrays.asList(testWorkerCommand(CrashingWorker.class), testWorkerCommand(CrashingWorker.class)));
+	}
+
+	@Test
+	public void testVariantsSameResultsAsInMemoryDetection() throws IOException {
+		//Rotated invader is taller than the original one, so shards have to overlap by the height of rotated invader
+		final PackedMatrix radarMatrix = randomRadar(new Random(35), 60, 40);
+		detectorProperties.setShardRows(5);
+		detectorProperties.setInvaderVariants(EnumSet.of(InvaderVariant.ROTATE_90));
+		final ShardCoordinator variantCoordinator = coordinator("--invaderVariants=ROTATE_90");
+
+		final List<List<DetectionResult>> results = variantCoordinator.detect(INVADER_PATHS, radarMatrix, 70.0f,
+			Arrays.asList(variantCoordinator.workerCommand(), variantCoordinator.workerCommand()));
+
+		final List<List<DetectionResult>> expected = detectionEngine().process(DetectionContext.of(invaders, radarMatrix, 70.0f));
+		assertTrue(expected.get(0).stream().anyMatch(result -> result.getVariant() == InvaderVariant.ROTATE_90));
+		assertEquals(expected, results);
+	}
+
+	@Test
+	public void testEdgeDetectionWithShortLastShard() throws IOException {
+		//Shard of 5 rows would leave the last radar row alone, while sub-matrices starting in the row before overhang bottom edge
+		final PackedMatrix radarMatrix = randomRadar(new Random(36), 150, 21);
+		detectorProperties.setShardRows(5);
+		detectorProperties.setEdgeDetection(true);
+		final ShardCoordinator edgeCoordinator = coordinator("--edgeDetection=true");
+
+		final List<List<DetectionResult>> results = edgeCoordinator.detect(INVADER_PATHS, radarMatrix, 70.0f,
+			Arrays.asList(edgeCoordinator.workerCommand(), edgeCoordinator.workerCommand()));
+
+		final List<List<DetectionResult>> expected = detectionEngine().process(DetectionContext.of(invaders, radarMatrix, 70.0f));
+		assertTrue(expected.get(0).stream().anyMatch(result -> result.getRowStart() == 19));
+		assertEquals(expected, results);
+	}
+
+	@Test
+	public void testWorkerCommand() throws IOException {
+		final File jar = temporaryFolder.newFile("invaderdetector.jar");
+		final List<String> jarCommand = ShardCoordinator.applicationCommand(jar.getPath(), jar);
+		assertEquals(Arrays.asList("-jar", jar.getPath()), jarCommand.subList(1, jarCommand.size()));
+
+		final String classPath = temporaryFolder.getRoot() + File.separator + "classes" + File.pathSeparator + jar.getPath();
+		final List<String> classPathCommand = ShardCoordinator.applicationCommand(classPath, new File(temporaryFolder.getRoot(), "classes"));
+		assertEquals(Arrays.asList("-cp", classPath, InvaderDetectorApplication.class.getName()), classPathCommand.subList(1, classPathCommand.size()));
+
+		detectorProperties.setShardWorkerCommand(Arrays.asList("launch-worker.sh", "-Xmx1g"));
+		final List<String> configuredCommand = coordinator("--shardWorkers=2", "--shardWorkerCommand=launch-worker.sh,-Xmx1g", "--edgeDetection=true").workerCommand();
+		assertEquals(Arrays.asList("launch-worker.sh", "-Xmx1g", "--spring.main.banner-mode=off", "--logging.level.root=WARN", "--edgeDetection=true"), configuredCommand);
+	}
+
+	private ShardCoordinator coordinator(final String... args) {
+		return new ShardCoordinator(spaceInvaderDetector, new ResultPrinter(detectorProperties), new ResultSinkFactory(detectorProperties),
+			new ResultFilter(detectorProperties), new DetectionMetrics(new SimpleMeterRegistry()), detectorProperties, new DefaultApplicationArguments(args));
+	}
+
+	/**
+	 * @return Detection engine of worker process, configured by properties of this test
+	 */
+	private DetectionEngine detectionEngine() {
+		final BitPackedDetectionEngine bitPackedEngine = new BitPackedDetectionEngine();
+		return new VariantDetectionEngine(new EdgeDetectionEngine(new AutoDetectionEngine(new ParallelDetectionEngine(bitPackedEngine, detectorProperties),
+			new FftDetectionEngine(bitPackedEngine), new PyramidDetectionEngine(bitPackedEngine, detectorProperties), new ExactMatchDetectionEngine(bitPackedEngine),
+			detectorProperties), bitPackedEngine, detectorProperties), detectorProperties);
+	}
+
+	private List<String> testWorkerCommand(final Class<?> workerClass) {
+		return Arrays.asList(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+			"-cp", System.getProperty("java.class.path"), workerClass.getName());
+	}
+
+	/**
+	 * @return Command of worker process failing as given worker class the first time it is launched in this test, and running the application afterwards
+	 */
+	private List<String> failingOnceWorkerCommand(final Class<?> failingWorkerClass) {
+		final List<String> applicationCommand = shardCoordinator.workerCommand();
+		final List<String> command = new ArrayList<>(Arrays.asList(applicationCommand.get(0),
+			"-D" + FailingOnceWorker.MARKER_PROPERTY + "=" + new File(temporaryFolder.getRoot(), FailingOnceWorker.class.getSimpleName()),
+			"-D" + FailingOnceWorker.FAILING_WORKER_PROPERTY + "=" + failingWorkerClass.getName(),
+			"-cp", System.getProperty("java.class.path"), FailingOnceWorker.class.getName()));
+		command.addAll(applicationCommand.subList(applicationCommand.indexOf(InvaderDetectorApplication.class.getName()) + 1, applicationCommand.size()));
+		return command;
+	}
+
+	private PackedMatrix randomRadar(final Random random, final int width, final int height) {
+		final PackedMatrix radarMatrix = new PackedMatrix(width, height);
+
+		for (int i = 0; i < height; i++) {
+			for (int j = 0; j < width; j++) {
+				if (random.nextDouble() < 0.6) {
+					radarMatrix.set(i, j);
+				}
+			}
+		}
+
+		return radarMatrix;
+	}
+
+	/**
+	 * Worker process which connects to coordinator and exits as soon as it receives a shard
+	 */
+	public static class CrashingWorker {
+
+		public static void main(final String[] args) throws IOException {
+			final int port = Integer.parseInt(args[args.length - 1].substring(args[args.length - 1].indexOf('=') + 1));
+			final Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+			socket.getInputStream().read();
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Worker process which runs failing worker class if its marker file does not exist yet, and the application otherwise
+	 */
+	public static class FailingOnceWorker {
+
+		static final String MARKER_PROPERTY = "failingOnceWorker.marker";
+		static final String FAILING_WORKER_PROPERTY = "failingOnceWorker.class";
+
+		public static void main(final String[] args) throws Exception {
+			if (new File(System.getProperty(MARKER_PROPERTY)).createNewFile()) {
+				Class.forName(System.getProperty(FAILING_WORKER_PROPERTY)).getMethod("main", String[].class).invoke(null, (Object) args);
+			} else {
+				InvaderDetectorApplication.main(args);
+			}
+		}
+	}
+
+	/**
+	 * Worker process which connects to coordinator and never answers, until it is stopped
+	 */
+	public static class HangingWorker {
+
+		public static void main(final String[] args) throws IOException, InterruptedException {
+			final int port = Integer.parseInt(args[args.length - 1].substring(args[args.length - 1].indexOf('=') + 1));
+			final Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+			socket.getInputStream().read();
+			Thread.sleep(Long.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Worker process which never connects to coordinator, until it is stopped
+	 */
+	public static class IdleWorker {
+
+		public static void main(final String[] args) throws InterruptedException {
+			Thread.sleep(Long.MAX_VALUE);
+		}
+	}
+}
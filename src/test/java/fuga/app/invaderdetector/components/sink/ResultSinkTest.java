@@ -0,0 +1,72 @@
+package fuga.app.invaderdetector.components.sink;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import fuga.app.invaderdetector.config.DetectorProperties;
+import fuga.app.invaderdetector.model.DetectionResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResultSinkTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final DetectionResult detectionResult = DetectionResult.of(3, 7, 8, 11, 87.5f, 2, 1);
+
+	@Test
+	public void testJsonLines() throws IOException {
+		final StringWriter output = new StringWriter();
+		try (ResultSink resultSink = new JsonLinesResultSink(output)) {
+			resultSink.write("radar.txt", "invader1.txt", detectionResult);
+			resultSink.write("radar.txt", "dir\\\"quoted\".txt", detectionResult);
+		}
+
+		assertEquals("{\"radar\":\"radar.txt\",\"invader\":\"invader1.txt\",\"rowStart\":3,\"rowEnd\":10,\"columnStart\":7,\"columnEnd\":17,"
+			+ "\"matchingPercentage\":87.5,\"noise\":2,\"junk\":1,\"variant\":\"IDENTITY\"}\n"
+			+ "{\"radar\":\"radar.txt\",\"invader\":\"dir\\\\\\\"quoted\\\".txt\",\"rowStart\":3,\"rowEnd\":10,\"columnStart\":7,\"columnEnd\":17,"
+			+ "\"matchingPercentage\":87.5,\"noise\":2,\"junk\":1,\"variant\":\"IDENTITY\"}\n", output.toString());
+	}
+
+	@Test
+	public void testCsv() throws IOException {
+		final StringWriter output = new StringWriter();
+		try (ResultSink resultSink = new CsvResultSink(output)) {
+			resultSink.write("radar.txt", "invader1.txt", detectionResult);
+			resultSink.write("radar.txt", "a,\"b\".txt", detectionResult);
+		}
+
+		assertEquals("radar,invader,rowStart,rowEnd,columnStart,columnEnd,matchingPercentage,noise,junk,variant\n"
+			+ "radar.txt,invader1.txt,3,10,7,17,87.5,2,1,IDENTITY\n"
+			+ "radar.txt,\"a,\"\"b\"\".txt\",3,10,7,17,87.5,2,1,IDENTITY\n", output.toString());
+	}
+
+	@Test
+	public void testFactoryWritesConfiguredFile() throws IOException {
+		final File outputFile = new File(temporaryFolder.getRoot(), "results.csv");
+		final DetectorProperties detectorProperties = new DetectorProperties();
+		final ResultSinkFactory resultSinkFactory = new ResultSinkFactory(detectorProperties);
+		assertTrue(resultSinkFactory.isTextFormat());
+
+		detectorProperties.setResultFormat("csv");
+		detectorProperties.setResultOutputPath(outputFile.getPath());
+		assertFalse(resultSinkFactory.isTextFormat());
+
+		try (ResultSink resultSink = resultSinkFactory.open()) {
+			resultSink.write("radar.txt", "invader1.txt", detectionResult);
+		}
+
+		assertEquals(Arrays.asList("radar,invader,rowStart,rowEnd,columnStart,columnEnd,matchingPercentage,noise,junk,variant", "radar.txt,invader1.txt,3,10,7,17,87.5,2,1,IDENTITY"),
+			Files.readAllLines(outputFile.toPath()));
+	}
+}